@@ -2,10 +2,11 @@ package ch.unisg.ics.interactions.hmas.core.hostables;
 
 import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
 import ch.unisg.ics.interactions.hmas.core.vocabularies.HMAS;
-import com.google.common.collect.ImmutableSet;
+import org.eclipse.rdf4j.model.IRI;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 /**
  * A resource that can be hosted on a MAS platform. An agent, an artefact, other
@@ -17,12 +18,12 @@ public abstract class AbstractHostable extends AbstractResource {
   /**
    * The Hypermedia MAS Platform on which the hostable resource is hosted.
    */
-  private final transient Set<HypermediaMASPlatform> platforms;
+  private final transient Supplier<Set<HypermediaMASPlatform>> platforms;
 
   protected AbstractHostable(final HMAS type, final AbstractBuilder builder) {
     super(type, builder);
     //noinspection unchecked
-    this.platforms = ImmutableSet.copyOf(builder.platforms);
+    this.platforms = builder.platforms.freeze();
   }
 
   protected AbstractHostable(final AbstractBuilder builder) {
@@ -30,13 +31,18 @@ public abstract class AbstractHostable extends AbstractResource {
   }
 
   public Set<HypermediaMASPlatform> getHMASPlatforms() {
-    return this.platforms;
+    return this.platforms.get();
+  }
+
+  @Override
+  protected void forEachRelatedResource(BiConsumer<IRI, AbstractResource> action) {
+    getHMASPlatforms().forEach(platform -> action.accept(CORE.IS_HOSTED_ON, platform));
   }
 
   public static abstract class AbstractBuilder<S extends AbstractBuilder, T extends AbstractHostable>
           extends AbstractResource.AbstractBuilder<S, T> {
 
-    private final transient Set<HypermediaMASPlatform> platforms;
+    private final transient Members<HypermediaMASPlatform> platforms;
 
     protected AbstractBuilder() {
       this(CORE.TERM.HOSTABLE);
@@ -44,7 +50,7 @@ public abstract class AbstractHostable extends AbstractResource {
 
     protected AbstractBuilder(HMAS type) {
       super(type);
-      this.platforms = new HashSet<>();
+      this.platforms = new Members<>();
     }
 
     public S addHMASPlatform(final HypermediaMASPlatform platform) {
@@ -57,6 +63,30 @@ public abstract class AbstractHostable extends AbstractResource {
       return getBuilder();
     }
 
+    public S removeHMASPlatform(final HypermediaMASPlatform platform) {
+      this.platforms.remove(platform);
+      return getBuilder();
+    }
+
+    @Override
+    protected S from(T resource) {
+      super.from(resource);
+      this.platforms.addAll(resource.getHMASPlatforms());
+      return getBuilder();
+    }
+
+    /**
+     * Adds platforms that are resolved on the first call to {@link AbstractHostable#getHMASPlatforms()}
+     * of the built resource, e.g. to refer to a platform that is still being built.
+     *
+     * @param platforms the supplier of the platforms
+     * @return this <code>Builder</code>
+     */
+    public S addDeferredHMASPlatforms(final Supplier<? extends Set<? extends HypermediaMASPlatform>> platforms) {
+      this.platforms.addDeferred(platforms);
+      return getBuilder();
+    }
+
     public abstract T build();
   }
 }
@@ -6,13 +6,16 @@ import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
-import org.eclipse.rdf4j.model.util.ModelBuilder;
 import org.eclipse.rdf4j.model.util.Values;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 public abstract class AbstractResource implements Resource {
 
@@ -22,6 +25,11 @@ public abstract class AbstractResource implements Resource {
   private final Optional<Model> graph;
   private final Optional<Model> bNodeGraph;
 
+  /* The content hash is computed at most once, unless it depends on the resources that reach this resource */
+  private volatile String contentHash;
+  /* The hash code is computed on first use, and is 0 until then */
+  private int hashCode;
+
   @SuppressWarnings("unchecked")
   protected AbstractResource(final HMAS type, final AbstractBuilder builder) {
 
@@ -58,13 +66,82 @@ public abstract class AbstractResource implements Resource {
 
   public Optional<Model> getGraph() { return graph; }
 
+  /**
+   * Returns a digest of the content of this resource, i.e. of its type, IRI, semantic types and
+   * graphs, and of the content of the resources that it is related to (e.g. the resources that are
+   * contained in a workspace). Graphs are digested in canonical form, such that the digest does
+   * not depend on blank node labels or on the order of statements. Resources with the same content
+   * have the same digest. Resources that are related in a cycle (e.g. a platform that hosts an
+   * agent which is hosted on the same platform) are digested together. The digest is computed
+   * once, together with the digests of the resources that this resource is related to.
+   *
+   * @return the hexadecimal SHA-256 digest of the content of this resource
+   */
+  public String contentHash() {
+    String hash = this.contentHash;
+    return hash != null ? hash : ContentHashes.of(this);
+  }
+
+  /**
+   * Checks whether this resource and another object denote the same resource. Resources that are
+   * identified by an IRI are equal if they are of the same class and have the same IRI, e.g. the
+   * same platform decoded from two profiles. Anonymous resources are only equal to themselves,
+   * since they denote distinct resources even if they are described alike. Use
+   * {@link #contentHash()} to compare the content of resources.
+   *
+   * @param o the object to compare with
+   * @return <code>true</code> if the object denotes the same resource
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AbstractResource other = (AbstractResource) o;
+    return this.IRI.isPresent() && this.type.equals(other.type) && this.IRI.equals(other.IRI);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = this.hashCode;
+    if (hash == 0) {
+      hash = this.IRI.isPresent()
+              ? 31 * getClass().getName().hashCode() + this.IRI.get().hashCode()
+              : System.identityHashCode(this);
+      this.hashCode = hash;
+    }
+    return hash;
+  }
+
+  String getCachedContentHash() {
+    return this.contentHash;
+  }
+
+  void setCachedContentHash(String contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  /**
+   * Passes the resources that this resource is related to, together with their relation, to the
+   * given action. Subclasses with relations to other resources override this method, such that
+   * the related resources are part of the {@link #contentHash()} of this resource.
+   *
+   * @param action the action that is passed each relation and related resource
+   */
+  protected void forEachRelatedResource(BiConsumer<IRI, AbstractResource> action) {
+  }
+
   public Optional<Model> getResolvedGraph(org.eclipse.rdf4j.model.Resource IRIOrBNode) {
     if (this.bNodeGraph.isPresent()) {
-      ModelBuilder resolvedModelBuilder = new ModelBuilder();
+      ValueFactory rdf = SimpleValueFactory.getInstance();
+      Model resolvedModel = new LinkedHashModel(this.bNodeGraph.get().size()
+              + this.graph.map(Model::size).orElse(0));
       this.bNodeGraph.get().forEach(statement ->
-              resolvedModelBuilder.add(IRIOrBNode, statement.getPredicate(), statement.getObject())
+              resolvedModel.add(rdf.createStatement(IRIOrBNode, statement.getPredicate(), statement.getObject()))
       );
-      Model resolvedModel = resolvedModelBuilder.build();
 
       if (this.graph.isPresent()) {
         this.graph.get().getNamespaces().stream()
@@ -84,6 +161,10 @@ public abstract class AbstractResource implements Resource {
     private Optional<String> IRI;
     private Optional<Model> graph;
     private Optional<Model> bNodeGraph;
+    /* The subject of the statements about this resource, until the resource is resolved to a node */
+    private org.eclipse.rdf4j.model.Resource bNode;
+    /* Whether the graphs are shared with the resource that this builder was initialized from */
+    private boolean sharedGraphs = false;
 
     protected AbstractBuilder(HMAS type) {
       this.TYPE = type;
@@ -96,6 +177,28 @@ public abstract class AbstractResource implements Resource {
 
     abstract protected S getBuilder();
 
+    /**
+     * Initializes this builder with the IRI, the semantic types and the graphs of a resource, e.g.
+     * to build a derived version of the resource. The graphs are shared with the resource, and are
+     * only copied once triples are added to this builder. Subclasses also initialize the members of
+     * their relations.
+     *
+     * @param resource the resource to derive from
+     * @return this <code>Builder</code>
+     */
+    protected S from(T resource) {
+      AbstractResource source = resource;
+      this.IRI = source.IRI;
+      this.semanticTypes.addAll(source.semanticTypes);
+      this.graph = source.graph;
+      this.bNodeGraph = source.bNodeGraph;
+      if (this.bNodeGraph.isPresent()) {
+        this.bNode = Values.bnode();
+      }
+      this.sharedGraphs = true;
+      return getBuilder();
+    }
+
     protected static boolean validateIRI(String IRI) {
       try {
         SimpleValueFactory.getInstance().createIRI(IRI);
@@ -133,6 +236,7 @@ public abstract class AbstractResource implements Resource {
      * @return this <code>Builder</code>
      */
     public S addGraph(Model graph) {
+      unshareGraphs();
       if (this.graph.isPresent()) {
         this.graph.get().addAll(graph);
       } else {
@@ -155,12 +259,31 @@ public abstract class AbstractResource implements Resource {
      * @return this <code>Builder</code>
      */
     public S addTriple(org.eclipse.rdf4j.model.Resource subject, IRI predicate, Value object) {
-      if (this.graph.isPresent()) {
-        this.graph.get().add(subject, predicate, object);
-      } else {
-        this.graph = Optional.of(new ModelBuilder().add(subject, predicate, object).build());
+      getGraphBuffer(1).add(subject, predicate, object);
+      return getBuilder();
+    }
+
+    /**
+     * Adds a batch of triples. The graph is sized for the batch when it is created, and is handed
+     * to the built resource as it is, without being copied. Adding a batch is thus cheaper than
+     * adding its triples one by one, e.g. when decoding resources with many triples. If the batch is
+     * empty, no graph is created.
+     *
+     * @param statements the triples to be added
+     * @return this <code>Builder</code>
+     */
+    public S addTriples(Iterable<? extends Statement> statements) {
+      int size = sizeOf(statements);
+      if (size == 0) {
+        return getBuilder();
       }
 
+      Model buffer = getGraphBuffer(size);
+      if (statements instanceof Collection) {
+        buffer.addAll((Collection<? extends Statement>) statements);
+      } else {
+        statements.forEach(buffer::add);
+      }
       return getBuilder();
     }
 
@@ -173,16 +296,71 @@ public abstract class AbstractResource implements Resource {
      * @return this <code>Builder</code>
      */
     public S addTriple(IRI predicate, Value object) {
-      if (this.bNodeGraph.isPresent()) {
-        org.eclipse.rdf4j.model.Resource bNode = this.bNodeGraph.get().subjects().iterator().next();
-        this.bNodeGraph.get().add(bNode, predicate, object);
-      } else {
-        this.bNodeGraph = Optional.of(new ModelBuilder().add(Values.bnode(), predicate, object).build());
+      getBNodeGraphBuffer(1).add(bNode, predicate, object);
+      return getBuilder();
+    }
+
+    /**
+     * Adds a batch of triples with this Resource as a subject (see {@link #addTriple(IRI, Value)}).
+     * The subjects of the given statements are replaced by this Resource, such that the
+     * statements can be passed as they were read, e.g. with the blank node that described this
+     * Resource in a representation. If the batch is empty, no graph is created.
+     *
+     * @param statements the statements whose predicates and objects are to be added
+     * @return this <code>Builder</code>
+     */
+    public S addBNodeTriples(Iterable<? extends Statement> statements) {
+      int size = sizeOf(statements);
+      if (size == 0) {
+        return getBuilder();
       }
 
+      Model buffer = getBNodeGraphBuffer(size);
+      for (Statement statement : statements) {
+        buffer.add(bNode, statement.getPredicate(), statement.getObject());
+      }
       return getBuilder();
     }
 
+    /* Returns the graph, which is created with room for the expected number of triples if absent */
+    private Model getGraphBuffer(int expectedSize) {
+      unshareGraphs();
+      if (!this.graph.isPresent()) {
+        this.graph = Optional.of(createBuffer(expectedSize));
+      }
+      return this.graph.get();
+    }
+
+    private Model getBNodeGraphBuffer(int expectedSize) {
+      unshareGraphs();
+      if (!this.bNodeGraph.isPresent()) {
+        this.bNode = Values.bnode();
+        this.bNodeGraph = Optional.of(createBuffer(expectedSize));
+      }
+      return this.bNodeGraph.get();
+    }
+
+    /* Copies the graphs that are shared with another resource before they are modified */
+    private void unshareGraphs() {
+      if (this.sharedGraphs) {
+        this.graph = this.graph.map(LinkedHashModel::new);
+        this.bNodeGraph = this.bNodeGraph.map(LinkedHashModel::new);
+        this.sharedGraphs = false;
+      }
+    }
+
+    private static Model createBuffer(int expectedSize) {
+      return expectedSize > 0 ? new LinkedHashModel(expectedSize) : new LinkedHashModel();
+    }
+
+    /* The size of a collection, or -1 if the size of the statements is not known in advance */
+    private static int sizeOf(Iterable<? extends Statement> statements) {
+      if (statements instanceof Collection) {
+        return ((Collection<?>) statements).size();
+      }
+      return statements.iterator().hasNext() ? -1 : 0;
+    }
+
 
     public abstract T build();
   }
@@ -2,17 +2,41 @@ package ch.unisg.ics.interactions.hmas.core.hostables;
 
 import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
 import ch.unisg.ics.interactions.hmas.core.vocabularies.HMAS;
+import com.google.common.base.Suppliers;
+import org.eclipse.rdf4j.model.IRI;
+
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 public class BaseResourceProfile extends AbstractHostable {
-  private final ProfiledResource resource;
+  private final Supplier<? extends ProfiledResource> resource;
+  private final Supplier<Set<BaseSignifier>> exposedSignifiers;
 
   protected BaseResourceProfile(AbstractBuilder builder) {
     super(CORE.TERM.RESOURCE_PROFILE, builder);
     this.resource = builder.resource;
+    //noinspection unchecked
+    this.exposedSignifiers = builder.exposedSignifiers.freeze();
   }
 
   public ProfiledResource getResource() {
-    return this.resource;
+    return this.resource.get();
+  }
+
+  /**
+   * Returns the signifiers that the profile exposes, i.e. the objects of
+   * <code>hmas:exposesSignifier</code>.
+   */
+  public Set<BaseSignifier> getExposedSignifiers() {
+    return this.exposedSignifiers.get();
+  }
+
+  @Override
+  protected void forEachRelatedResource(BiConsumer<IRI, AbstractResource> action) {
+    super.forEachRelatedResource(action);
+    action.accept(CORE.IS_PROFILE_OF, (AbstractResource) getResource());
+    getExposedSignifiers().forEach(signifier -> action.accept(CORE.EXPOSES_SIGNIFIER, signifier));
   }
 
   public static class Builder extends AbstractBuilder<Builder, BaseResourceProfile> {
@@ -21,6 +45,17 @@ public class BaseResourceProfile extends AbstractHostable {
       super(resource);
     }
 
+    /**
+     * Creates a builder for a profile whose resource is provided on the first call to
+     * {@link BaseResourceProfile#getResource()}. The resource is provided once, even if the
+     * profile is accessed concurrently.
+     *
+     * @param resource the supplier of the profiled resource
+     */
+    public Builder(Supplier<? extends ProfiledResource> resource) {
+      super(resource);
+    }
+
     @Override
     protected Builder getBuilder() {
       return this;
@@ -34,15 +69,59 @@ public class BaseResourceProfile extends AbstractHostable {
   public abstract static class AbstractBuilder<S extends AbstractBuilder, T extends BaseResourceProfile>
           extends AbstractHostable.AbstractBuilder<S, T> {
 
-    private final ProfiledResource resource;
+    private final Supplier<? extends ProfiledResource> resource;
+    private final Members<BaseSignifier> exposedSignifiers = new Members<>();
 
     public AbstractBuilder(ProfiledResource resource) {
       this(resource, CORE.TERM.RESOURCE_PROFILE);
     }
 
+    public AbstractBuilder(Supplier<? extends ProfiledResource> resource) {
+      this(resource, CORE.TERM.RESOURCE_PROFILE);
+    }
+
     protected AbstractBuilder(ProfiledResource resource, HMAS type) {
       super(type);
-      this.resource = resource;
+      this.resource = () -> resource;
+    }
+
+    protected AbstractBuilder(Supplier<? extends ProfiledResource> resource, HMAS type) {
+      super(type);
+      this.resource = Suppliers.memoize(resource::get);
+    }
+
+    public S addExposedSignifier(final BaseSignifier signifier) {
+      this.exposedSignifiers.add(signifier);
+      return getBuilder();
+    }
+
+    public S addExposedSignifiers(final Set<? extends BaseSignifier> signifiers) {
+      this.exposedSignifiers.addAll(signifiers);
+      return getBuilder();
+    }
+
+    public S removeExposedSignifier(final BaseSignifier signifier) {
+      this.exposedSignifiers.remove(signifier);
+      return getBuilder();
+    }
+
+    @Override
+    protected S from(T resource) {
+      super.from(resource);
+      this.exposedSignifiers.addAll(resource.getExposedSignifiers());
+      return getBuilder();
+    }
+
+    /**
+     * Adds exposed signifiers that are resolved on the first call to
+     * {@link BaseResourceProfile#getExposedSignifiers()} of the built profile.
+     *
+     * @param signifiers the supplier of the signifiers
+     * @return this <code>Builder</code>
+     */
+    public S addDeferredExposedSignifiers(final Supplier<? extends Set<? extends BaseSignifier>> signifiers) {
+      this.exposedSignifiers.addDeferred(signifiers);
+      return getBuilder();
     }
 
     public abstract T build();
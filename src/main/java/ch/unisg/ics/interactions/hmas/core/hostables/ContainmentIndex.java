@@ -0,0 +1,266 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import java.util.*;
+
+/**
+ * An index of the transitive containment relation of a workspace hierarchy, i.e. of
+ * <code>hmas:transitivelyContains</code>. Each indexed resource is labeled with an interval that
+ * encloses the intervals of the resources it transitively contains, such that checking whether a
+ * workspace transitively contains a resource takes constant time, and retrieving all resources
+ * in a workspace takes logarithmic time in the size of the hierarchy, plus the number of retrieved
+ * resources.
+ * <p>
+ * Intervals are labeled with gaps between them, such that members can be added to indexed
+ * workspaces (see {@link #add(Workspace, AbstractHostable)}) without relabeling the hierarchy in
+ * most cases. An added member takes a fixed share of the gap after the last member of its
+ * workspace. When the gap is exhausted, only the smallest workspace around it whose interval is
+ * wide enough to space the labels of its members again is relabeled. The index assumes that the
+ * hierarchy is a tree: a resource that is contained in several workspaces is indexed in the first
+ * workspace in which it is found. Indexes are not thread-safe.
+ */
+public final class ContainmentIndex {
+
+  /* The range of labels, which leaves gaps of 2^40 labels or more between the labels of up to a million resources */
+  private static final long MAX_LABEL = 1L << 62;
+  /* The share of the gap after the last member of a workspace that an added member takes */
+  private static final long INSERTION_SHARE = 64;
+  /* The minimum spacing of the labels of a relabeled workspace, which leaves room for members to be added */
+  private static final long MIN_SPACING = 1L << 16;
+
+  private final Map<AbstractHostable, Node> nodes = new HashMap<>();
+  private final NavigableMap<Long, Node> nodesByStart = new TreeMap<>();
+  private final Node root;
+  private int relabelCount = 0;
+
+  private ContainmentIndex(Workspace root) {
+    this.root = new Node(root, null);
+    nodes.put(root, this.root);
+    index(this.root);
+    label(this.root, 0, MAX_LABEL);
+  }
+
+  /**
+   * Builds the index of a workspace hierarchy, i.e. of a workspace and of all resources that it
+   * transitively contains.
+   *
+   * @param workspace the root of the hierarchy
+   * @return the index of the hierarchy
+   */
+  public static ContainmentIndex of(Workspace workspace) {
+    return new ContainmentIndex(workspace);
+  }
+
+  /**
+   * Adds a member to an indexed workspace, together with the resources that it transitively
+   * contains, e.g. when an artifact is created in a workspace. Since resources are immutable, the
+   * index then describes the hierarchy as it is known to the caller.
+   *
+   * @param workspace the indexed workspace
+   * @param member    the member of the workspace
+   * @return <code>true</code> if the member was added, or <code>false</code> if it is already indexed
+   * @throws IllegalArgumentException if the workspace is not indexed
+   */
+  public boolean add(Workspace workspace, AbstractHostable member) {
+    Node container = nodes.get(workspace);
+    if (container == null) {
+      throw new IllegalArgumentException("The workspace is not indexed: " + workspace.getIRIAsString()
+              .orElse("anonymous workspace"));
+    }
+    if (nodes.containsKey(member)) {
+      return false;
+    }
+
+    Node node = new Node(member, container);
+    nodes.put(member, node);
+    container.children.add(node);
+    index(node);
+
+    /* The member is labeled at the start of the gap after the last member of the workspace */
+    long lo = container.lastEnd;
+    long gap = container.end - lo;
+    long width = Math.max(gap / INSERTION_SHARE, (2 * subtreeSize(node) + 1) * MIN_SPACING);
+    if (width < gap) {
+      label(node, lo, lo + width);
+      container.lastEnd = node.end;
+    } else {
+      relabel(container);
+    }
+    return true;
+  }
+
+  /* Relabels the smallest workspace around a workspace whose interval is wide enough, or else the hierarchy */
+  private void relabel(Node container) {
+    relabelCount++;
+    for (Node workspace = container; workspace.parent != null; workspace = workspace.parent) {
+      long step = (workspace.end - workspace.start) / (2 * subtreeSize(workspace) - 1);
+      if (step >= MIN_SPACING) {
+        /* The interval of the workspace is kept, such that the rest of the hierarchy is not relabeled */
+        long end = workspace.end;
+        nodesByStart.subMap(workspace.start, true, end, false).clear();
+        labelFrom(workspace, workspace.start - step, step);
+        workspace.end = end;
+        return;
+      }
+    }
+    nodesByStart.clear();
+    label(root, 0, MAX_LABEL);
+  }
+
+  /**
+   * Checks whether a workspace transitively contains a resource, i.e. whether the resource is a
+   * member of the workspace, or a member of a workspace that the workspace transitively contains.
+   */
+  public boolean transitivelyContains(Workspace workspace, AbstractHostable resource) {
+    Node ancestor = nodes.get(workspace);
+    Node descendant = nodes.get(resource);
+    return ancestor != null && descendant != null
+            && ancestor.start < descendant.start && descendant.end < ancestor.end;
+  }
+
+  /**
+   * Returns all resources that a workspace transitively contains, in depth-first order.
+   */
+  public List<AbstractHostable> getTransitivelyContainedResources(Workspace workspace) {
+    Node node = nodes.get(workspace);
+    if (node == null) {
+      return Collections.emptyList();
+    }
+    List<AbstractHostable> resources = new ArrayList<>();
+    for (Node descendant : nodesByStart.subMap(node.start, false, node.end, false).values()) {
+      resources.add(descendant.resource);
+    }
+    return resources;
+  }
+
+  /**
+   * Returns the workspace that directly contains a resource, if the resource is indexed and is not
+   * the root of the hierarchy.
+   */
+  public Optional<Workspace> getContainer(AbstractHostable resource) {
+    Node node = nodes.get(resource);
+    return node == null || node.parent == null ? Optional.empty() : Optional.of((Workspace) node.parent.resource);
+  }
+
+  /**
+   * Returns the workspaces that transitively contain a resource, from the workspace that directly
+   * contains the resource up to the root of the hierarchy.
+   */
+  public List<Workspace> getTransitiveContainers(AbstractHostable resource) {
+    Node node = nodes.get(resource);
+    if (node == null) {
+      return Collections.emptyList();
+    }
+    List<Workspace> containers = new ArrayList<>(node.depth);
+    for (Node ancestor = node.parent; ancestor != null; ancestor = ancestor.parent) {
+      containers.add((Workspace) ancestor.resource);
+    }
+    return containers;
+  }
+
+  /**
+   * Returns the number of workspaces between a resource and the root of the hierarchy, i.e.
+   * <code>0</code> for the root, or <code>-1</code> if the resource is not indexed.
+   */
+  public int getDepth(AbstractHostable resource) {
+    Node node = nodes.get(resource);
+    return node == null ? -1 : node.depth;
+  }
+
+  public boolean isIndexed(AbstractHostable resource) {
+    return nodes.containsKey(resource);
+  }
+
+  /**
+   * Returns the number of indexed resources, including the root of the hierarchy.
+   */
+  public int size() {
+    return nodes.size();
+  }
+
+  /* The number of times the hierarchy was relabeled because a gap was exhausted */
+  int getRelabelCount() {
+    return relabelCount;
+  }
+
+  /* Adds the resources that a node transitively contains, skipping resources that are already indexed */
+  private void index(Node node) {
+    Deque<Node> pending = new ArrayDeque<>();
+    pending.push(node);
+    while (!pending.isEmpty()) {
+      Node container = pending.pop();
+      if (!(container.resource instanceof Workspace)) {
+        continue;
+      }
+      for (AbstractHostable member : ((Workspace) container.resource).getContainedResources()) {
+        if (!nodes.containsKey(member)) {
+          Node child = new Node(member, container);
+          nodes.put(member, child);
+          container.children.add(child);
+          pending.push(child);
+        }
+      }
+    }
+  }
+
+  /* Labels a subtree with evenly spaced labels strictly between lo and hi, in depth-first order */
+  private void label(Node subtree, long lo, long hi) {
+    labelFrom(subtree, lo, (hi - lo) / (2 * subtreeSize(subtree) + 1));
+  }
+
+  /* Labels a subtree with labels that are spaced by the given step after lo, in depth-first order */
+  private void labelFrom(Node subtree, long lo, long step) {
+    long label = lo;
+    Deque<Node> path = new ArrayDeque<>();
+    Deque<Iterator<Node>> children = new ArrayDeque<>();
+    label = enter(subtree, label + step, path, children);
+    while (!children.isEmpty()) {
+      Iterator<Node> iterator = children.peek();
+      if (iterator.hasNext()) {
+        label = enter(iterator.next(), label + step, path, children);
+      } else {
+        children.pop();
+        Node node = path.pop();
+        label += step;
+        node.end = label;
+        node.lastEnd = node.children.isEmpty() ? node.start : node.children.get(node.children.size() - 1).end;
+      }
+    }
+  }
+
+  private static long subtreeSize(Node subtree) {
+    long size = 0;
+    Deque<Node> pending = new ArrayDeque<>();
+    pending.push(subtree);
+    while (!pending.isEmpty()) {
+      Node node = pending.pop();
+      size++;
+      node.children.forEach(pending::push);
+    }
+    return size;
+  }
+
+  private long enter(Node node, long label, Deque<Node> path, Deque<Iterator<Node>> children) {
+    node.start = label;
+    nodesByStart.put(label, node);
+    path.push(node);
+    children.push(node.children.iterator());
+    return label;
+  }
+
+  private static final class Node {
+    private final AbstractHostable resource;
+    private final Node parent;
+    private final int depth;
+    private final List<Node> children = new ArrayList<>();
+    private long start;
+    private long end;
+    /* The end of the last member, or the start of this node if it has no members */
+    private long lastEnd;
+
+    private Node(AbstractHostable resource, Node parent) {
+      this.resource = resource;
+      this.parent = parent;
+      this.depth = parent == null ? 0 : parent.depth + 1;
+    }
+  }
+}
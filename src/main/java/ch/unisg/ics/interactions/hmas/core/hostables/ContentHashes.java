@@ -0,0 +1,161 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import ch.unisg.ics.interactions.hmas.core.utils.CanonicalForm;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.util.Values;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Computes the content hashes of resources (see {@link AbstractResource#contentHash()}). Since
+ * resources can be related in cycles (e.g. a platform that hosts an agent which is hosted on the
+ * same platform), the reachable resources are grouped into strongly connected components, which
+ * are digested in topological order, i.e. a component is digested after the components it is
+ * related to. The resources of a component that is not a cycle are digested from their content
+ * and the digests of their related resources. The resources of a cycle are digested together:
+ * their digests are refined from their content by the digests of their related resources in the
+ * cycle, until the refinement no longer distinguishes more resources. The digest of each
+ * resource of the cycle then combines the refined digests of the whole cycle with its own, and
+ * thus does not depend on the resource of the cycle that was digested first. The digests of all
+ * the digested resources are cached, such that each resource is digested once.
+ */
+final class ContentHashes {
+
+  private final Map<AbstractResource, List<Relation>> relations = new IdentityHashMap<>();
+  private final Map<AbstractResource, Integer> index = new IdentityHashMap<>();
+  private final Map<AbstractResource, Integer> lowLink = new IdentityHashMap<>();
+  private final Deque<AbstractResource> stack = new ArrayDeque<>();
+  private final Set<AbstractResource> onStack = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private ContentHashes() {
+  }
+
+  static String of(AbstractResource resource) {
+    String cached = resource.getCachedContentHash();
+    if (cached != null) {
+      return cached;
+    }
+    new ContentHashes().visit(resource);
+    return resource.getCachedContentHash();
+  }
+
+  /* Tarjan's algorithm, which digests each component once all the components it reaches are digested */
+  private void visit(AbstractResource resource) {
+    int position = index.size();
+    index.put(resource, position);
+    lowLink.put(resource, position);
+    stack.push(resource);
+    onStack.add(resource);
+
+    List<Relation> related = new ArrayList<>();
+    resource.forEachRelatedResource((relation, member) -> related.add(new Relation(relation.stringValue(), member)));
+    relations.put(resource, related);
+
+    for (Relation relation : related) {
+      AbstractResource member = relation.member;
+      if (member.getCachedContentHash() != null) {
+        continue;
+      }
+      if (!index.containsKey(member)) {
+        visit(member);
+        lowLink.put(resource, Math.min(lowLink.get(resource), lowLink.get(member)));
+      } else if (onStack.contains(member)) {
+        lowLink.put(resource, Math.min(lowLink.get(resource), index.get(member)));
+      }
+    }
+
+    if (lowLink.get(resource).equals(index.get(resource))) {
+      Set<AbstractResource> component = Collections.newSetFromMap(new IdentityHashMap<>());
+      AbstractResource member;
+      do {
+        member = stack.pop();
+        onStack.remove(member);
+        component.add(member);
+      } while (member != resource);
+      digest(component);
+    }
+  }
+
+  private void digest(Set<AbstractResource> component) {
+    Map<AbstractResource, String> digests = new IdentityHashMap<>();
+    boolean cyclic = component.size() > 1;
+    for (AbstractResource resource : component) {
+      digests.put(resource, digestContent(resource, component));
+      cyclic |= relations.get(resource).stream().anyMatch(relation -> relation.member == resource);
+    }
+
+    if (cyclic) {
+      /* Each round distinguishes the resources that are related to distinguished resources of the cycle */
+      int distinct = new HashSet<>(digests.values()).size();
+      int refined;
+      do {
+        Map<AbstractResource, String> next = new IdentityHashMap<>();
+        for (AbstractResource resource : component) {
+          Hasher hasher = Hashing.sha256().newHasher().putString(digests.get(resource), StandardCharsets.UTF_8);
+          putRelated(hasher, resource, member -> component.contains(member) ? digests.get(member) : null);
+          next.put(resource, hasher.hash().toString());
+        }
+        digests.putAll(next);
+        refined = distinct;
+        distinct = new HashSet<>(digests.values()).size();
+      } while (distinct > refined);
+
+      Hasher cycle = Hashing.sha256().newHasher();
+      new TreeSet<>(digests.values()).forEach(digest -> cycle.putString(digest, StandardCharsets.UTF_8).putChar('\n'));
+      String cycleDigest = cycle.hash().toString();
+      digests.replaceAll((resource, digest) -> Hashing.sha256().newHasher()
+              .putString(cycleDigest, StandardCharsets.UTF_8).putChar('\n')
+              .putString(digest, StandardCharsets.UTF_8)
+              .hash().toString());
+    }
+    digests.forEach(AbstractResource::setCachedContentHash);
+  }
+
+  /* Digests a resource with the digests of its related resources outside of its component */
+  private String digestContent(AbstractResource resource, Set<AbstractResource> component) {
+    Hasher hasher = Hashing.sha256().newHasher()
+            .putString(resource.getTypeAsString(), StandardCharsets.UTF_8).putChar('\n')
+            .putString(resource.getIRIAsString().orElse(""), StandardCharsets.UTF_8).putChar('\n');
+    new TreeSet<>(resource.getSemanticTypes())
+            .forEach(type -> hasher.putString(type, StandardCharsets.UTF_8).putChar('\n'));
+
+    Optional<Model> graph = resource.getResolvedGraph(resource.getIRI()
+            .map(iri -> (org.eclipse.rdf4j.model.Resource) iri)
+            .orElseGet(Values::bnode));
+    graph.ifPresent(statements -> hasher.putBytes(CanonicalForm.hash(statements).asBytes()));
+
+    putRelated(hasher, resource, member -> component.contains(member) ? null : member.getCachedContentHash());
+    return hasher.hash().toString();
+  }
+
+  /* Digests the related resources in an order that does not depend on the order of the relations */
+  private void putRelated(Hasher hasher, AbstractResource resource,
+                          Function<AbstractResource, String> digests) {
+    SortedMap<String, List<String>> related = new TreeMap<>();
+    for (Relation relation : relations.get(resource)) {
+      String digest = digests.apply(relation.member);
+      if (digest != null) {
+        related.computeIfAbsent(relation.relation, r -> new ArrayList<>()).add(digest);
+      }
+    }
+    related.forEach((relation, hashes) -> {
+      Collections.sort(hashes);
+      hasher.putString(relation, StandardCharsets.UTF_8).putChar('\n');
+      hashes.forEach(hash -> hasher.putString(hash, StandardCharsets.UTF_8).putChar('\n'));
+    });
+  }
+
+  private static final class Relation {
+    private final String relation;
+    private final AbstractResource member;
+
+    private Relation(String relation, AbstractResource member) {
+      this.relation = relation;
+      this.member = member;
+    }
+  }
+}
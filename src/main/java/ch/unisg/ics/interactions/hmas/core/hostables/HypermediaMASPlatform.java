@@ -2,14 +2,15 @@ package ch.unisg.ics.interactions.hmas.core.hostables;
 
 import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
 import ch.unisg.ics.interactions.hmas.core.vocabularies.HMAS;
-import com.google.common.collect.ImmutableSet;
+import org.eclipse.rdf4j.model.IRI;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 public class HypermediaMASPlatform extends AbstractResource implements ProfiledResource {
 
-  private final Set<AbstractHostable> hostedResources;
+  private final Supplier<Set<AbstractHostable>> hostedResources;
 
 
   protected HypermediaMASPlatform(AbstractBuilder builder) {
@@ -19,11 +20,43 @@ public class HypermediaMASPlatform extends AbstractResource implements ProfiledR
   @SuppressWarnings("unchecked")
   protected HypermediaMASPlatform(HMAS type, AbstractBuilder builder) {
     super(type, builder);
-    this.hostedResources = ImmutableSet.copyOf(builder.hostedResources);
+    this.hostedResources = builder.hostedResources.freeze();
   }
 
   public Set<AbstractHostable> getHostedResources() {
-    return this.hostedResources;
+    return this.hostedResources.get();
+  }
+
+  /**
+   * Returns a builder that is initialized with this platform, e.g. to build a derived version of
+   * the platform. The hosted resources of the derived platform share structure with the hosted
+   * resources of this platform, such that adding or removing a resource does not copy the other
+   * resources.
+   *
+   * @return the builder of a platform
+   */
+  public Builder toBuilder() {
+    return new Builder().from(this);
+  }
+
+  /**
+   * Returns a version of this platform that also hosts the given resource (see {@link #toBuilder()}).
+   * The resource replaces a hosted version of the same resource, if any.
+   */
+  public HypermediaMASPlatform withHostedResource(AbstractHostable hostable) {
+    return toBuilder().removeHostedResource(hostable).addHostedResource(hostable).build();
+  }
+
+  /**
+   * Returns a version of this platform that does not host the given resource (see {@link #toBuilder()}).
+   */
+  public HypermediaMASPlatform withoutHostedResource(AbstractHostable hostable) {
+    return toBuilder().removeHostedResource(hostable).build();
+  }
+
+  @Override
+  protected void forEachRelatedResource(BiConsumer<IRI, AbstractResource> action) {
+    getHostedResources().forEach(hostable -> action.accept(CORE.HOSTS, hostable));
   }
 
   public static class Builder extends AbstractBuilder<Builder, HypermediaMASPlatform> {
@@ -41,7 +74,7 @@ public class HypermediaMASPlatform extends AbstractResource implements ProfiledR
   public abstract static class AbstractBuilder<S extends AbstractBuilder, T extends HypermediaMASPlatform>
           extends AbstractResource.AbstractBuilder<S, T> {
 
-    protected final Set<AbstractHostable> hostedResources;
+    private final Members<AbstractHostable> hostedResources;
 
     protected AbstractBuilder() {
       this(CORE.TERM.HMAS_PLATFORM);
@@ -49,7 +82,7 @@ public class HypermediaMASPlatform extends AbstractResource implements ProfiledR
 
     protected AbstractBuilder(HMAS type) {
       super(type);
-      this.hostedResources = new HashSet<>();
+      this.hostedResources = new Members<>();
     }
 
     public S addHostedResource(final AbstractHostable hostable) {
@@ -62,6 +95,30 @@ public class HypermediaMASPlatform extends AbstractResource implements ProfiledR
       return getBuilder();
     }
 
+    public S removeHostedResource(final AbstractHostable hostable) {
+      this.hostedResources.remove(hostable);
+      return getBuilder();
+    }
+
+    @Override
+    protected S from(T resource) {
+      super.from(resource);
+      this.hostedResources.addAll(resource.getHostedResources());
+      return getBuilder();
+    }
+
+    /**
+     * Adds hosted resources that are resolved on the first call to
+     * {@link HypermediaMASPlatform#getHostedResources()} of the built platform.
+     *
+     * @param hostables the supplier of the hosted resources
+     * @return this <code>Builder</code>
+     */
+    public S addDeferredHostedResources(final Supplier<? extends Set<? extends AbstractHostable>> hostables) {
+      this.hostedResources.addDeferred(hostables);
+      return getBuilder();
+    }
+
     public abstract T build();
   }
 }
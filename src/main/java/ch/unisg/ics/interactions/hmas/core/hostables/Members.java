@@ -0,0 +1,73 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Accumulates the members of a relation (e.g. the resources contained in a workspace) while a
+ * resource is being built. Members are either added directly, or as deferred references that are
+ * resolved on first access to the relation of the built resource. Deferred references make it
+ * possible to build cyclic structures of immutable resources, e.g. a platform that hosts an agent
+ * which is hosted on the same platform.
+ * <p>
+ * Members are kept in a {@link PersistentHashSet}. The members of a resource that is derived from
+ * another resource (e.g. a workspace with one more artifact) thus share structure with the members
+ * of the original resource, and adding or removing a member takes logarithmic time and memory.
+ *
+ * @param <T> the type of the members
+ */
+final class Members<T> {
+
+  private PersistentHashSet<T> members;
+  private final List<Supplier<? extends Set<? extends T>>> deferredMembers;
+
+  Members() {
+    this.members = PersistentHashSet.empty();
+    this.deferredMembers = new ArrayList<>();
+  }
+
+  void add(T member) {
+    this.members = this.members.with(member);
+  }
+
+  /* The members of a built resource are taken over as they are, without being copied */
+  void addAll(Set<? extends T> members) {
+    this.members = this.members.isEmpty()
+            ? PersistentHashSet.copyOf(members)
+            : this.members.withAll(members);
+  }
+
+  /* Deferred members are resolved after removals, and are thus not removed */
+  void remove(Object member) {
+    this.members = this.members.without(member);
+  }
+
+  void addDeferred(Supplier<? extends Set<? extends T>> members) {
+    this.deferredMembers.add(members);
+  }
+
+  /**
+   * Returns a thread-safe supplier of the immutable set of members. Deferred references are
+   * resolved once, on the first call to the supplier.
+   */
+  Supplier<Set<T>> freeze() {
+    PersistentHashSet<T> resolved = members;
+    if (deferredMembers.isEmpty()) {
+      return () -> resolved;
+    }
+
+    List<Supplier<? extends Set<? extends T>>> deferred = ImmutableList.copyOf(deferredMembers);
+    return Suppliers.memoize(() -> {
+      PersistentHashSet<T> all = resolved;
+      for (Supplier<? extends Set<? extends T>> members : deferred) {
+        all = all.withAll(members.get());
+      }
+      return all;
+    });
+  }
+}
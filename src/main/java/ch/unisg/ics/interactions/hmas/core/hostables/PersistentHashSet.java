@@ -0,0 +1,312 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import java.util.*;
+
+/**
+ * An immutable set that is stored as a hash array mapped trie, such that a set with an element
+ * more or less (see {@link #with(Object)} and {@link #without(Object)}) is derived in logarithmic
+ * time and memory, and shares all but the path to the element with the set it is derived from.
+ * Each level of the trie consumes 5 bits of the hash code of the elements, and elements with equal
+ * hash codes are kept together below the last level. The set does not permit <code>null</code>
+ * elements, and the methods inherited from {@link Set} that would modify it throw
+ * {@link UnsupportedOperationException}.
+ *
+ * @param <E> the type of the elements
+ */
+final class PersistentHashSet<E> extends AbstractSet<E> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final PersistentHashSet<?> EMPTY = new PersistentHashSet<>(new BitmapNode(0, new Object[0]), 0);
+
+  private final Node root;
+  private final int size;
+
+  private PersistentHashSet(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <E> PersistentHashSet<E> empty() {
+    return (PersistentHashSet<E>) EMPTY;
+  }
+
+  /**
+   * Returns a set with the given elements. Persistent sets are returned as they are.
+   */
+  @SuppressWarnings("unchecked")
+  static <E> PersistentHashSet<E> copyOf(Iterable<? extends E> elements) {
+    if (elements instanceof PersistentHashSet) {
+      return (PersistentHashSet<E>) elements;
+    }
+    return PersistentHashSet.<E>empty().withAll(elements);
+  }
+
+  /**
+   * Returns a set with the elements of this set and the given element, or this set if it already
+   * contains an equal element.
+   */
+  PersistentHashSet<E> with(E element) {
+    Objects.requireNonNull(element);
+    Node updated = root.with(element, element.hashCode(), 0);
+    return updated == root ? this : new PersistentHashSet<>(updated, size + 1);
+  }
+
+  PersistentHashSet<E> withAll(Iterable<? extends E> elements) {
+    PersistentHashSet<E> set = this;
+    for (E element : elements) {
+      set = set.with(element);
+    }
+    return set;
+  }
+
+  /**
+   * Returns a set with the elements of this set except the given element, or this set if it does
+   * not contain the element.
+   */
+  PersistentHashSet<E> without(Object element) {
+    if (element == null) {
+      return this;
+    }
+    Node updated = root.without(element, element.hashCode(), 0);
+    return updated == root ? this : new PersistentHashSet<>(updated, size - 1);
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    return element != null && root.contains(element, element.hashCode(), 0);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new TrieIterator<>(root);
+  }
+
+  /*
+   * A node of the trie. The entries of a node are either elements or child nodes, and nodes are
+   * never modified once they are reachable from a set.
+   */
+  private abstract static class Node {
+    final Object[] entries;
+
+    Node(Object[] entries) {
+      this.entries = entries;
+    }
+
+    abstract boolean contains(Object element, int hash, int shift);
+
+    abstract Node with(Object element, int hash, int shift);
+
+    abstract Node without(Object element, int hash, int shift);
+
+    /* The only entry of this node, if it is an element */
+    Object getSingleElement() {
+      return entries.length == 1 && !(entries[0] instanceof Node) ? entries[0] : null;
+    }
+  }
+
+  /* A node whose entries are selected by 5 bits of the hash code of the elements, at the position of the bit in the bitmap */
+  private static final class BitmapNode extends Node {
+    private final int bitmap;
+
+    BitmapNode(int bitmap, Object[] entries) {
+      super(entries);
+      this.bitmap = bitmap;
+    }
+
+    private static int bit(int hash, int shift) {
+      return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    boolean contains(Object element, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return false;
+      }
+      Object entry = entries[index(bit)];
+      return entry instanceof Node
+              ? ((Node) entry).contains(element, hash, shift + BITS)
+              : entry.equals(element);
+    }
+
+    @Override
+    Node with(Object element, int hash, int shift) {
+      int bit = bit(hash, shift);
+      int index = index(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] updated = new Object[entries.length + 1];
+        System.arraycopy(entries, 0, updated, 0, index);
+        updated[index] = element;
+        System.arraycopy(entries, index, updated, index + 1, entries.length - index);
+        return new BitmapNode(bitmap | bit, updated);
+      }
+
+      Object entry = entries[index];
+      Object replacement;
+      if (entry instanceof Node) {
+        Node child = ((Node) entry).with(element, hash, shift + BITS);
+        if (child == entry) {
+          return this;
+        }
+        replacement = child;
+      } else if (entry.equals(element)) {
+        return this;
+      } else {
+        replacement = merge(entry, entry.hashCode(), element, hash, shift + BITS);
+      }
+      Object[] updated = entries.clone();
+      updated[index] = replacement;
+      return new BitmapNode(bitmap, updated);
+    }
+
+    @Override
+    Node without(Object element, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int index = index(bit);
+      Object entry = entries[index];
+      if (entry instanceof Node) {
+        Node child = ((Node) entry).without(element, hash, shift + BITS);
+        if (child == entry) {
+          return this;
+        }
+        /* A child that is left with a single element is replaced by the element */
+        Object single = child.getSingleElement();
+        Object[] updated = entries.clone();
+        updated[index] = single != null ? single : child;
+        return new BitmapNode(bitmap, updated);
+      }
+      if (!entry.equals(element)) {
+        return this;
+      }
+      Object[] updated = new Object[entries.length - 1];
+      System.arraycopy(entries, 0, updated, 0, index);
+      System.arraycopy(entries, index + 1, updated, index, entries.length - index - 1);
+      return new BitmapNode(bitmap & ~bit, updated);
+    }
+
+    /* Creates the node of two elements whose hash codes are equal up to the given shift */
+    private static Node merge(Object first, int firstHash, Object second, int secondHash, int shift) {
+      if (shift >= Integer.SIZE) {
+        return new CollisionNode(new Object[]{first, second});
+      }
+      int firstBit = bit(firstHash, shift);
+      int secondBit = bit(secondHash, shift);
+      if (firstBit == secondBit) {
+        return new BitmapNode(firstBit, new Object[]{merge(first, firstHash, second, secondHash, shift + BITS)});
+      }
+      Object[] entries = Integer.compareUnsigned(firstBit, secondBit) < 0
+              ? new Object[]{first, second}
+              : new Object[]{second, first};
+      return new BitmapNode(firstBit | secondBit, entries);
+    }
+  }
+
+  /* A node of elements with equal hash codes */
+  private static final class CollisionNode extends Node {
+
+    CollisionNode(Object[] entries) {
+      super(entries);
+    }
+
+    private int indexOf(Object element) {
+      for (int i = 0; i < entries.length; i++) {
+        if (entries[i].equals(element)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    boolean contains(Object element, int hash, int shift) {
+      return indexOf(element) >= 0;
+    }
+
+    @Override
+    Node with(Object element, int hash, int shift) {
+      if (indexOf(element) >= 0) {
+        return this;
+      }
+      Object[] updated = Arrays.copyOf(entries, entries.length + 1);
+      updated[entries.length] = element;
+      return new CollisionNode(updated);
+    }
+
+    @Override
+    Node without(Object element, int hash, int shift) {
+      int index = indexOf(element);
+      if (index < 0) {
+        return this;
+      }
+      Object[] updated = new Object[entries.length - 1];
+      System.arraycopy(entries, 0, updated, 0, index);
+      System.arraycopy(entries, index + 1, updated, index, entries.length - index - 1);
+      return new CollisionNode(updated);
+    }
+  }
+
+  /* Iterates over the elements of a trie in depth-first order, with the path to the next element on a stack */
+  private static final class TrieIterator<E> implements Iterator<E> {
+    private final Deque<Object[]> nodes = new ArrayDeque<>();
+    private final Deque<Integer> positions = new ArrayDeque<>();
+    private Object next;
+
+    private TrieIterator(Node root) {
+      nodes.push(root.entries);
+      positions.push(0);
+      advance();
+    }
+
+    private void advance() {
+      next = null;
+      while (!nodes.isEmpty()) {
+        Object[] entries = nodes.peek();
+        int position = positions.pop();
+        if (position == entries.length) {
+          nodes.pop();
+          continue;
+        }
+        positions.push(position + 1);
+        Object entry = entries[position];
+        if (entry instanceof Node) {
+          nodes.push(((Node) entry).entries);
+          positions.push(0);
+        } else {
+          next = entry;
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      E element = (E) next;
+      advance();
+      return element;
+    }
+  }
+}
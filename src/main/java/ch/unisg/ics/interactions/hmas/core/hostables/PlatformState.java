@@ -0,0 +1,414 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The live state of a platform and of its workspaces, for a platform whose environment changes
+ * while its profiles are being served, e.g. when agents join the platform or when artifacts are
+ * created in workspaces. The state is a sequence of immutable, numbered snapshots: readers take
+ * the current snapshot without locking (see {@link #getSnapshot()}), and see a consistent version
+ * of the platform for as long as they keep it, while writers apply transactions that change
+ * several resources at once (see {@link #update(Consumer)}).
+ * <p>
+ * Transactions are serialized, and publish a new snapshot once all their changes have been
+ * applied, such that readers never see part of a transaction. Since resources are immutable, a
+ * changed workspace is rebuilt together with the workspaces that contain it, up to the platform.
+ * The members of rebuilt resources are derived from the previous versions (see
+ * {@link Workspace#toBuilder()}), and the resources that did not change are shared between
+ * snapshots. Workspaces are addressed by IRI, and anonymous workspaces are treated as opaque
+ * members of their containers.
+ * <p>
+ * The changes of the members of workspaces and of the platform are published as
+ * {@link ResourceChangeEvent}s (see {@link #getChanges()}), e.g. to push the changes of workspaces
+ * to clients instead of having them poll the profiles of the workspaces.
+ */
+public final class PlatformState implements AutoCloseable {
+
+  private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+  private final AtomicReference<Snapshot> snapshot;
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final ResourceChangePublisher changePublisher;
+
+  /**
+   * Creates the live state of a platform, with the platform and the workspaces that it hosts,
+   * transitively, as the first snapshot. Changes are delivered to subscribers on the common
+   * fork-join pool.
+   *
+   * @param platform the platform
+   */
+  public PlatformState(HypermediaMASPlatform platform) {
+    this(platform, ForkJoinPool.commonPool(), DEFAULT_MAX_BATCH_SIZE);
+  }
+
+  /**
+   * Creates the live state of a platform (see {@link #PlatformState(HypermediaMASPlatform)}),
+   * which delivers changes to subscribers on the given executor, in batches of up to the given
+   * number of changes.
+   *
+   * @param platform     the platform
+   * @param executor     the executor that delivers changes to subscribers
+   * @param maxBatchSize the maximum number of changes per batch
+   */
+  public PlatformState(HypermediaMASPlatform platform, Executor executor, int maxBatchSize) {
+    this.changePublisher = new ResourceChangePublisher(executor, maxBatchSize);
+    Map<String, Workspace> workspaces = new HashMap<>();
+    Map<String, String> containers = new HashMap<>();
+    for (AbstractHostable hosted : platform.getHostedResources()) {
+      index(hosted, null, workspaces, containers);
+    }
+    this.snapshot = new AtomicReference<>(new Snapshot(0, platform, workspaces, containers));
+  }
+
+  /**
+   * Returns the current snapshot. Taking a snapshot does not lock, and does not wait for
+   * transactions that are being applied.
+   */
+  public Snapshot getSnapshot() {
+    return snapshot.get();
+  }
+
+  /**
+   * Returns the version of the current snapshot, i.e. the number of transactions that have
+   * changed the state.
+   */
+  public long getVersion() {
+    return snapshot.get().getVersion();
+  }
+
+  /**
+   * Returns the publisher of the changes of the state. Each item is a batch of changes in the
+   * order in which they were committed. The changes that a subscriber has not yet requested are
+   * buffered, and changes of the same member are coalesced, e.g. an artifact that is created and
+   * deleted before it is requested is not published. Subscribers thus receive the net changes
+   * since their last batch, and buffer at most one change per member.
+   */
+  public Flow.Publisher<List<ResourceChangeEvent>> getChanges() {
+    return changePublisher;
+  }
+
+  /**
+   * Completes the subscriptions to the changes of the state, once their buffered changes have
+   * been delivered. The state can still be updated, but its changes are no longer published.
+   */
+  @Override
+  public void close() {
+    changePublisher.close();
+  }
+
+  /**
+   * Applies a transaction to the current snapshot, and publishes the resulting snapshot. The
+   * changes of a transaction are published at once, or not at all if the transaction fails.
+   * Transactions are applied one at a time, and must not apply other transactions.
+   *
+   * @param changes the changes of the transaction
+   * @return the snapshot that results from the transaction, which is the current snapshot if the
+   * transaction did not change the state
+   * @throws IllegalStateException if the transaction is applied by another transaction
+   */
+  public Snapshot update(Consumer<Transaction> changes) {
+    if (writeLock.isHeldByCurrentThread()) {
+      throw new IllegalStateException("Transactions cannot be nested");
+    }
+    writeLock.lock();
+    try {
+      Transaction transaction = new Transaction(snapshot.get());
+      changes.accept(transaction);
+      if (!transaction.isChanged()) {
+        return transaction.base;
+      }
+      Snapshot next = transaction.commit();
+      snapshot.set(next);
+      /* Changes are published under the lock, such that they are published in the order of the snapshots */
+      changePublisher.publish(transaction.getChanges());
+      return next;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /* Indexes a workspace with an IRI, and the workspaces it transitively contains */
+  private static void index(AbstractHostable resource, String container, Map<String, Workspace> workspaces,
+                            Map<String, String> containers) {
+    Deque<Map.Entry<AbstractHostable, String>> pending = new ArrayDeque<>();
+    pending.push(new AbstractMap.SimpleImmutableEntry<>(resource, container));
+    while (!pending.isEmpty()) {
+      Map.Entry<AbstractHostable, String> next = pending.pop();
+      if (!(next.getKey() instanceof Workspace) || !next.getKey().getIRIAsString().isPresent()) {
+        continue;
+      }
+      Workspace workspace = (Workspace) next.getKey();
+      String iri = workspace.getIRIAsString().get();
+      workspaces.put(iri, workspace);
+      if (next.getValue() != null) {
+        containers.put(iri, next.getValue());
+      }
+      for (AbstractHostable member : workspace.getContainedResources()) {
+        pending.push(new AbstractMap.SimpleImmutableEntry<>(member, iri));
+      }
+    }
+  }
+
+  /**
+   * An immutable version of the state of a platform.
+   */
+  public static final class Snapshot {
+    private final long version;
+    private final HypermediaMASPlatform platform;
+    private final Map<String, Workspace> workspaces;
+    /* The IRIs of the workspaces that contain the indexed workspaces, except for the workspaces hosted on the platform */
+    private final Map<String, String> containers;
+
+    private Snapshot(long version, HypermediaMASPlatform platform, Map<String, Workspace> workspaces,
+                     Map<String, String> containers) {
+      this.version = version;
+      this.platform = platform;
+      this.workspaces = ImmutableMap.copyOf(workspaces);
+      this.containers = ImmutableMap.copyOf(containers);
+    }
+
+    public long getVersion() {
+      return version;
+    }
+
+    public HypermediaMASPlatform getPlatform() {
+      return platform;
+    }
+
+    public Optional<Workspace> getWorkspace(String iri) {
+      return Optional.ofNullable(workspaces.get(iri));
+    }
+
+    /**
+     * Returns the workspaces of the platform, i.e. the workspaces with an IRI that the platform
+     * hosts, transitively.
+     */
+    public Collection<Workspace> getWorkspaces() {
+      return workspaces.values();
+    }
+
+    /**
+     * Returns the workspace that contains a workspace, unless the workspace is hosted on the
+     * platform.
+     */
+    public Optional<Workspace> getContainer(String workspaceIRI) {
+      return Optional.ofNullable(containers.get(workspaceIRI)).map(workspaces::get);
+    }
+  }
+
+  /**
+   * The changes of a transaction, which are applied to the snapshot on which the transaction is
+   * based, and are visible to readers once the transaction is committed. Adding a
+   * resource that is equal to a member (see {@link AbstractResource#equals(Object)}) replaces the
+   * member with the added version.
+   */
+  public static final class Transaction {
+    private final Snapshot base;
+    private final Map<String, Workspace> workspaces;
+    private final Map<String, String> containers;
+    private final Map<String, Workspace.Builder> changedWorkspaces = new HashMap<>();
+    private HypermediaMASPlatform.Builder changedPlatform;
+    private final Map<ResourceChangeEvent.Key, ResourceChangeEvent> changes = new LinkedHashMap<>();
+
+    private Transaction(Snapshot base) {
+      this.base = base;
+      this.workspaces = new HashMap<>(base.workspaces);
+      this.containers = new HashMap<>(base.containers);
+    }
+
+    /**
+     * Returns the snapshot on which the transaction is based.
+     */
+    public Snapshot getBase() {
+      return base;
+    }
+
+    /**
+     * Returns a workspace of the platform, with the members that the transaction has added to it
+     * and removed from it. Changes to the workspaces that it contains are applied on commit.
+     */
+    public Optional<Workspace> getWorkspace(String iri) {
+      Workspace.Builder changed = changedWorkspaces.get(iri);
+      return changed != null ? Optional.of(changed.build()) : Optional.ofNullable(workspaces.get(iri));
+    }
+
+    /**
+     * Adds a resource to a workspace of the platform. The workspaces that the resource
+     * transitively contains become workspaces of the platform.
+     *
+     * @param workspaceIRI the IRI of the workspace
+     * @param resource     the resource to add
+     * @return this transaction
+     * @throws IllegalArgumentException if the workspace is not a workspace of the platform
+     */
+    public Transaction addContainedResource(String workspaceIRI, AbstractHostable resource) {
+      boolean member = isMember(getIndexedWorkspace(workspaceIRI).getContainedResources(), workspaceIRI, resource);
+      Workspace.Builder workspace = getWorkspaceBuilder(workspaceIRI);
+      unindex(resource);
+      workspace.removeContainedResource(resource).addContainedResource(resource);
+      index(resource, workspaceIRI, workspaces, containers);
+      record(member ? ResourceChangeEvent.Kind.UPDATED : ResourceChangeEvent.Kind.ADDED, resource, workspaceIRI);
+      return this;
+    }
+
+    /**
+     * Removes a resource from a workspace of the platform, together with the workspaces that the
+     * resource transitively contains. Removing a resource that is not a member does not change
+     * the workspace.
+     *
+     * @param workspaceIRI the IRI of the workspace
+     * @param resource     the resource to remove
+     * @return this transaction
+     * @throws IllegalArgumentException if the workspace is not a workspace of the platform
+     */
+    public Transaction removeContainedResource(String workspaceIRI, AbstractHostable resource) {
+      if (!isMember(getIndexedWorkspace(workspaceIRI).getContainedResources(), workspaceIRI, resource)) {
+        return this;
+      }
+      record(ResourceChangeEvent.Kind.REMOVED, resource, workspaceIRI);
+      getWorkspaceBuilder(workspaceIRI).removeContainedResource(resource);
+      unindex(resource);
+      return this;
+    }
+
+    /**
+     * Adds a resource to the resources hosted on the platform, e.g. an agent that joins the
+     * platform.
+     */
+    public Transaction addHostedResource(AbstractHostable resource) {
+      String platformIRI = base.platform.getIRIAsString().orElse(null);
+      boolean member = isMember(base.platform.getHostedResources(), platformIRI, resource);
+      unindex(resource);
+      getPlatformBuilder().removeHostedResource(resource).addHostedResource(resource);
+      index(resource, null, workspaces, containers);
+      record(member ? ResourceChangeEvent.Kind.UPDATED : ResourceChangeEvent.Kind.ADDED, resource, platformIRI);
+      return this;
+    }
+
+    /**
+     * Removes a resource from the resources hosted on the platform, e.g. an agent that leaves the
+     * platform. Removing a resource that is not hosted on the platform does not change the
+     * platform.
+     */
+    public Transaction removeHostedResource(AbstractHostable resource) {
+      String platformIRI = base.platform.getIRIAsString().orElse(null);
+      if (!isMember(base.platform.getHostedResources(), platformIRI, resource)) {
+        return this;
+      }
+      record(ResourceChangeEvent.Kind.REMOVED, resource, platformIRI);
+      getPlatformBuilder().removeHostedResource(resource);
+      unindex(resource);
+      return this;
+    }
+
+    /* Whether a resource is a member, with the changes of the transaction, given the members before the transaction */
+    private boolean isMember(Set<AbstractHostable> members, String containerIRI, AbstractHostable resource) {
+      ResourceChangeEvent change = changes.get(new ResourceChangeEvent.Key(resource, Optional.ofNullable(containerIRI)));
+      return change != null ? change.getKind() != ResourceChangeEvent.Kind.REMOVED : members.contains(resource);
+    }
+
+    private void record(ResourceChangeEvent.Kind kind, AbstractHostable resource, String containerIRI) {
+      ResourceChangeEvent.coalesce(changes,
+              new ResourceChangeEvent(kind, resource, Optional.ofNullable(containerIRI), base.version + 1));
+    }
+
+    private List<ResourceChangeEvent> getChanges() {
+      return new ArrayList<>(changes.values());
+    }
+
+    private Workspace.Builder getWorkspaceBuilder(String iri) {
+      Workspace.Builder builder = changedWorkspaces.get(iri);
+      if (builder != null) {
+        return builder;
+      }
+      builder = getIndexedWorkspace(iri).toBuilder();
+      changedWorkspaces.put(iri, builder);
+      return builder;
+    }
+
+    private Workspace getIndexedWorkspace(String iri) {
+      Workspace workspace = workspaces.get(iri);
+      if (workspace == null) {
+        throw new IllegalArgumentException("Unknown workspace: " + iri);
+      }
+      return workspace;
+    }
+
+    private HypermediaMASPlatform.Builder getPlatformBuilder() {
+      if (changedPlatform == null) {
+        changedPlatform = base.platform.toBuilder();
+      }
+      return changedPlatform;
+    }
+
+    /* Removes an indexed workspace and the workspaces it transitively contains, with their changes */
+    private void unindex(AbstractHostable resource) {
+      if (!(resource instanceof Workspace) || !resource.getIRIAsString().isPresent()) {
+        return;
+      }
+      Deque<String> pending = new ArrayDeque<>();
+      pending.push(resource.getIRIAsString().get());
+      while (!pending.isEmpty()) {
+        String iri = pending.pop();
+        Workspace workspace = workspaces.remove(iri);
+        containers.remove(iri);
+        changedWorkspaces.remove(iri);
+        if (workspace == null) {
+          continue;
+        }
+        for (AbstractHostable member : workspace.getContainedResources()) {
+          if (member instanceof Workspace && member.getIRIAsString().isPresent()
+                  && iri.equals(containers.get(member.getIRIAsString().get()))) {
+            pending.push(member.getIRIAsString().get());
+          }
+        }
+      }
+    }
+
+    private boolean isChanged() {
+      return changedPlatform != null || !changedWorkspaces.isEmpty();
+    }
+
+    /* Rebuilds the changed workspaces and their containers, from the most deeply nested workspace up to the platform */
+    private Snapshot commit() {
+      /* The containers of the changed workspaces are rebuilt as well */
+      for (String iri : new ArrayList<>(changedWorkspaces.keySet())) {
+        for (String container = containers.get(iri); container != null; container = containers.get(container)) {
+          getWorkspaceBuilder(container);
+        }
+      }
+
+      Map<String, Integer> depths = new HashMap<>();
+      for (String iri : changedWorkspaces.keySet()) {
+        int depth = 0;
+        for (String container = containers.get(iri); container != null; container = containers.get(container)) {
+          depth++;
+        }
+        depths.put(iri, depth);
+      }
+      List<String> order = new ArrayList<>(changedWorkspaces.keySet());
+      order.sort(Comparator.comparing(depths::get).reversed());
+      for (String iri : order) {
+        Workspace workspace = changedWorkspaces.get(iri).build();
+        workspaces.put(iri, workspace);
+        String container = containers.get(iri);
+        if (container != null) {
+          changedWorkspaces.get(container).removeContainedResource(workspace).addContainedResource(workspace);
+        } else {
+          getPlatformBuilder().removeHostedResource(workspace).addHostedResource(workspace);
+        }
+      }
+
+      HypermediaMASPlatform platform = changedPlatform == null ? base.platform : changedPlatform.build();
+      return new Snapshot(base.version + 1, platform, workspaces, containers);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A change of the members of a workspace or of the resources hosted on a platform, as published
+ * by a {@link PlatformState} (see {@link PlatformState#getChanges()}).
+ */
+public final class ResourceChangeEvent {
+
+  public enum Kind {
+    /** The resource became a member. */
+    ADDED,
+    /** The resource is no longer a member. */
+    REMOVED,
+    /** The member was replaced by another version of the resource. */
+    UPDATED
+  }
+
+  private final Kind kind;
+  private final AbstractHostable resource;
+  private final Optional<String> containerIRI;
+  private final long version;
+
+  ResourceChangeEvent(Kind kind, AbstractHostable resource, Optional<String> containerIRI, long version) {
+    this.kind = kind;
+    this.resource = resource;
+    this.containerIRI = containerIRI;
+    this.version = version;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the resource that was changed, i.e. the added or updated version of the resource, or
+   * the removed version.
+   */
+  public AbstractHostable getResource() {
+    return resource;
+  }
+
+  public Optional<String> getResourceIRI() {
+    return resource.getIRIAsString();
+  }
+
+  /**
+   * Returns the IRI of the workspace or of the platform whose members were changed, unless the
+   * platform is anonymous.
+   */
+  public Optional<String> getContainerIRI() {
+    return containerIRI;
+  }
+
+  /**
+   * Returns the version of the first snapshot that includes the change (see
+   * {@link PlatformState.Snapshot#getVersion()}).
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Adds a change to a sequence of changes with at most one change per member. A change of a
+   * member that already has a change is combined with it, e.g. a resource that was removed and
+   * added again into an update, and the combined change is moved to the end of the sequence. A
+   * resource that was added and is removed again has no change.
+   *
+   * @param changes the changes, in insertion order
+   * @param change  the change to add
+   */
+  static void coalesce(Map<Key, ResourceChangeEvent> changes, ResourceChangeEvent change) {
+    Key key = new Key(change.resource, change.containerIRI);
+    ResourceChangeEvent previous = changes.remove(key);
+    ResourceChangeEvent coalesced = previous == null ? change : coalesce(previous, change);
+    if (coalesced != null) {
+      changes.put(key, coalesced);
+    }
+  }
+
+  /* Combines two consecutive changes of the same member, or returns null if they cancel each other out */
+  private static ResourceChangeEvent coalesce(ResourceChangeEvent previous, ResourceChangeEvent next) {
+    if (previous.kind == Kind.ADDED) {
+      return next.kind == Kind.REMOVED ? null : next.as(Kind.ADDED);
+    }
+    if (previous.kind == Kind.REMOVED && next.kind == Kind.ADDED) {
+      return next.as(Kind.UPDATED);
+    }
+    return next;
+  }
+
+  private ResourceChangeEvent as(Kind kind) {
+    return kind == this.kind ? this : new ResourceChangeEvent(kind, resource, containerIRI, version);
+  }
+
+  @Override
+  public String toString() {
+    return kind + " " + getResourceIRI().orElse("anonymous resource") + " in "
+            + containerIRI.orElse("anonymous platform") + " at version " + version;
+  }
+
+  /* The key of the changes of a member, for coalescing changes */
+  static final class Key {
+    private final AbstractHostable resource;
+    private final Optional<String> containerIRI;
+
+    Key(AbstractHostable resource, Optional<String> containerIRI) {
+      this.resource = resource;
+      this.containerIRI = containerIRI;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return resource.equals(other.resource) && containerIRI.equals(other.containerIRI);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(resource, containerIRI);
+    }
+  }
+}
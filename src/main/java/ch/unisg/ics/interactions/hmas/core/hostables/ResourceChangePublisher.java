@@ -0,0 +1,183 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Publishes the changes of a {@link PlatformState} to subscribers, in batches. Changes are
+ * buffered per subscriber until the subscriber requests them, and the buffered changes of the
+ * same member are coalesced (see {@link ResourceChangeEvent#coalesce(Map, ResourceChangeEvent)}),
+ * such that a slow subscriber receives the net changes of a burst of transactions rather than
+ * each transaction. A buffer thus holds at most one change per member. Each batch is delivered as one item, with
+ * up to the maximum batch size of changes, on the executor of the publisher.
+ */
+final class ResourceChangePublisher implements Flow.Publisher<List<ResourceChangeEvent>> {
+
+  private final Executor executor;
+  private final int maxBatchSize;
+  private final List<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+  private volatile boolean closed = false;
+
+  ResourceChangePublisher(Executor executor, int maxBatchSize) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("The maximum batch size must be positive");
+    }
+    this.executor = executor;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super List<ResourceChangeEvent>> subscriber) {
+    Objects.requireNonNull(subscriber);
+    ChangeSubscription subscription = new ChangeSubscription(subscriber);
+    subscriptions.add(subscription);
+    subscriber.onSubscribe(subscription);
+    if (closed) {
+      subscription.complete();
+    }
+  }
+
+  /* Buffers the changes of a transaction for each subscriber */
+  void publish(List<ResourceChangeEvent> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    for (ChangeSubscription subscription : subscriptions) {
+      subscription.offer(changes);
+    }
+  }
+
+  /* Completes the subscriptions once their buffered changes have been delivered */
+  void close() {
+    closed = true;
+    for (ChangeSubscription subscription : subscriptions) {
+      subscription.complete();
+    }
+  }
+
+  int getSubscriberCount() {
+    return subscriptions.size();
+  }
+
+  /*
+   * A subscription with its buffer of changes. Items are delivered by at most one task on the
+   * executor at a time, which keeps delivering as long as there are changes and demand.
+   */
+  private final class ChangeSubscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super List<ResourceChangeEvent>> subscriber;
+    private final Map<ResourceChangeEvent.Key, ResourceChangeEvent> pending = new LinkedHashMap<>();
+    private long demand = 0;
+    private Throwable error;
+    private boolean completing = false;
+    private boolean terminated = false;
+    private boolean delivering = false;
+
+    private ChangeSubscription(Flow.Subscriber<? super List<ResourceChangeEvent>> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    private void offer(List<ResourceChangeEvent> changes) {
+      synchronized (this) {
+        if (terminated || completing || error != null) {
+          return;
+        }
+        for (ResourceChangeEvent change : changes) {
+          ResourceChangeEvent.coalesce(pending, change);
+        }
+      }
+      schedule();
+    }
+
+    private void complete() {
+      synchronized (this) {
+        completing = true;
+      }
+      schedule();
+    }
+
+    @Override
+    public void request(long n) {
+      synchronized (this) {
+        if (n > 0) {
+          demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        } else if (error == null) {
+          /* The error is signalled by the delivery task, such that signals are not concurrent */
+          error = new IllegalArgumentException("The number of requested items must be positive");
+          pending.clear();
+        }
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      synchronized (this) {
+        terminated = true;
+        pending.clear();
+      }
+      subscriptions.remove(this);
+    }
+
+    private void schedule() {
+      synchronized (this) {
+        if (delivering || !hasWork()) {
+          return;
+        }
+        delivering = true;
+      }
+      executor.execute(this::deliver);
+    }
+
+    private boolean hasWork() {
+      return !terminated && (error != null || demand > 0 && !pending.isEmpty() || completing && pending.isEmpty());
+    }
+
+    private void deliver() {
+      while (true) {
+        List<ResourceChangeEvent> batch;
+        Throwable failure = null;
+        synchronized (this) {
+          if (!hasWork()) {
+            delivering = false;
+            return;
+          }
+          if (error != null) {
+            terminated = true;
+            failure = error;
+            batch = null;
+          } else if (pending.isEmpty()) {
+            terminated = true;
+            batch = null;
+          } else {
+            batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+            Iterator<ResourceChangeEvent> changes = pending.values().iterator();
+            while (changes.hasNext() && batch.size() < maxBatchSize) {
+              batch.add(changes.next());
+              changes.remove();
+            }
+            demand--;
+          }
+        }
+
+        if (failure != null) {
+          subscriptions.remove(this);
+          subscriber.onError(failure);
+          continue;
+        }
+        if (batch == null) {
+          subscriptions.remove(this);
+          subscriber.onComplete();
+          continue;
+        }
+        try {
+          subscriber.onNext(Collections.unmodifiableList(batch));
+        } catch (RuntimeException e) {
+          cancel();
+          subscriber.onError(e);
+        }
+      }
+    }
+  }
+}
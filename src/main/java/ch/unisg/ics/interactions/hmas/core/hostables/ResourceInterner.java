@@ -0,0 +1,49 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collapses equal resources to a single instance (see {@link AbstractResource#equals(Object)}),
+ * e.g. the platforms and workspaces that are decoded from several profiles when the profiles are
+ * merged into one view of an environment. The first interned instance of a resource is returned
+ * for every equal resource, so an interner is meant for resources of a consistent view: a newer
+ * version of an interned resource is collapsed to the older instance as well.
+ * <p>
+ * Instances are referenced weakly, such that resources that are no longer used elsewhere are
+ * released. Anonymous resources are returned as they are. Interners are thread-safe.
+ */
+public final class ResourceInterner {
+
+  private final Interner<AbstractResource> interner = Interners.newWeakInterner();
+
+  /**
+   * Returns the instance of a resource in this interner, i.e. the first interned resource that is
+   * equal to the given resource.
+   *
+   * @param resource the resource to intern
+   * @return the interned instance of the resource
+   */
+  @SuppressWarnings("unchecked")
+  public <R extends AbstractResource> R intern(R resource) {
+    if (!resource.getIRI().isPresent()) {
+      return resource;
+    }
+    /* Equal resources are of the same class */
+    return (R) interner.intern(resource);
+  }
+
+  /**
+   * Returns the interned instances of a set of resources (see {@link #intern(AbstractResource)}).
+   */
+  public <R extends AbstractResource> Set<R> internAll(Set<? extends R> resources) {
+    Set<R> interned = new LinkedHashSet<>();
+    for (R resource : resources) {
+      interned.add(intern(resource));
+    }
+    return interned;
+  }
+}
@@ -0,0 +1,267 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.rdf4j.model.IRI;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe registry of the resources known to a platform, e.g. for resolving request paths
+ * to resources. Resources are indexed by IRI, and the registry materializes the inverse of the
+ * relations between resources, such that the workspaces that contain a resource
+ * (<code>hmas:isContainedIn</code>), the platforms that host a resource
+ * (<code>hmas:isHostedOn</code>), and the profiles of a resource (the inverse of
+ * <code>hmas:isProfileOf</code>) are found without scanning.
+ * <p>
+ * Registering a resource also registers the resources that it is related to, transitively.
+ * Registering another version of a resource (i.e. an equal resource, see
+ * {@link AbstractResource#equals(Object)}) replaces the registered version together with the
+ * relations that it no longer has, including the relations of the anonymous resources that it is
+ * no longer related to. Only the registered resource itself replaces a registered
+ * version: the resources that it is related to are only registered if they are not registered yet,
+ * since they are often incomplete (e.g. a platform that a profile only references by IRI).
+ * Registrations are serialized, while lookups do not lock and see each registration once it has
+ * been applied to the looked up entry.
+ */
+public final class ResourceRegistry {
+
+  private final Map<String, AbstractResource> resources = new ConcurrentHashMap<>();
+  private final InverseRelation<Workspace> containers = new InverseRelation<>();
+  private final InverseRelation<HypermediaMASPlatform> platforms = new InverseRelation<>();
+  private final InverseRelation<AbstractHostable> hostedResources = new InverseRelation<>();
+  private final InverseRelation<BaseResourceProfile> profiles = new InverseRelation<>();
+
+  private final Object registrationLock = new Object();
+
+  /**
+   * Registers a resource, and the resources that it is related to (e.g. the resources that are
+   * contained in a workspace, or the resource of a profile), transitively. The resource replaces
+   * its registered version, if any, whereas related resources that are already registered are kept
+   * and are not traversed again.
+   *
+   * @param resource the resource to register
+   */
+  public void register(AbstractResource resource) {
+    synchronized (registrationLock) {
+      Set<AbstractResource> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+      Deque<AbstractResource> pending = new ArrayDeque<>();
+      pending.push(resource);
+
+      while (!pending.isEmpty()) {
+        AbstractResource next = pending.pop();
+        if (!visited.add(next)) {
+          continue;
+        }
+
+        AbstractResource previous = null;
+        if (next.getIRIAsString().isPresent()) {
+          previous = resources.get(next.getIRIAsString().get());
+          if (previous != null && next != resource) {
+            continue;
+          }
+          resources.put(next.getIRIAsString().get(), next);
+        }
+
+        List<Relation> relations = getRelations(next);
+        relations.forEach(relation -> {
+          apply(next, relation, true);
+          pending.push(relation.resource);
+        });
+        if (previous != null && previous != next) {
+          Set<Relation> current = new HashSet<>(relations);
+          for (Relation relation : getRelations(previous)) {
+            if (!current.contains(relation)) {
+              apply(next, relation, false);
+            }
+          }
+          /* Anonymous resources are only registered through the resources that are related to them */
+          Set<AbstractResource> reachable = getAnonymousResources(next);
+          for (AbstractResource unreachable : getAnonymousResources(previous)) {
+            if (!reachable.contains(unreachable)) {
+              getRelations(unreachable).forEach(relation -> apply(unreachable, relation, false));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the registered resource with the given IRI.
+   */
+  public Optional<AbstractResource> get(String iri) {
+    return Optional.ofNullable(resources.get(iri));
+  }
+
+  /**
+   * Returns the registered resource with the given IRI, if it is of the given type.
+   */
+  public <R extends AbstractResource> Optional<R> get(String iri, Class<R> type) {
+    AbstractResource resource = resources.get(iri);
+    return type.isInstance(resource) ? Optional.of(type.cast(resource)) : Optional.empty();
+  }
+
+  public Optional<AbstractResource> get(IRI iri) {
+    return get(iri.stringValue());
+  }
+
+  public boolean contains(String iri) {
+    return resources.containsKey(iri);
+  }
+
+  /**
+   * Returns the workspaces that contain a resource, i.e. the objects of
+   * <code>hmas:isContainedIn</code>.
+   */
+  public Set<Workspace> getContainers(AbstractHostable resource) {
+    return containers.get(resource);
+  }
+
+  /**
+   * Returns the workspace that contains a resource, if any. In a hierarchy of workspaces, each
+   * resource is contained in at most one workspace.
+   */
+  public Optional<Workspace> getContainer(AbstractHostable resource) {
+    return containers.get(resource).stream().findFirst();
+  }
+
+  /**
+   * Returns the platforms that host a resource, i.e. the objects of <code>hmas:isHostedOn</code>,
+   * whether the relation is stated by the resource or by the platform (<code>hmas:hosts</code>).
+   */
+  public Set<HypermediaMASPlatform> getHostingPlatforms(AbstractHostable resource) {
+    return platforms.get(resource);
+  }
+
+  /**
+   * Returns the resources that are hosted on a platform (see {@link #getHostingPlatforms(AbstractHostable)}).
+   */
+  public Set<AbstractHostable> getHostedResources(HypermediaMASPlatform platform) {
+    return hostedResources.get(platform);
+  }
+
+  /**
+   * Returns the profiles of a resource, i.e. the subjects of <code>hmas:isProfileOf</code>.
+   */
+  public Set<BaseResourceProfile> getProfiles(AbstractResource resource) {
+    return profiles.get(resource);
+  }
+
+  /**
+   * Returns the number of registered resources with an IRI.
+   */
+  public int size() {
+    return resources.size();
+  }
+
+  private static List<Relation> getRelations(AbstractResource resource) {
+    List<Relation> relations = new ArrayList<>();
+    resource.forEachRelatedResource((relation, related) -> relations.add(new Relation(relation, related)));
+    return relations;
+  }
+
+  /* Returns the anonymous resources that a resource is related to, transitively through anonymous resources */
+  private static Set<AbstractResource> getAnonymousResources(AbstractResource resource) {
+    Set<AbstractResource> anonymous = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<AbstractResource> pending = new ArrayDeque<>();
+    pending.push(resource);
+    while (!pending.isEmpty()) {
+      for (Relation relation : getRelations(pending.pop())) {
+        if (relation.resource.getIRIAsString().isEmpty() && anonymous.add(relation.resource)) {
+          pending.push(relation.resource);
+        }
+      }
+    }
+    return anonymous;
+  }
+
+  /* Adds or removes the inverse of a relation of a registered resource */
+  private void apply(AbstractResource subject, Relation relation, boolean add) {
+    AbstractResource object = relation.resource;
+    if (CORE.CONTAINS.equals(relation.predicate)) {
+      containers.update(object, (Workspace) subject, add);
+    } else if (CORE.HOSTS.equals(relation.predicate)) {
+      /* The relation is kept as long as the hosted resource still states that it is hosted on the platform */
+      if (add || !isRelated(object, CORE.IS_HOSTED_ON, subject)) {
+        platforms.update(object, (HypermediaMASPlatform) subject, add);
+        hostedResources.update(subject, (AbstractHostable) object, add);
+      }
+    } else if (CORE.IS_HOSTED_ON.equals(relation.predicate)) {
+      if (add || !isRelated(object, CORE.HOSTS, subject)) {
+        platforms.update(subject, (HypermediaMASPlatform) object, add);
+        hostedResources.update(object, (AbstractHostable) subject, add);
+      }
+    } else if (CORE.IS_PROFILE_OF.equals(relation.predicate)) {
+      profiles.update(object, (BaseResourceProfile) subject, add);
+    }
+  }
+
+  /* Checks whether the registered version of a resource has a relation to another resource */
+  private boolean isRelated(AbstractResource resource, IRI predicate, AbstractResource related) {
+    AbstractResource registered = resource.getIRIAsString().map(resources::get).orElse(resource);
+    return registered != null && getRelations(registered).contains(new Relation(predicate, related));
+  }
+
+  /* Returns the registered version of a resource, or the resource itself if it is not registered */
+  private AbstractResource getRegistered(AbstractResource resource) {
+    return resource.getIRIAsString().map(resources::get).orElse(resource);
+  }
+
+  private static final class Relation {
+    private final IRI predicate;
+    private final AbstractResource resource;
+
+    private Relation(IRI predicate, AbstractResource resource) {
+      this.predicate = predicate;
+      this.resource = resource;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Relation)) {
+        return false;
+      }
+      Relation other = (Relation) o;
+      return predicate.equals(other.predicate) && resource.equals(other.resource);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * predicate.hashCode() + resource.hashCode();
+    }
+  }
+
+  /*
+   * The inverse of a relation, keyed by the object of the relation. The subjects are kept as the
+   * keys and values of a map, such that a new version of a subject replaces the previous version,
+   * and are looked up as their registered versions.
+   */
+  private final class InverseRelation<T extends AbstractResource> {
+    private final Map<AbstractResource, Map<T, T>> subjects = new ConcurrentHashMap<>();
+
+    private void update(AbstractResource object, T subject, boolean add) {
+      if (add) {
+        subjects.computeIfAbsent(object, key -> new ConcurrentHashMap<>()).put(subject, subject);
+      } else {
+        subjects.computeIfPresent(object, (key, values) -> {
+          values.remove(subject);
+          return values.isEmpty() ? null : values;
+        });
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<T> get(AbstractResource object) {
+      Map<T, T> values = subjects.get(object);
+      if (values == null) {
+        return Collections.emptySet();
+      }
+      /* Equal resources are of the same class */
+      return values.values().stream()
+              .map(subject -> (T) getRegistered(subject))
+              .collect(ImmutableSet.toImmutableSet());
+    }
+  }
+}
@@ -0,0 +1,249 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import org.eclipse.rdf4j.model.IRI;
+
+import java.util.*;
+
+/**
+ * An index of the semantic types of a set of resources, e.g. of the resources contained in a
+ * workspace, for finding the resources that have all, any or none of a set of semantic types (see
+ * {@link #query()}). Semantic types are encoded as consecutive numbers, and the resources of each
+ * type are kept as a bit set over the positions of the resources, such that queries are answered
+ * with bitwise operations on the bit sets of the queried types rather than by comparing the types
+ * of every resource. Indexes are not thread-safe.
+ */
+public final class SemanticTypeIndex {
+
+  private final Map<String, Integer> typeIds = new HashMap<>();
+  private final List<BitSet> resourcesByType = new ArrayList<>();
+  private final List<AbstractResource> resources = new ArrayList<>();
+  private final Map<AbstractResource, Integer> positions = new HashMap<>();
+  /* The positions of the indexed resources, without the positions of removed resources */
+  private final BitSet indexed = new BitSet();
+
+  /**
+   * Builds an index of the semantic types of the given resources.
+   */
+  public static SemanticTypeIndex of(Collection<? extends AbstractResource> resources) {
+    SemanticTypeIndex index = new SemanticTypeIndex();
+    resources.forEach(index::add);
+    return index;
+  }
+
+  /**
+   * Builds an index of the semantic types of the resources contained in a workspace.
+   */
+  public static SemanticTypeIndex ofContainedResources(Workspace workspace) {
+    return of(workspace.getContainedResources());
+  }
+
+  /**
+   * Builds an index of the semantic types of the resources hosted on a platform.
+   */
+  public static SemanticTypeIndex ofHostedResources(HypermediaMASPlatform platform) {
+    return of(platform.getHostedResources());
+  }
+
+  /**
+   * Adds a resource to the index. A resource that is equal to an indexed resource (see
+   * {@link AbstractResource#equals(Object)}) replaces the indexed resource.
+   *
+   * @param resource the resource to add
+   */
+  public void add(AbstractResource resource) {
+    remove(resource);
+
+    int position = resources.size();
+    resources.add(resource);
+    positions.put(resource, position);
+    indexed.set(position);
+    for (String type : resource.getSemanticTypes()) {
+      int id = typeIds.computeIfAbsent(type, t -> {
+        resourcesByType.add(new BitSet());
+        return resourcesByType.size() - 1;
+      });
+      resourcesByType.get(id).set(position);
+    }
+  }
+
+  /**
+   * Removes a resource from the index.
+   *
+   * @param resource the resource to remove
+   * @return <code>true</code> if the resource was indexed
+   */
+  public boolean remove(AbstractResource resource) {
+    Integer position = positions.remove(resource);
+    if (position == null) {
+      return false;
+    }
+    /* The indexed version of the resource may have other types than the given version */
+    AbstractResource indexedResource = resources.set(position, null);
+    indexed.clear(position);
+    for (String type : indexedResource.getSemanticTypes()) {
+      Integer id = typeIds.get(type);
+      if (id != null) {
+        resourcesByType.get(id).clear(position);
+      }
+    }
+
+    /* The positions of removed resources are reclaimed once they outnumber the indexed resources */
+    if (resources.size() > 2 * positions.size() + 64) {
+      compact();
+    }
+    return true;
+  }
+
+  private void compact() {
+    List<AbstractResource> indexedResources = new ArrayList<>(positions.size());
+    for (int position = indexed.nextSetBit(0); position >= 0; position = indexed.nextSetBit(position + 1)) {
+      indexedResources.add(resources.get(position));
+    }
+    resources.clear();
+    positions.clear();
+    indexed.clear();
+    resourcesByType.forEach(BitSet::clear);
+    indexedResources.forEach(this::add);
+  }
+
+  /**
+   * Returns the number of indexed resources.
+   */
+  public int size() {
+    return positions.size();
+  }
+
+  /**
+   * Returns the number of distinct semantic types of the indexed resources.
+   */
+  public int getTypeCount() {
+    return typeIds.size();
+  }
+
+  /**
+   * Creates a query of the indexed resources. Without conditions, the query matches all indexed
+   * resources.
+   */
+  public Query query() {
+    return new Query();
+  }
+
+  /* The resources of a semantic type, or null if no indexed resource has had the type */
+  private BitSet getResources(String type) {
+    Integer id = typeIds.get(type);
+    return id == null ? null : resourcesByType.get(id);
+  }
+
+  /**
+   * A query of the resources that have all, any and none of the given semantic types. Conditions
+   * are combined conjunctively.
+   */
+  public final class Query {
+    private final Set<String> allTypes = new LinkedHashSet<>();
+    private final List<Set<String>> anyTypes = new ArrayList<>();
+    private final Set<String> noTypes = new LinkedHashSet<>();
+
+    private Query() {
+    }
+
+    /**
+     * Matches the resources that have all the given semantic types.
+     */
+    public Query withAllTypes(String... types) {
+      this.allTypes.addAll(Arrays.asList(types));
+      return this;
+    }
+
+    public Query withAllTypes(IRI... types) {
+      return withAllTypes(toStrings(types));
+    }
+
+    /**
+     * Matches the resources that have at least one of the given semantic types.
+     */
+    public Query withAnyType(String... types) {
+      this.anyTypes.add(new LinkedHashSet<>(Arrays.asList(types)));
+      return this;
+    }
+
+    public Query withAnyType(IRI... types) {
+      return withAnyType(toStrings(types));
+    }
+
+    /**
+     * Matches the resources that have none of the given semantic types.
+     */
+    public Query withoutTypes(String... types) {
+      this.noTypes.addAll(Arrays.asList(types));
+      return this;
+    }
+
+    public Query withoutTypes(IRI... types) {
+      return withoutTypes(toStrings(types));
+    }
+
+    /**
+     * Returns the matching resources, in the order in which they were indexed.
+     */
+    public List<AbstractResource> find() {
+      BitSet matches = evaluate();
+      List<AbstractResource> found = new ArrayList<>(matches.cardinality());
+      for (int position = matches.nextSetBit(0); position >= 0; position = matches.nextSetBit(position + 1)) {
+        found.add(resources.get(position));
+      }
+      return found;
+    }
+
+    /**
+     * Returns the matching resources of a class, e.g. the matching artifacts.
+     */
+    public <R extends AbstractResource> List<R> find(Class<R> type) {
+      List<R> found = new ArrayList<>();
+      for (AbstractResource resource : find()) {
+        if (type.isInstance(resource)) {
+          found.add(type.cast(resource));
+        }
+      }
+      return found;
+    }
+
+    /**
+     * Returns the number of matching resources, without materializing them.
+     */
+    public int count() {
+      return evaluate().cardinality();
+    }
+
+    private BitSet evaluate() {
+      BitSet matches = (BitSet) indexed.clone();
+      for (String type : allTypes) {
+        BitSet typed = getResources(type);
+        if (typed == null) {
+          return new BitSet();
+        }
+        matches.and(typed);
+      }
+      for (Set<String> types : anyTypes) {
+        BitSet typed = new BitSet();
+        for (String type : types) {
+          BitSet resources = getResources(type);
+          if (resources != null) {
+            typed.or(resources);
+          }
+        }
+        matches.and(typed);
+      }
+      for (String type : noTypes) {
+        BitSet typed = getResources(type);
+        if (typed != null) {
+          matches.andNot(typed);
+        }
+      }
+      return matches;
+    }
+  }
+
+  private static String[] toStrings(IRI[] types) {
+    return Arrays.stream(types).map(IRI::stringValue).toArray(String[]::new);
+  }
+}
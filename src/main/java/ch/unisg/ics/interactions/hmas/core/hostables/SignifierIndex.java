@@ -0,0 +1,155 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.eclipse.rdf4j.model.IRI;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe index of the signifiers that resources expose through their profiles
+ * (<code>hmas:exposesSignifier</code>), e.g. of the profiles of the artifacts hosted on a platform.
+ * Signifiers are indexed by exposing resource, and the exposing resources are indexed by the
+ * semantic types of their signifiers, such that the resources that expose a signifier of a type
+ * are found without scanning the profiles.
+ * <p>
+ * Indexing another version of a profile (see {@link #update(BaseResourceProfile)}) only updates the
+ * entries of the semantic types of the previous and of the new signifiers of its resource. Updates
+ * are serialized, while lookups do not lock: the sets of resources are persistent sets (see
+ * {@link PersistentHashSet}), which are replaced on update by a set with the resource added or
+ * removed rather than modified or copied, and lookups return them without copying.
+ */
+public final class SignifierIndex {
+
+  private final Map<ProfiledResource, Set<BaseSignifier>> signifiersByResource = new ConcurrentHashMap<>();
+  private final Map<String, PersistentHashSet<ProfiledResource>> resourcesByType = new ConcurrentHashMap<>();
+
+  private final Object updateLock = new Object();
+
+  /**
+   * Builds an index of the signifiers exposed by the given profiles.
+   */
+  public static SignifierIndex of(Collection<? extends BaseResourceProfile> profiles) {
+    SignifierIndex index = new SignifierIndex();
+    profiles.forEach(index::update);
+    return index;
+  }
+
+  /**
+   * Indexes the signifiers exposed by a profile. The signifiers replace the signifiers of a
+   * previously indexed profile of the same resource (see {@link AbstractResource#equals(Object)}),
+   * and a profile that exposes no signifiers removes the resource from the index.
+   *
+   * @param profile the profile of the exposing resource
+   */
+  public void update(BaseResourceProfile profile) {
+    update(profile.getResource(), profile.getExposedSignifiers());
+  }
+
+  /**
+   * Removes a resource and its signifiers from the index.
+   *
+   * @param resource the exposing resource
+   * @return <code>true</code> if the resource was indexed
+   */
+  public boolean remove(ProfiledResource resource) {
+    synchronized (updateLock) {
+      Set<BaseSignifier> previous = signifiersByResource.remove(resource);
+      if (previous == null) {
+        return false;
+      }
+      updateTypes(resource, getSemanticTypes(previous), Collections.emptySet());
+      return true;
+    }
+  }
+
+  private void update(ProfiledResource resource, Set<BaseSignifier> signifiers) {
+    synchronized (updateLock) {
+      Set<BaseSignifier> previous = signifiers.isEmpty()
+              ? signifiersByResource.remove(resource)
+              : signifiersByResource.put(resource, ImmutableSet.copyOf(signifiers));
+      Set<String> previousTypes = previous == null ? Collections.emptySet() : getSemanticTypes(previous);
+      updateTypes(resource, previousTypes, getSemanticTypes(signifiers));
+    }
+  }
+
+  /* Replaces the sets of resources of the previous and of the new types of the signifiers of a resource */
+  private void updateTypes(ProfiledResource resource, Set<String> previousTypes, Set<String> types) {
+    for (String type : Sets.union(previousTypes, types)) {
+      resourcesByType.compute(type, (key, resources) -> {
+        /* A new version of the resource replaces the indexed version */
+        PersistentHashSet<ProfiledResource> updated = resources == null
+                ? PersistentHashSet.empty()
+                : resources.without(resource);
+        if (types.contains(type)) {
+          updated = updated.with(resource);
+        }
+        return updated.isEmpty() ? null : updated;
+      });
+    }
+  }
+
+  private static Set<String> getSemanticTypes(Set<BaseSignifier> signifiers) {
+    Set<String> types = new HashSet<>();
+    signifiers.forEach(signifier -> types.addAll(signifier.getSemanticTypes()));
+    return types;
+  }
+
+  /**
+   * Returns the resources that expose a signifier of a semantic type.
+   */
+  public Set<ProfiledResource> getExposingResources(String signifierType) {
+    Set<ProfiledResource> resources = resourcesByType.get(signifierType);
+    return resources == null ? Collections.emptySet() : resources;
+  }
+
+  public Set<ProfiledResource> getExposingResources(IRI signifierType) {
+    return getExposingResources(signifierType.stringValue());
+  }
+
+  /**
+   * Returns the resources of a class that expose a signifier of a semantic type, e.g. the
+   * artifacts that expose a signifier of the type.
+   */
+  public <R extends ProfiledResource> Set<R> getExposingResources(String signifierType, Class<R> type) {
+    Set<R> found = new LinkedHashSet<>();
+    for (ProfiledResource resource : getExposingResources(signifierType)) {
+      if (type.isInstance(resource)) {
+        found.add(type.cast(resource));
+      }
+    }
+    return found;
+  }
+
+  public <R extends ProfiledResource> Set<R> getExposingResources(IRI signifierType, Class<R> type) {
+    return getExposingResources(signifierType.stringValue(), type);
+  }
+
+  /**
+   * Returns the signifiers that a resource exposes.
+   */
+  public Set<BaseSignifier> getSignifiers(ProfiledResource resource) {
+    return signifiersByResource.getOrDefault(resource, Collections.emptySet());
+  }
+
+  /**
+   * Returns the signifiers of a semantic type that a resource exposes.
+   */
+  public Set<BaseSignifier> getSignifiers(ProfiledResource resource, String signifierType) {
+    Set<BaseSignifier> found = new LinkedHashSet<>();
+    for (BaseSignifier signifier : getSignifiers(resource)) {
+      if (signifier.getSemanticTypes().contains(signifierType)) {
+        found.add(signifier);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Returns the number of indexed resources, i.e. of resources that expose signifiers.
+   */
+  public int size() {
+    return signifiersByResource.size();
+  }
+}
@@ -2,23 +2,58 @@ package ch.unisg.ics.interactions.hmas.core.hostables;
 
 import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
 import ch.unisg.ics.interactions.hmas.core.vocabularies.HMAS;
-import com.google.common.collect.ImmutableSet;
+import org.eclipse.rdf4j.model.IRI;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 public class Workspace extends Artifact {
 
-  private final Set<AbstractHostable> containedResources;
+  private final Supplier<Set<AbstractHostable>> containedResources;
 
   protected Workspace(AbstractBuilder builder) {
     super(CORE.TERM.WORKSPACE, builder);
     //noinspection unchecked
-    this.containedResources = ImmutableSet.copyOf(builder.containedResources);
+    this.containedResources = builder.containedResources.freeze();
   }
 
   public Set<AbstractHostable> getContainedResources() {
-    return this.containedResources;
+    return this.containedResources.get();
+  }
+
+  /**
+   * Returns a builder that is initialized with this workspace, e.g. to build a derived version of
+   * the workspace. The contained resources of the derived workspace share structure with the
+   * contained resources of this workspace, such that adding or removing a member does not copy the
+   * other members.
+   *
+   * @return the builder of a workspace
+   */
+  public Builder toBuilder() {
+    return new Builder().from(this);
+  }
+
+  /**
+   * Returns a version of this workspace that also contains the given resource (see
+   * {@link #toBuilder()}). The resource replaces a contained version of the same resource, if any.
+   */
+  public Workspace withContainedResource(AbstractHostable hostable) {
+    return toBuilder().removeContainedResource(hostable).addContainedResource(hostable).build();
+  }
+
+  /**
+   * Returns a version of this workspace that does not contain the given resource (see
+   * {@link #toBuilder()}).
+   */
+  public Workspace withoutContainedResource(AbstractHostable hostable) {
+    return toBuilder().removeContainedResource(hostable).build();
+  }
+
+  @Override
+  protected void forEachRelatedResource(BiConsumer<IRI, AbstractResource> action) {
+    super.forEachRelatedResource(action);
+    getContainedResources().forEach(hostable -> action.accept(CORE.CONTAINS, hostable));
   }
 
   public static class Builder extends AbstractBuilder<Builder, Workspace> {
@@ -36,7 +71,7 @@ public class Workspace extends Artifact {
   public abstract static class AbstractBuilder<S extends AbstractBuilder, T extends Workspace>
           extends Artifact.AbstractBuilder<S, T> {
 
-    private final Set<AbstractHostable> containedResources;
+    private final Members<AbstractHostable> containedResources;
 
     protected AbstractBuilder() {
       this(CORE.TERM.WORKSPACE);
@@ -44,7 +79,7 @@ public class Workspace extends Artifact {
 
     public AbstractBuilder(HMAS type) {
       super(type);
-      this.containedResources = new HashSet<>();
+      this.containedResources = new Members<>();
     }
 
     public S addContainedResource(AbstractHostable hostable) {
@@ -57,6 +92,30 @@ public class Workspace extends Artifact {
       return getBuilder();
     }
 
+    public S removeContainedResource(AbstractHostable hostable) {
+      this.containedResources.remove(hostable);
+      return getBuilder();
+    }
+
+    @Override
+    protected S from(T resource) {
+      super.from(resource);
+      this.containedResources.addAll(resource.getContainedResources());
+      return getBuilder();
+    }
+
+    /**
+     * Adds contained resources that are resolved on the first call to
+     * {@link Workspace#getContainedResources()} of the built workspace.
+     *
+     * @param hostables the supplier of the contained resources
+     * @return this <code>Builder</code>
+     */
+    public S addDeferredContainedResources(Supplier<? extends Set<? extends AbstractHostable>> hostables) {
+      this.containedResources.addDeferred(hostables);
+      return getBuilder();
+    }
+
     public abstract T build();
   }
 }
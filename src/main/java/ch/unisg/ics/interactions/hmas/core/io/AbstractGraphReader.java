@@ -1,43 +1,127 @@
-package ch.unisg.ics.interactions.hmas.core.io;
-
-import ch.unisg.ics.interactions.hmas.core.hostables.AbstractResource;
-import org.eclipse.rdf4j.model.*;
-import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
-import org.eclipse.rdf4j.model.util.Models;
-import org.eclipse.rdf4j.model.vocabulary.RDF;
-
-import java.util.Set;
-
-public abstract class AbstractGraphReader {
-  protected Model model;
-
-  protected AbstractResource readResource(AbstractResource.AbstractBuilder<?, ?> builder, Resource node) {
-    if (node.isIRI()) {
-      builder.setIRI(SimpleValueFactory.getInstance().createIRI(node.stringValue()));
-    }
-
-    Set<IRI> semanticTypes = Models.objectIRIs(model.filter(node, RDF.TYPE, null));
-    for (IRI type : semanticTypes) {
-      if (!builder.TYPE.toString().equals(type.stringValue())) {
-        builder.addSemanticType(type.stringValue());
-      }
-    }
-
-    Model resourceModel = model.filter(node, null, null);
-
-    for (Statement statement : resourceModel) {
-      Value object = statement.getObject();
-      // Add the statement to filteredModel only if the object is not a BNode
-      if (!(object instanceof BNode)) {
-        if (node.isBNode()) {
-          builder.addTriple(statement.getPredicate(), statement.getObject());
-        } else {
-          builder.addTriple(statement.getSubject(), statement.getPredicate(), statement.getObject());
-        }
-      }
-    }
-
-    return builder.build();
-  }
-
-}
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.AbstractResource;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public abstract class AbstractGraphReader {
+  protected Model model;
+  private ModelIndex index;
+
+  private final Map<Resource, AbstractResource> decodedResources = new HashMap<>();
+  private final Set<Resource> decodingResources = new HashSet<>();
+
+  /**
+   * Returns a subject/predicate index over the model of this reader. The index is built on
+   * first use, so the model is expected to be fully loaded by then.
+   *
+   * @return the index over the model
+   */
+  protected ModelIndex getIndex() {
+    if (index == null) {
+      index = ModelIndex.of(model);
+    }
+    return index;
+  }
+
+  /**
+   * Decodes the resource described by a node at most once per reader, so that a node that is
+   * referenced several times is materialized as a single instance.
+   *
+   * @param node    the node that describes the resource
+   * @param type    the expected type of the resource
+   * @param decoder the function that decodes the resource, if it has not been decoded yet
+   * @return the decoded resource
+   */
+  protected <R extends AbstractResource> R readOnce(Resource node, Class<R> type, Function<Resource, R> decoder) {
+    AbstractResource decoded = decodedResources.get(node);
+    if (type.isInstance(decoded)) {
+      return type.cast(decoded);
+    }
+
+    decodingResources.add(node);
+    R resource;
+    try {
+      resource = decoder.apply(node);
+    } finally {
+      decodingResources.remove(node);
+    }
+    decodedResources.putIfAbsent(node, resource);
+    return resource;
+  }
+
+  /**
+   * Releases the index and the decoded resources of this reader, once no more resources are
+   * decoded from its model. The index is rebuilt if it is used again.
+   */
+  protected void release() {
+    index = null;
+    decodedResources.clear();
+  }
+
+  /**
+   * Returns the resource that has already been decoded from a node, if any.
+   */
+  protected Optional<AbstractResource> getDecodedResource(Resource node) {
+    return Optional.ofNullable(decodedResources.get(node));
+  }
+
+  /**
+   * Checks whether a node is currently being decoded. A reference to such a node closes a cycle,
+   * and has to be added as a deferred reference (see {@link #readDeferred(Resource, Class)}).
+   */
+  protected boolean isDecoding(Resource node) {
+    return decodingResources.contains(node);
+  }
+
+  /**
+   * Returns a deferred reference to the resource that is being decoded from a node. The reference
+   * is resolved to the decoded instance on first access, and fails if the resource could not be
+   * decoded.
+   */
+  protected <R extends AbstractResource> Supplier<Set<R>> readDeferred(Resource node, Class<R> type) {
+    return () -> {
+      AbstractResource decoded = decodedResources.get(node);
+      if (!type.isInstance(decoded)) {
+        throw new InvalidResourceProfileException("The referenced resource could not be decoded: " + node);
+      }
+      return Collections.singleton(type.cast(decoded));
+    };
+  }
+
+  protected AbstractResource readResource(AbstractResource.AbstractBuilder<?, ?> builder, Resource node) {
+    if (node.isIRI()) {
+      builder.setIRI(SimpleValueFactory.getInstance().createIRI(node.stringValue()));
+    }
+
+    Set<IRI> semanticTypes = getIndex().objectIRIs(node, RDF.TYPE);
+    for (IRI type : semanticTypes) {
+      if (!builder.TYPE.toString().equals(type.stringValue())) {
+        builder.addSemanticType(type.stringValue());
+      }
+    }
+
+    List<Statement> statements = getIndex().statements(node);
+    List<Statement> triples = new ArrayList<>(statements.size());
+    for (Statement statement : statements) {
+      // Add the statement to filteredModel only if the object is not a BNode
+      if (!(statement.getObject() instanceof BNode)) {
+        triples.add(statement);
+      }
+    }
+    /* The triples are added in one batch, such that the graph of the resource is sized and filled once */
+    if (node.isBNode()) {
+      builder.addBNodeTriples(triples);
+    } else {
+      builder.addTriples(triples);
+    }
+
+    return builder.build();
+  }
+
+}
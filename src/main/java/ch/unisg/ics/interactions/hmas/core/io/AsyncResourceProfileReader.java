@@ -0,0 +1,189 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Reads resource profiles from URLs without blocking the calling thread. Requests are executed
+ * by the asynchronous Apache HTTP client on a small number of I/O threads, and the number of
+ * concurrent requests is bounded in total and per host: requests beyond these limits are queued
+ * without occupying a thread. Response bodies are parsed on a separate executor, so that parsing
+ * does not stall the I/O threads.
+ * <p>
+ * A reader owns a connection pool and has to be closed when it is no longer used.
+ */
+public class AsyncResourceProfileReader implements Closeable {
+
+  private final CloseableHttpAsyncClient client;
+  private final Executor executor;
+
+  protected AsyncResourceProfileReader(Builder builder) {
+    ConnectionConfig connectionConfig = ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(builder.connectTimeout))
+            .build();
+
+    RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(builder.queueTimeout))
+            .setResponseTimeout(Timeout.of(builder.responseTimeout))
+            .build();
+
+    this.client = HttpAsyncClients.custom()
+            .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(builder.maxConcurrentRequests)
+                    .setMaxConnPerRoute(builder.maxConcurrentRequestsPerHost)
+                    .setDefaultConnectionConfig(connectionConfig)
+                    .build())
+            .setDefaultRequestConfig(requestConfig)
+            .build();
+    this.executor = builder.executor;
+    this.client.start();
+  }
+
+  /**
+   * Reads the resource profile that is available at a URL. The returned future completes
+   * exceptionally with an {@link HttpResponseException} if the server does not return the
+   * profile, and with an {@link InvalidResourceProfileException} or a parse exception if the
+   * representation is not a valid resource profile.
+   *
+   * @param url the URL of the resource profile
+   * @return a future that completes with the resource profile
+   */
+  public CompletableFuture<BaseResourceProfile> readFromURL(String url) {
+    CompletableFuture<BaseResourceProfile> result = new CompletableFuture<>();
+    SimpleHttpRequest request = SimpleRequestBuilder.get(url)
+            .setHeader(HttpHeaders.ACCEPT, ReadWriteUtils.getAcceptHeader())
+            .build();
+
+    client.execute(SimpleRequestProducer.create(request), SimpleResponseConsumer.create(),
+            new FutureCallback<SimpleHttpResponse>() {
+              @Override
+              public void completed(SimpleHttpResponse response) {
+                if (response.getCode() >= 300) {
+                  result.completeExceptionally(new HttpResponseException(response.getCode(),
+                          response.getReasonPhrase()));
+                  return;
+                }
+                try {
+                  executor.execute(() -> parse(url, response, result));
+                } catch (RuntimeException e) {
+                  result.completeExceptionally(e);
+                }
+              }
+
+              @Override
+              public void failed(Exception ex) {
+                result.completeExceptionally(ex);
+              }
+
+              @Override
+              public void cancelled() {
+                result.cancel(false);
+              }
+            });
+
+    return result;
+  }
+
+  private static void parse(String url, SimpleHttpResponse response, CompletableFuture<BaseResourceProfile> result) {
+    byte[] body = response.getBodyBytes();
+    Header contentType = response.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+    try {
+      result.complete(BaseResourceProfileGraphReader.readFrom(
+              new ByteArrayInputStream(body == null ? new byte[0] : body),
+              ReadWriteUtils.getFormatForContentType(contentType == null ? null : contentType.getValue()), url));
+    } catch (Exception e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Closes the reader. Requests that are still in progress are completed before the connection
+   * pool is shut down.
+   */
+  @Override
+  public void close() {
+    client.close(CloseMode.GRACEFUL);
+  }
+
+  public static class Builder {
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    private Duration responseTimeout = Duration.ofSeconds(30);
+    private Duration queueTimeout = Duration.ofMinutes(3);
+    private int maxConcurrentRequests = 64;
+    private int maxConcurrentRequestsPerHost = 16;
+    private Executor executor = ForkJoinPool.commonPool();
+
+    public Builder setConnectTimeout(Duration connectTimeout) {
+      this.connectTimeout = connectTimeout;
+      return this;
+    }
+
+    /**
+     * Sets the maximum period of inactivity while waiting for a response.
+     */
+    public Builder setResponseTimeout(Duration responseTimeout) {
+      this.responseTimeout = responseTimeout;
+      return this;
+    }
+
+    /**
+     * Sets the maximum time that a request waits for a connection when the concurrency limits
+     * have been reached.
+     */
+    public Builder setQueueTimeout(Duration queueTimeout) {
+      this.queueTimeout = queueTimeout;
+      return this;
+    }
+
+    public Builder setMaxConcurrentRequests(int maxConcurrentRequests) {
+      if (maxConcurrentRequests < 1) {
+        throw new IllegalArgumentException("The maximum number of concurrent requests must be positive");
+      }
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
+    public Builder setMaxConcurrentRequestsPerHost(int maxConcurrentRequestsPerHost) {
+      if (maxConcurrentRequestsPerHost < 1) {
+        throw new IllegalArgumentException("The maximum number of concurrent requests must be positive");
+      }
+      this.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost;
+      return this;
+    }
+
+    /**
+     * Sets the executor that parses the retrieved representations, e.g. a fork-join pool or an
+     * executor that starts a virtual thread per task. By default, the common fork-join pool is used.
+     */
+    public Builder setExecutor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    public AsyncResourceProfileReader build() {
+      return new AsyncResourceProfileReader(this);
+    }
+  }
+}
@@ -1,7 +1,13 @@
 package ch.unisg.ics.interactions.hmas.core.io;
 
 import ch.unisg.ics.interactions.hmas.core.hostables.*;
+import no.hasmac.jsonld.JsonLdError;
+import no.hasmac.jsonld.document.Document;
+import no.hasmac.jsonld.document.JsonDocument;
 import org.apache.hc.client5.http.fluent.Request;
+import org.apache.hc.client5.http.impl.classic.AbstractHttpClientResponseHandler;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
@@ -11,56 +17,371 @@ import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.util.Models;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
 import org.eclipse.rdf4j.rio.RDFParser;
 import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
-import java.nio.file.Files;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.*;
 
 public class BaseResourceProfileGraphReader extends AbstractGraphReader {
 
+  /*
+   * Parsers are not thread-safe, but can be reused for consecutive parses on the same thread. The
+   * handler of a parser is reset after each parse, such that a parser does not retain the last model.
+   */
+  private static final ThreadLocal<Map<RDFFormat, RDFParser>> PARSERS = ThreadLocal.withInitial(HashMap::new);
+
   protected final Resource profileIRI;
   private final ValueFactory rdf = SimpleValueFactory.getInstance();
+  private boolean lazy = false;
+  /* The deferred references of a profile read in lazy mode that have not been resolved yet */
+  private int unresolvedReferences = 0;
 
   protected BaseResourceProfileGraphReader(RDFFormat format, String representation) {
-
     loadModel(format, representation);
+    this.profileIRI = locateProfile();
+  }
 
-    Optional<Resource> locatedProfile = Models.subject(model.filter(null, RDF.TYPE, RESOURCE_PROFILE));
-    if (locatedProfile.isPresent()) {
-      this.profileIRI = locatedProfile.get();
-    } else {
-      throw new InvalidResourceProfileException("Resource profile was not found. " +
-              "Ensure that an " + NAMESPACE + "ResourceProfile is represented.");
-    }
+  protected BaseResourceProfileGraphReader(Model model) {
+    this.model = model;
+    this.profileIRI = locateProfile();
   }
 
-  public static BaseResourceProfile readFromURL(String url) throws IOException {
-    String representation = Request.get(url).execute().returnContent().asString();
-    return readFromString(representation);
+  protected BaseResourceProfileGraphReader(RDFFormat format, InputStream representation, String baseURI)
+          throws IOException {
+    this(format, representation, baseURI, JsonLdContextCache.getDefault());
   }
 
+  protected BaseResourceProfileGraphReader(RDFFormat format, InputStream representation, String baseURI,
+                                           JsonLdContextCache contexts) throws IOException {
+    loadModel(format, representation, baseURI, contexts);
+    this.profileIRI = locateProfile();
+  }
+
+  /**
+   * Reads the resource profile that is available at a URL. The request accepts all supported
+   * formats (see {@link #readFrom(InputStream, RDFFormat)}), and the representation is parsed
+   * in the format indicated by the <code>Content-Type</code> of the response.
+   *
+   * @param url the URL of the resource profile
+   * @return the resource profile
+   * @throws IOException if the profile cannot be retrieved
+   */
+  public static BaseResourceProfile readFromURL(String url) throws IOException {
+    return Request.get(url)
+            .setHeader(HttpHeaders.ACCEPT, ReadWriteUtils.getAcceptHeader())
+            .execute()
+            .handleResponse(new AbstractHttpClientResponseHandler<BaseResourceProfile>() {
+              @Override
+              public BaseResourceProfile handleEntity(HttpEntity entity) throws IOException {
+                try (InputStream content = entity.getContent()) {
+                  return readFrom(content, ReadWriteUtils.getFormatForContentType(entity.getContentType()), url);
+                }
+              }
+            });
+  }
 
   public static BaseResourceProfile readFromFile(String path) throws IOException {
-    String content = new String(Files.readAllBytes(Paths.get(path)));
-    return readFromString(content);
+    return readFrom(Paths.get(path));
+  }
+
+  /**
+   * Reads a resource profile from a file. The file is read through a {@link FileChannel}
+   * and its bytes are fed directly to the RDF parser, without building an intermediate
+   * <code>String</code>. The format is determined by the file extension (e.g. <code>.nt</code>
+   * for N-Triples), and defaults to Turtle.
+   *
+   * @param path the path of the file that contains the representation
+   * @return the resource profile
+   * @throws IOException if the file cannot be read
+   */
+  public static BaseResourceProfile readFrom(Path path) throws IOException {
+    RDFFormat format = Rio.getParserFormatForFileName(path.toString())
+            .filter(ReadWriteUtils.SUPPORTED_FORMATS::contains)
+            .orElse(RDFFormat.TURTLE);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return readFrom(Channels.newInputStream(channel), format);
+    }
   }
 
-  /* Currently, the only supported format is Turtle */
+  /**
+   * Reads a resource profile from a byte channel. The channel is not closed by this method.
+   *
+   * @param channel the channel that provides the representation
+   * @return the resource profile
+   * @throws IOException if the channel cannot be read
+   */
+  public static BaseResourceProfile readFrom(ReadableByteChannel channel) throws IOException {
+    return readFrom(Channels.newInputStream(channel));
+  }
+
+  /**
+   * Reads a resource profile from a byte stream. The stream is expected to be UTF-8 encoded,
+   * as required for Turtle, and is not closed by this method.
+   *
+   * @param representation the stream that provides the representation
+   * @return the resource profile
+   * @throws IOException if the stream cannot be read
+   */
+  public static BaseResourceProfile readFrom(InputStream representation) throws IOException {
+    return readFrom(representation, RDFFormat.TURTLE);
+  }
+
+  /**
+   * Reads a resource profile from a byte stream in the given format. Supported formats are
+   * Turtle, N-Triples, N-Quads, JSON-LD and RDF4J Binary RDF. The stream is not closed by this
+   * method.
+   *
+   * @param representation the stream that provides the representation
+   * @param format         the format of the representation
+   * @return the resource profile
+   * @throws IOException if the stream cannot be read
+   */
+  public static BaseResourceProfile readFrom(InputStream representation, RDFFormat format) throws IOException {
+    return readFrom(representation, format, null);
+  }
+
+  static BaseResourceProfile readFrom(InputStream representation, RDFFormat format, String baseURI)
+          throws IOException {
+    return readProfile(new BaseResourceProfileGraphReader(format, representation, baseURI));
+  }
+
+  /**
+   * Reads a resource profile from a byte stream in JSON-LD. The contexts that are referenced by
+   * the representation are loaded through the given cache, e.g. an offline cache with preloaded
+   * contexts. The stream is not closed by this method.
+   *
+   * @param representation the stream that provides the representation
+   * @param contexts       the cache of JSON-LD context documents
+   * @return the resource profile
+   * @throws IOException if the stream cannot be read
+   */
+  public static BaseResourceProfile readFrom(InputStream representation, JsonLdContextCache contexts)
+          throws IOException {
+    return readProfile(new BaseResourceProfileGraphReader(RDFFormat.JSONLD, representation, null, contexts));
+  }
+
+  /**
+   * Reads a resource profile from a model that has already been parsed or assembled, e.g. a
+   * model to which a {@link ResourceProfileDelta} has been applied.
+   *
+   * @param model the statements of the resource profile
+   * @return the resource profile
+   */
+  public static BaseResourceProfile readFrom(Model model) {
+    return readProfile(new BaseResourceProfileGraphReader(model));
+  }
+
+  /* Representations given as strings are read as Turtle */
   public static BaseResourceProfile readFromString(String representation) {
-    BaseResourceProfileGraphReader reader = new BaseResourceProfileGraphReader(RDFFormat.TURTLE, representation);
+    return readFromString(representation, RDFFormat.TURTLE);
+  }
+
+  /**
+   * Reads a resource profile from a representation in the given text format (see
+   * {@link #readFrom(InputStream, RDFFormat)}).
+   *
+   * @param representation the representation of the resource profile
+   * @param format         the format of the representation
+   * @return the resource profile
+   */
+  public static BaseResourceProfile readFromString(String representation, RDFFormat format) {
+    if (!format.hasCharset()) {
+      throw new IllegalArgumentException("Binary formats cannot be read from a string: " + format.getName());
+    }
+    return readProfile(new BaseResourceProfileGraphReader(format, representation));
+  }
+
+  /**
+   * Reads a resource profile in lazy mode. Only the profile itself is decoded right away: the
+   * profiled resource and the platforms of the profile are decoded on the first call to
+   * {@link BaseResourceProfile#getResource()} and {@link BaseResourceProfile#getHMASPlatforms()},
+   * and the same applies to the members of every decoded resource (e.g.
+   * {@link Workspace#getContainedResources()}). Decoding on access is thread-safe.
+   * <p>
+   * The graph of the profile is the parsed model itself, and is not copied. The profile retains the
+   * index of the model and the decoded resources only until all deferred references are resolved.
+   *
+   * @param representation the representation of the resource profile
+   * @return the resource profile
+   */
+  public static BaseResourceProfile readLazilyFromString(String representation) {
+    return readProfileLazily(new BaseResourceProfileGraphReader(RDFFormat.TURTLE, representation));
+  }
+
+  /**
+   * Reads a resource profile in lazy mode from a byte stream (see {@link #readLazilyFromString(String)}).
+   * The stream is parsed right away and is not closed by this method.
+   *
+   * @param representation the stream that provides the representation
+   * @return the resource profile
+   * @throws IOException if the stream cannot be read
+   */
+  public static BaseResourceProfile readLazilyFrom(InputStream representation) throws IOException {
+    return readLazilyFrom(representation, RDFFormat.TURTLE);
+  }
+
+  /**
+   * Reads a resource profile in lazy mode from a byte stream in the given format (see
+   * {@link #readLazilyFromString(String)} and {@link #readFrom(InputStream, RDFFormat)}).
+   *
+   * @param representation the stream that provides the representation
+   * @param format         the format of the representation
+   * @return the resource profile
+   * @throws IOException if the stream cannot be read
+   */
+  public static BaseResourceProfile readLazilyFrom(InputStream representation, RDFFormat format)
+          throws IOException {
+    return readProfileLazily(new BaseResourceProfileGraphReader(format, representation, null));
+  }
+
+  /**
+   * Reads a batch of resource profiles from files, in parallel on the common fork-join pool.
+   *
+   * @param paths the paths of the files that contain the representations
+   * @return the profiles and the failures of the batch, keyed by path
+   */
+  public static BatchReadResult<Path> readAll(Collection<Path> paths) {
+    return readAll(paths, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads a batch of resource profiles from files, in parallel on the given executor (e.g. a
+   * fork-join pool, or an executor that starts a virtual thread per task). A profile that cannot
+   * be read is recorded as a failure of the batch, and does not affect the other profiles.
+   *
+   * @param paths    the paths of the files that contain the representations
+   * @param executor the executor that reads the profiles
+   * @return the profiles and the failures of the batch, keyed by path
+   */
+  public static BatchReadResult<Path> readAll(Collection<Path> paths, Executor executor) {
+    Map<Path, Path> inputs = new LinkedHashMap<>();
+    paths.forEach(path -> inputs.put(path, path));
+    return readAll(inputs, BaseResourceProfileGraphReader::readFrom, executor);
+  }
+
+  /**
+   * Reads a batch of resource profiles from their representations, in parallel on the common
+   * fork-join pool.
+   *
+   * @param representations the representations of the resource profiles
+   * @return the profiles and the failures of the batch, keyed by position in the stream
+   */
+  public static BatchReadResult<Integer> readAll(Stream<String> representations) {
+    return readAll(representations, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads a batch of resource profiles from their representations, in parallel on the given
+   * executor (see {@link #readAll(Collection, Executor)}). Each representation is dispatched as
+   * soon as it is drawn from the stream, and is not retained once its profile has been read. The
+   * number of reads in flight is bounded by the parallelism of the executor: the next
+   * representation is drawn once a read completes.
+   *
+   * @param representations the representations of the resource profiles
+   * @param executor        the executor that reads the profiles
+   * @return the profiles and the failures of the batch, keyed by position in the stream
+   */
+  public static BatchReadResult<Integer> readAll(Stream<String> representations, Executor executor) {
+    Map<Integer, CompletableFuture<BaseResourceProfile>> pending = new LinkedHashMap<>();
+    Semaphore reads = new Semaphore(getParallelism(executor));
+    representations.forEachOrdered(representation -> {
+      reads.acquireUninterruptibly();
+      pending.put(pending.size(), read(representation, BaseResourceProfileGraphReader::readFromString, executor)
+              .whenComplete((profile, failure) -> reads.release()));
+    });
+    return join(pending);
+  }
+
+  /* The number of reads that the executor runs at once, or the number of processors if it is unbounded or unknown */
+  private static int getParallelism(Executor executor) {
+    if (executor instanceof ForkJoinPool) {
+      return ((ForkJoinPool) executor).getParallelism();
+    }
+    int threads = executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getMaximumPoolSize() : 0;
+    if (threads > 0 && threads < Integer.MAX_VALUE) {
+      return threads;
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  private static <K, V> BatchReadResult<K> readAll(Map<K, V> inputs, ProfileSource<V> source, Executor executor) {
+    Map<K, CompletableFuture<BaseResourceProfile>> pending = new LinkedHashMap<>();
+    inputs.forEach((key, input) -> pending.put(key, read(input, source, executor)));
+    return join(pending);
+  }
+
+  private static <V> CompletableFuture<BaseResourceProfile> read(V input, ProfileSource<V> source, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return source.read(input);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  private static <K> BatchReadResult<K> join(Map<K, CompletableFuture<BaseResourceProfile>> pending) {
+    Map<K, BaseResourceProfile> profiles = new LinkedHashMap<>();
+    Map<K, Exception> failures = new LinkedHashMap<>();
+    pending.forEach((key, future) -> {
+      try {
+        profiles.put(key, future.join());
+      } catch (CompletionException e) {
+        if (!(e.getCause() instanceof Exception)) {
+          throw e;
+        }
+        failures.put(key, (Exception) e.getCause());
+      }
+    });
+    return new BatchReadResult<>(profiles, failures);
+  }
+
+  static BaseResourceProfile readProfileLazily(BaseResourceProfileGraphReader reader) {
+    synchronized (reader) {
+      reader.lazy = true;
+
+      BaseResourceProfile.Builder profileBuilder =
+              new BaseResourceProfile.Builder(reader.defer(reader::readOwnerResource))
+                      .addDeferredHMASPlatforms(reader.defer(reader::readHomeHMASPlatforms))
+                      .addDeferredExposedSignifiers(reader.defer(reader::readExposedSignifiers))
+                      .addSemanticTypes(reader.readSemanticTypes())
+                      .addGraph(reader.getModel());
+
+      Optional<IRI> profileIRI = reader.readProfileIRI();
+      profileIRI.ifPresent(profileBuilder::setIRI);
+
+      return profileBuilder.build();
+    }
+  }
 
+  private static BaseResourceProfile readProfile(BaseResourceProfileGraphReader reader) {
     BaseResourceProfile.Builder profileBuilder =
             new BaseResourceProfile.Builder(reader.readOwnerResource())
                     .addHMASPlatforms(reader.readHomeHMASPlatforms())
+                    .addExposedSignifiers(reader.readExposedSignifiers())
                     .addSemanticTypes(reader.readSemanticTypes())
                     .addGraph(reader.getModel());
 
@@ -70,16 +391,62 @@ public class BaseResourceProfileGraphReader extends AbstractGraphReader {
     return profileBuilder.build();
   }
 
+  private Resource locateProfile() {
+    Optional<Resource> locatedProfile = Models.subject(model.filter(null, RDF.TYPE, RESOURCE_PROFILE));
+    if (locatedProfile.isPresent()) {
+      return locatedProfile.get();
+    }
+    throw new InvalidResourceProfileException("Resource profile was not found. " +
+            "Ensure that an " + NAMESPACE + "ResourceProfile is represented.");
+  }
+
+  private static RDFParser getParser(RDFFormat format) {
+    return PARSERS.get().computeIfAbsent(format, Rio::createParser);
+  }
+
   private void loadModel(RDFFormat format, String representation) {
+    if (RDFFormat.JSONLD.equals(format)) {
+      this.model = readJsonLd(() -> JsonDocument.of(new StringReader(representation)), null,
+              JsonLdContextCache.getDefault());
+      return;
+    }
     this.model = new LinkedHashModel();
 
-    RDFParser parser = Rio.createParser(format);
+    RDFParser parser = getParser(format);
     parser.setRDFHandler(new StatementCollector(model));
     StringReader stringReader = new StringReader(representation);
     try {
       parser.parse(stringReader);
     } catch (IOException ex) {
       ex.printStackTrace();
+    } finally {
+      parser.setRDFHandler(null);
+    }
+  }
+
+  private void loadModel(RDFFormat format, InputStream representation, String baseURI,
+                         JsonLdContextCache contexts) throws IOException {
+    if (RDFFormat.JSONLD.equals(format)) {
+      this.model = readJsonLd(() -> JsonDocument.of(representation), baseURI, contexts);
+      return;
+    }
+    this.model = new LinkedHashModel();
+
+    RDFParser parser = getParser(format);
+    parser.setRDFHandler(new StatementCollector(model));
+    try {
+      parser.parse(representation, baseURI);
+    } finally {
+      parser.setRDFHandler(null);
+    }
+  }
+
+  /* JSON-LD is read with the context cache, such that remote contexts are not retrieved for every profile */
+  private static Model readJsonLd(JsonDocumentSource source, String baseURI, JsonLdContextCache contexts) {
+    try {
+      return JsonLdUtils.readModel(source.get(), baseURI, contexts);
+    } catch (JsonLdError e) {
+      throw new RDFParseException(e.getMessage(), e);
     }
   }
 
@@ -88,8 +455,12 @@ public class BaseResourceProfileGraphReader extends AbstractGraphReader {
   }
 
   protected AbstractResource readResource(Resource node) {
+    Optional<AbstractResource> decoded = getDecodedResource(node);
+    if (decoded.isPresent()) {
+      return decoded.get();
+    }
 
-    Set<IRI> types = Models.objectIRIs(model.filter(node, RDF.TYPE, null));
+    Set<IRI> types = getIndex().objectIRIs(node, RDF.TYPE);
 
     if (types.contains(AGENT)) {
       return readAgent(node);
@@ -99,37 +470,43 @@ public class BaseResourceProfileGraphReader extends AbstractGraphReader {
       return readWorkspace(node);
     } else if (types.contains(HMAS_PLATFORM)) {
       return readHMASPlatform(node);
+    } else if (types.contains(SIGNIFIER)) {
+      return readSignifier(node);
     }
     throw new InvalidResourceProfileException("Unknown type of profiled resource. " +
-            "Supported resource types: Agent, Artifact, Workspace, Platform.");
+            "Supported resource types: Agent, Artifact, Workspace, Platform, Signifier.");
   }
 
   protected Agent readAgent(Resource node) {
-    Agent.Builder builder = new Agent.Builder();
-    return (Agent) readHostable(builder, node);
+    return readOnce(node, Agent.class, n -> (Agent) readHostable(new Agent.Builder(), n));
   }
 
   protected Artifact readArtifact(Resource node) {
-    Artifact.Builder builder = new Artifact.Builder();
-    return (Artifact) readHostable(builder, node);
+    return readOnce(node, Artifact.class, n -> (Artifact) readHostable(new Artifact.Builder(), n));
+  }
+
+  protected BaseSignifier readSignifier(Resource node) {
+    return readOnce(node, BaseSignifier.class, n -> (BaseSignifier) readHostable(new BaseSignifier.Builder(), n));
   }
 
   private Workspace readWorkspace(Resource node) {
-    Workspace.Builder builder = new Workspace.Builder();
-    Set<Resource> containedNodes = Models.objectResources(model.filter(node, CONTAINS, null));
-    for (Resource hostedNode : containedNodes) {
-      builder.addContainedResource((AbstractHostable) readResource(hostedNode));
-    }
-    return (Workspace) readArtifact(builder, node);
+    return readOnce(node, Workspace.class, n -> {
+      Workspace.Builder builder = new Workspace.Builder();
+      Set<Resource> containedNodes = getIndex().objectResources(n, CONTAINS);
+      readMembers(containedNodes, AbstractHostable.class, member -> (AbstractHostable) readResource(member),
+              builder::addContainedResource, builder::addDeferredContainedResources);
+      return (Workspace) readArtifact(builder, n);
+    });
   }
 
   private HypermediaMASPlatform readHMASPlatform(Resource node) {
-    HypermediaMASPlatform.Builder builder = new HypermediaMASPlatform.Builder();
-    Set<Resource> hostedNodes = Models.objectResources(model.filter(node, HOSTS, null));
-    for (Resource hostedNode : hostedNodes) {
-      builder.addHostedResource((AbstractHostable) readResource(hostedNode));
-    }
-    return (HypermediaMASPlatform) readResource(builder, node);
+    return readOnce(node, HypermediaMASPlatform.class, n -> {
+      HypermediaMASPlatform.Builder builder = new HypermediaMASPlatform.Builder();
+      Set<Resource> hostedNodes = getIndex().objectResources(n, HOSTS);
+      readMembers(hostedNodes, AbstractHostable.class, member -> (AbstractHostable) readResource(member),
+              builder::addHostedResource, builder::addDeferredHostedResources);
+      return (HypermediaMASPlatform) readResource(builder, n);
+    });
   }
 
   private Artifact readArtifact(Artifact.AbstractBuilder<?, ?> builder, Resource node) {
@@ -138,16 +515,77 @@ public class BaseResourceProfileGraphReader extends AbstractGraphReader {
 
   protected AbstractHostable readHostable(AbstractHostable.AbstractBuilder<?, ?> builder, Resource node) {
 
-    Set<Resource> platformNodes = Models.objectResources(model.filter(node, IS_HOSTED_ON, null));
-    for (Resource platformNode : platformNodes) {
-      builder.addHMASPlatform(readHMASPlatform(platformNode));
-    }
+    Set<Resource> platformNodes = getIndex().objectResources(node, IS_HOSTED_ON);
+    readMembers(platformNodes, HypermediaMASPlatform.class, this::readHMASPlatform,
+            builder::addHMASPlatform, builder::addDeferredHMASPlatforms);
 
     return (AbstractHostable) readResource(builder, node);
   }
 
+  /**
+   * Decodes the members of a relation and adds them to a builder. References to nodes that are
+   * still being decoded are added as deferred references. In lazy mode, all members are added as a
+   * single deferred reference, and are decoded on first access to the relation.
+   */
+  private <R extends AbstractResource> void readMembers(Set<Resource> nodes, Class<R> type,
+                                                        Function<Resource, R> decoder,
+                                                        Consumer<R> addMember,
+                                                        Consumer<Supplier<Set<R>>> addDeferredMembers) {
+    if (nodes.isEmpty()) {
+      return;
+    }
+
+    if (lazy) {
+      addDeferredMembers.accept(defer(() -> {
+        Set<R> members = new HashSet<>();
+        for (Resource node : nodes) {
+          members.add(decoder.apply(node));
+        }
+        return members;
+      }));
+      return;
+    }
+
+    for (Resource node : nodes) {
+      if (isDecoding(node)) {
+        addDeferredMembers.accept(readDeferred(node, type));
+      } else {
+        addMember.accept(decoder.apply(node));
+      }
+    }
+  }
+
+  /*
+   * Returns a deferred reference that decodes on first access, under the lock of this reader. The
+   * index and the decoded resources are released once the last deferred reference is resolved.
+   */
+  private <T> Supplier<T> defer(Supplier<T> decoder) {
+    unresolvedReferences++;
+    return new Supplier<T>() {
+      private boolean resolved = false;
+
+      @Override
+      public T get() {
+        synchronized (BaseResourceProfileGraphReader.this) {
+          T decoded = decoder.get();
+          if (!resolved) {
+            resolved = true;
+            if (--unresolvedReferences == 0) {
+              release();
+            }
+          }
+          return decoded;
+        }
+      }
+    };
+  }
+
+  synchronized int getUnresolvedReferences() {
+    return unresolvedReferences;
+  }
+
   protected ProfiledResource readOwnerResource() {
-    Optional<Resource> node = Models.objectResource(model.filter(profileIRI, IS_PROFILE_OF, null));
+    Optional<Resource> node = getIndex().objectResource(profileIRI, IS_PROFILE_OF);
     if (node.isPresent()) {
       return (ProfiledResource) readResource(node.get());
     }
@@ -156,16 +594,25 @@ public class BaseResourceProfileGraphReader extends AbstractGraphReader {
 
   protected final Set<HypermediaMASPlatform> readHomeHMASPlatforms() {
     Set<HypermediaMASPlatform> platforms = new HashSet<>();
-    Set<Resource> platformNodes = Models.objectResources(model.filter(profileIRI, IS_HOSTED_ON, null));
+    Set<Resource> platformNodes = getIndex().objectResources(profileIRI, IS_HOSTED_ON);
     for (Resource platformNode : platformNodes) {
       platforms.add(readHMASPlatform(platformNode));
     }
     return platforms;
   }
 
+  protected final Set<BaseSignifier> readExposedSignifiers() {
+    Set<BaseSignifier> signifiers = new HashSet<>();
+    Set<Resource> signifierNodes = getIndex().objectResources(profileIRI, EXPOSES_SIGNIFIER);
+    for (Resource signifierNode : signifierNodes) {
+      signifiers.add(readSignifier(signifierNode));
+    }
+    return signifiers;
+  }
+
   protected final Set<String> readSemanticTypes() {
     Set<String> semanticTypes = new HashSet<>();
-    Set<IRI> semanticTypeIRIs = Models.objectIRIs(model.filter(profileIRI, RDF.TYPE, null));
+    Set<IRI> semanticTypeIRIs = getIndex().objectIRIs(profileIRI, RDF.TYPE);
     for (IRI type : semanticTypeIRIs) {
       semanticTypes.add(type.stringValue());
     }
@@ -180,4 +627,14 @@ public class BaseResourceProfileGraphReader extends AbstractGraphReader {
 
     return Optional.empty();
   }
+
+  @FunctionalInterface
+  private interface ProfileSource<V> {
+    BaseResourceProfile read(V input) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface JsonDocumentSource {
+    Document get() throws JsonLdError;
+  }
 }
@@ -1,16 +1,29 @@
 package ch.unisg.ics.interactions.hmas.core.io;
 
 import ch.unisg.ics.interactions.hmas.core.hostables.*;
+import ch.unisg.ics.interactions.hmas.core.utils.CanonicalForm;
+import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleNamespace;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.util.ModelBuilder;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.WriterConfig;
+import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
 
-import java.util.Optional;
-import java.util.Set;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.*;
 
 import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.*;
 
@@ -21,6 +34,46 @@ public class BaseResourceProfileGraphWriter<T extends BaseResourceProfile> imple
   protected final ModelBuilder graphBuilder;
   protected final ValueFactory rdf = SimpleValueFactory.getInstance();
 
+  private boolean prettyPrint = true;
+  private boolean canonical = false;
+
+  /*
+   * Resources are written once per traversal, unless they are reached again closer to the profiled
+   * resource, and blank nodes are minted once per resource. The depth at which each resource was
+   * written is kept, such that the output does not depend on the order of the traversal. The
+   * traversal state is reset by each write (see resetTraversal()).
+   */
+  private final Map<AbstractResource, Integer> writtenResources = new IdentityHashMap<>();
+  private final Map<AbstractResource, Resource> blankNodes = new IdentityHashMap<>();
+  /* The resources that were written as links, whose type has been written */
+  private final Set<AbstractResource> linkedResources = Collections.newSetFromMap(new IdentityHashMap<>());
+  /* The node of the resource that is written again, whose own statements have already been written */
+  private Resource rewrittenNode;
+  /* Whether the resource profile has been added to the graph builder, which then holds it */
+  private boolean profileAdded = false;
+
+  /* The distance from the profiled resource of the resource that is being written */
+  private int depth = 0;
+  private int expansionDepth = Integer.MAX_VALUE;
+  private final Map<IRI, Integer> relationExpansionDepths = new HashMap<>();
+
+  /*
+   * While streaming, statements are handled by the RDF writer instead of the graph builder. The
+   * graphs of the profile and of the resource that is being written are looked up rather than
+   * copied, such that statements that are both emitted and included in these graphs (e.g. of a
+   * profile that was read) are written once, with the graph.
+   */
+  private RDFWriter rdfWriter;
+  private final Set<String> streamedPrefixes = new HashSet<>();
+  private Model profileGraph;
+  private AbstractResource graphResource;
+  private Model resourceGraph;
+
+  private String jsonLdContextURL = null;
+  private JsonLdContextCache jsonLdContexts = JsonLdContextCache.getDefault();
+
+  private ContainmentIndex containmentIndex;
+
 
   public BaseResourceProfileGraphWriter(final T profile) {
     this.profileIRI = resolveHostableLocation(profile);
@@ -30,40 +83,309 @@ public class BaseResourceProfileGraphWriter<T extends BaseResourceProfile> imple
 
   @Override
   public String write(RDFFormat format) {
-    return ReadWriteUtils.writeToString(format, getModel());
+    resetTraversal();
+    try {
+      if (format.hasCharset() && (RDFFormat.JSONLD.equals(format) || canonical)) {
+        StringWriter out = new StringWriter();
+        writeBuffered(getModel(), out, format);
+        return out.toString();
+      }
+      return ReadWriteUtils.writeToString(format, getModel());
+    } finally {
+      resetTraversal();
+    }
   }
 
   @Override
   public String write() {
+    resetTraversal();
+    try {
+      return this.addResourceProfile()
+              .write(RDFFormat.TURTLE);
+    } finally {
+      resetTraversal();
+    }
+  }
 
-    return this.setNamespace(PREFIX, NAMESPACE)
-            .addProfileIRI()
-            .addSemanticTypes()
-            .addOwnerResource()
-            .addHomeHMASPlatforms()
-            .addGraph()
-            .write(RDFFormat.TURTLE);
+  /**
+   * Writes the resource profile to a byte stream. Unless pretty printing is enabled and the
+   * format is Turtle, statements are passed to the RDF writer as the profile is traversed, without
+   * building an intermediate model. Statements that are both generated from the resources and
+   * included in the graph of the profile or of their resource (e.g. of a profile that was read)
+   * are written once. JSON-LD representations are compacted against the JSON-LD
+   * context of the writer (see {@link #setJsonLdContext(String, JsonLdContextCache)}), and are not
+   * streamed. The stream is not closed by this method.
+   *
+   * @param out    the stream to write to
+   * @param format the format of the representation
+   */
+  public void write(OutputStream out, RDFFormat format) {
+    resetTraversal();
+    try {
+      if (RDFFormat.JSONLD.equals(format)) {
+        Model model = addResourceProfile().getModel();
+        JsonLdUtils.writeModel(canonical ? canonicalize(model) : model, jsonLdContextURL, jsonLdContexts, out);
+      } else if (canonical) {
+        writeCanonical(addResourceProfile().getModel(), Rio.createWriter(format, out));
+      } else if (isPrettyPrinted(format)) {
+        Rio.write(addResourceProfile().getModel(), out, format, getPrettyPrintConfig());
+      } else {
+        stream(Rio.createWriter(format, out));
+      }
+    } finally {
+      resetTraversal();
+    }
+  }
+
+  /**
+   * Writes the resource profile to a character stream (see {@link #write(OutputStream, RDFFormat)}).
+   * The stream is not closed by this method.
+   *
+   * @param out    the stream to write to
+   * @param format the format of the representation, which must be a text format
+   */
+  public void write(Writer out, RDFFormat format) {
+    resetTraversal();
+    try {
+      if (format.hasCharset() && (RDFFormat.JSONLD.equals(format) || canonical)) {
+        writeBuffered(addResourceProfile().getModel(), out, format);
+      } else if (isPrettyPrinted(format)) {
+        Rio.write(addResourceProfile().getModel(), out, format, getPrettyPrintConfig());
+      } else {
+        stream(Rio.createWriter(format, out));
+      }
+    } finally {
+      resetTraversal();
+    }
+  }
+
+  /**
+   * Sets whether Turtle representations written to streams are pretty printed, e.g. with inlined
+   * blank nodes. Pretty printing requires the complete profile to be buffered in a model, and is
+   * enabled by default. Other formats are always streamed.
+   */
+  public BaseResourceProfileGraphWriter<T> setPrettyPrint(boolean prettyPrint) {
+    this.prettyPrint = prettyPrint;
+    return this;
+  }
+
+  /**
+   * Sets the maximum distance from the profiled resource up to which referenced resources are
+   * written in full. Referenced resources beyond this distance are written as links, i.e. only with
+   * their IRI and their type, unless they are identified by a blank node. For instance, a depth of
+   * <code>0</code> only writes the profiled resource (and the profile) in full. By default, all
+   * referenced resources are written in full.
+   */
+  public BaseResourceProfileGraphWriter<T> setExpansionDepth(int depth) {
+    if (depth < 0) {
+      throw new IllegalArgumentException("The expansion depth must not be negative");
+    }
+    this.expansionDepth = depth;
+    return this;
+  }
+
+  /**
+   * Sets the expansion depth of the resources that are referenced through a relation (see
+   * {@link #setExpansionDepth(int)}), which overrides the expansion depth of the profile.
+   * Supported relations are <code>hmas:hosts</code>, <code>hmas:contains</code>,
+   * <code>hmas:isHostedOn</code> and <code>hmas:exposesSignifier</code>.
+   */
+  public BaseResourceProfileGraphWriter<T> setExpansionDepth(IRI relation, int depth) {
+    if (!HOSTS.equals(relation) && !CONTAINS.equals(relation) && !IS_HOSTED_ON.equals(relation)
+            && !EXPOSES_SIGNIFIER.equals(relation)) {
+      throw new IllegalArgumentException("Unsupported relation: " + relation
+              + ". Supported relations: hosts, contains, isHostedOn, exposesSignifier.");
+    }
+    if (depth < 0) {
+      throw new IllegalArgumentException("The expansion depth must not be negative");
+    }
+    this.relationExpansionDepths.put(relation, depth);
+    return this;
+  }
+
+  /**
+   * Sets the context against which JSON-LD representations are compacted, and which they
+   * reference by URL. The context is loaded and compiled once through the given cache. By default,
+   * representations are compacted against the context of the hMAS core vocabulary, which is
+   * embedded in the representations, as the namespace of the vocabulary does not serve a context.
+   *
+   * @param contextURL the URL of the JSON-LD context, or <code>null</code> to embed the core context
+   * @param contexts   the cache that provides the context
+   */
+  public BaseResourceProfileGraphWriter<T> setJsonLdContext(String contextURL, JsonLdContextCache contexts) {
+    this.jsonLdContextURL = contextURL;
+    this.jsonLdContexts = contexts;
+    return this;
+  }
+
+  /**
+   * Sets whether representations are written in canonical form: blank nodes are labeled after
+   * their statements, and statements are written in sorted order, without pretty printing. Two
+   * writes of equal profiles in canonical form are then identical, byte for byte, which makes the
+   * representations suitable for entity tags and change detection. Disabled by default.
+   */
+  public BaseResourceProfileGraphWriter<T> setCanonical(boolean canonical) {
+    this.canonical = canonical;
+    return this;
+  }
+
+  /**
+   * Sets the index from which the transitive containment of workspaces is written, i.e. a
+   * <code>hmas:transitivelyContains</code> statement from each written workspace in the index to
+   * each resource that it transitively contains. Anonymous resources are only referenced if they
+   * are written. By default, transitive containment is not written.
+   *
+   * @param index the containment index of the written workspaces
+   */
+  public BaseResourceProfileGraphWriter<T> setContainmentIndex(ContainmentIndex index) {
+    this.containmentIndex = index;
+    return this;
+  }
+
+  /* Forgets the resources and blank nodes of the previous traversal, such that each write traverses the profile anew */
+  private void resetTraversal() {
+    writtenResources.clear();
+    linkedResources.clear();
+    blankNodes.clear();
+    rewrittenNode = null;
+    depth = 0;
+  }
+
+  private boolean isExpansionLimited() {
+    return expansionDepth != Integer.MAX_VALUE || !relationExpansionDepths.isEmpty();
+  }
+
+  private boolean isPrettyPrinted(RDFFormat format) {
+    return prettyPrint && !canonical && RDFFormat.TURTLE.equals(format);
+  }
+
+  private void writeBuffered(Model model, Writer out, RDFFormat format) {
+    if (RDFFormat.JSONLD.equals(format)) {
+      JsonLdUtils.writeModel(canonical ? canonicalize(model) : model, jsonLdContextURL, jsonLdContexts, out);
+    } else {
+      writeCanonical(model, Rio.createWriter(format, out));
+    }
+  }
+
+  private static Model canonicalize(Model model) {
+    Model canonicalModel = new LinkedHashModel(CanonicalForm.canonicalize(model));
+    model.getNamespaces().forEach(canonicalModel::setNamespace);
+    return canonicalModel;
+  }
+
+  private static void writeCanonical(Model model, RDFWriter writer) {
+    writer.startRDF();
+    new TreeSet<>(model.getNamespaces()).forEach(namespace ->
+            writer.handleNamespace(namespace.getPrefix(), namespace.getName()));
+    CanonicalForm.canonicalize(model).forEach(writer::handleStatement);
+    writer.endRDF();
+  }
+
+  private static WriterConfig getPrettyPrintConfig() {
+    return new WriterConfig().set(BasicWriterSettings.INLINE_BLANK_NODES, true);
+  }
+
+  private void stream(RDFWriter writer) {
+    writer.startRDF();
+    this.rdfWriter = writer;
+    this.profileGraph = profile.getResolvedGraph(profileIRI).orElse(null);
+    try {
+      for (Namespace namespace : getModel().getNamespaces()) {
+        emitNamespace(namespace);
+      }
+      addResourceProfile();
+
+      /* Statements that were added to the graph builder directly, e.g. by subclasses */
+      Model buffered = getModel();
+      buffered.getNamespaces().forEach(this::emitNamespace);
+      buffered.forEach(writer::handleStatement);
+    } finally {
+      this.rdfWriter = null;
+      this.profileGraph = null;
+      this.streamedPrefixes.clear();
+    }
+    writer.endRDF();
   }
 
   private Model getModel() {
     return graphBuilder.build();
   }
 
+  /* The complete resource profile as a model, e.g. to compute the differences between profiles */
+  Model toModel() {
+    return addResourceProfile().getModel();
+  }
+
+  /**
+   * Adds the complete resource profile: the profile itself, the profiled resource, the signifiers
+   * exposed by the profile, and the platforms of the profile. The profile is added to the graph
+   * builder once, and later writes write the added profile.
+   */
+  protected BaseResourceProfileGraphWriter<T> addResourceProfile() {
+    if (profileAdded) {
+      return this;
+    }
+    if (rdfWriter == null) {
+      profileAdded = true;
+    }
+    this.setNamespace(PREFIX, NAMESPACE)
+            .addProfileIRI()
+            .addSemanticTypes()
+            .addOwnerResource()
+            .addExposedSignifiers()
+            .addHomeHMASPlatforms()
+            .addGraph();
+    return this;
+  }
+
   @Override
   public BaseResourceProfileGraphWriter setNamespace(String prefix, String namespace) {
-    this.graphBuilder.setNamespace(prefix, namespace);
+    if (rdfWriter != null) {
+      emitNamespace(new SimpleNamespace(prefix, namespace));
+    } else {
+      this.graphBuilder.setNamespace(prefix, namespace);
+    }
     return this;
   }
 
+  /**
+   * Adds a statement to the profile. All statements of the profile should be added through this
+   * method, such that they can be streamed.
+   */
+  protected void emit(Resource subject, IRI predicate, Value object) {
+    if (subject.equals(rewrittenNode)) {
+      return;
+    }
+    if (rdfWriter == null) {
+      graphBuilder.add(subject, predicate, object);
+    } else if (!contains(profileGraph, subject, predicate, object)
+            && !contains(resourceGraph, subject, predicate, object)) {
+      rdfWriter.handleStatement(rdf.createStatement(subject, predicate, object));
+    }
+  }
+
+  private static boolean contains(Model graph, Resource subject, IRI predicate, Value object) {
+    return graph != null && graph.contains(subject, predicate, object);
+  }
+
+  private void emitNamespace(Namespace namespace) {
+    if (streamedPrefixes.add(namespace.getPrefix())) {
+      rdfWriter.handleNamespace(namespace.getPrefix(), namespace.getName());
+    }
+  }
+
   protected BaseResourceProfileGraphWriter addProfileIRI() {
-    this.graphBuilder.add(profileIRI, RDF.TYPE, profile.getTypeAsIRI());
+    emit(profileIRI, RDF.TYPE, profile.getTypeAsIRI());
     return this;
   }
 
   protected BaseResourceProfileGraphWriter addSemanticTypes() {
     Set<String> semanticTypes = this.profile.getSemanticTypes();
     for (String type : semanticTypes) {
-      this.graphBuilder.add(profileIRI, RDF.TYPE, rdf.createIRI(type));
+      /* The semantic types include the type of the profile, which is added by addProfileIRI() */
+      if (!type.equals(profile.getTypeAsString())) {
+        emit(profileIRI, RDF.TYPE, rdf.createIRI(type));
+      }
     }
     return this;
   }
@@ -71,23 +393,88 @@ public class BaseResourceProfileGraphWriter<T extends BaseResourceProfile> imple
   protected BaseResourceProfileGraphWriter addOwnerResource() {
     AbstractResource resource = (AbstractResource) profile.getResource();
     Resource node = resolveHostableLocation(resource);
-    this.graphBuilder.add(profileIRI, IS_PROFILE_OF, node);
+    emit(profileIRI, IS_PROFILE_OF, node);
     writeResource(resource, node);
     return this;
   }
 
+  protected BaseResourceProfileGraphWriter<T> addExposedSignifiers() {
+    for (BaseSignifier signifier : profile.getExposedSignifiers()) {
+      writeReferencedResource(profileIRI, EXPOSES_SIGNIFIER, signifier);
+    }
+    return this;
+  }
+
   protected BaseResourceProfileGraphWriter<T> addHomeHMASPlatforms() {
     Set<HypermediaMASPlatform> platforms = profile.getHMASPlatforms();
     for (HypermediaMASPlatform platform : platforms) {
-      Resource node = resolveHostableLocation(platform);
-      graphBuilder.add(profileIRI, IS_HOSTED_ON, node);
-      writeResource(platform, node);
+      writeReferencedResource(profileIRI, IS_HOSTED_ON, platform);
+    }
+    return this;
+  }
+
+  /**
+   * Writes a resource that is referenced through a relation, either in full or as a link,
+   * depending on the expansion depth of the relation.
+   */
+  protected BaseResourceProfileGraphWriter writeReferencedResource(Resource node, IRI relation,
+                                                                   AbstractResource resource) {
+    Resource referencedNode = resolveHostableLocation(resource);
+    emit(node, relation, referencedNode);
+
+    if (resource.getIRI().isPresent()
+            && depth + 1 > relationExpansionDepths.getOrDefault(relation, expansionDepth)) {
+      /* The type is kept, such that the link can be read as a resource */
+      if (!writtenResources.containsKey(resource) && linkedResources.add(resource)) {
+        emit(referencedNode, RDF.TYPE, resource.getTypeAsIRI());
+      }
+      return this;
+    }
+
+    depth++;
+    try {
+      writeResource(resource, referencedNode);
+    } finally {
+      depth--;
     }
     return this;
   }
 
+  /**
+   * Writes a resource, unless it has already been written by the current traversal. This keeps
+   * the traversal linear in the number of distinct resources, also for resources that refer to
+   * each other (e.g. a platform that hosts an agent which is hosted on the same platform). If the
+   * expansion depth is limited, a resource that is reached closer to the profiled resource than
+   * where it was written is written again, such that its references are expanded further. Only
+   * the statements of the resources that it references are then written, since its own statements
+   * have already been written.
+   */
   protected BaseResourceProfileGraphWriter writeResource(AbstractResource resource, Resource node) {
+    Integer writtenDepth = writtenResources.get(resource);
+    if (writtenDepth != null && (writtenDepth <= depth || !isExpansionLimited())) {
+      return this;
+    }
+    writtenResources.put(resource, depth);
+
+    Resource rewritten = this.rewrittenNode;
+    AbstractResource writtenResource = this.graphResource;
+    Model writtenGraph = this.resourceGraph;
+    this.rewrittenNode = writtenDepth != null ? node : null;
+    this.graphResource = resource;
+    this.resourceGraph = rdfWriter != null && writtenDepth == null
+            ? resource.getResolvedGraph(node).orElse(null)
+            : null;
+    try {
+      dispatchResource(resource, node);
+    } finally {
+      this.rewrittenNode = rewritten;
+      this.graphResource = writtenResource;
+      this.resourceGraph = writtenGraph;
+    }
+    return this;
+  }
 
+  private void dispatchResource(AbstractResource resource, Resource node) {
     if (AGENT.equals(resource.getTypeAsIRI())) {
       addAgent((Agent) resource, node);
     } else if (ARTIFACT.equals(resource.getTypeAsIRI())) {
@@ -96,10 +483,11 @@ public class BaseResourceProfileGraphWriter<T extends BaseResourceProfile> imple
       addWorkspace((Workspace) resource, node);
     } else if (HMAS_PLATFORM.equals(resource.getTypeAsIRI())) {
       addHMASPlatform((HypermediaMASPlatform) resource, node);
+    } else if (SIGNIFIER.equals(resource.getTypeAsIRI())) {
+      addSignifier((BaseSignifier) resource, node);
     } else {
       addResource(resource, node);
     }
-    return this;
   }
 
   protected BaseResourceProfileGraphWriter addAgent(Agent agent, Resource node) {
@@ -112,41 +500,47 @@ public class BaseResourceProfileGraphWriter<T extends BaseResourceProfile> imple
     return this;
   }
 
+  protected BaseResourceProfileGraphWriter addSignifier(BaseSignifier signifier, Resource node) {
+    addHostable(signifier, node);
+    return this;
+  }
+
   protected BaseResourceProfileGraphWriter addWorkspace(Workspace workspace, Resource node) {
     Set<AbstractHostable> contained = workspace.getContainedResources();
     for (AbstractHostable containedResource : contained) {
-      Resource containedNode = resolveHostableLocation(containedResource);
-      graphBuilder.add(node, CONTAINS, containedNode);
-      writeResource(containedResource, containedNode);
+      writeReferencedResource(node, CONTAINS, containedResource);
     }
+    addTransitivelyContainedResources(workspace, node);
     addHostable(workspace, node);
     return this;
   }
 
+  protected BaseResourceProfileGraphWriter addTransitivelyContainedResources(Workspace workspace, Resource node) {
+    if (containmentIndex == null) {
+      return this;
+    }
+    for (AbstractHostable resource : containmentIndex.getTransitivelyContainedResources(workspace)) {
+      /* The members of the workspace have been written, unless they are beyond the expansion depth */
+      if (resource.getIRI().isPresent() || writtenResources.containsKey(resource)) {
+        emit(node, TRANSITIVELY_CONTAINS, resolveHostableLocation(resource));
+      }
+    }
+    return this;
+  }
+
   protected BaseResourceProfileGraphWriter addHMASPlatform(HypermediaMASPlatform platform, Resource node) {
     Set<AbstractHostable> hosted = platform.getHostedResources();
     for (AbstractHostable hostedResource : hosted) {
-      Resource hostedNode = resolveHostableLocation(hostedResource);
-      graphBuilder.add(node, HOSTS, hostedNode);
-      writeResource(hostedResource, hostedNode);
+      writeReferencedResource(node, HOSTS, hostedResource);
     }
     addResource(platform, node);
     return this;
   }
 
   protected BaseResourceProfileGraphWriter addHostable(AbstractHostable resource, Resource node) {
-    graphBuilder.add(node, RDF.TYPE, resource.getTypeAsIRI());
-
     Set<HypermediaMASPlatform> platforms = resource.getHMASPlatforms();
     for (HypermediaMASPlatform platform : platforms) {
-      Resource platformNode = resolveHostableLocation(platform);
-      graphBuilder.add(node, IS_HOSTED_ON, platformNode);
-      addHMASPlatform(platform, platformNode);
-    }
-
-    Set<String> semanticTypes = resource.getSemanticTypes();
-    for (String type : semanticTypes) {
-      graphBuilder.add(node, RDF.TYPE, rdf.createIRI(type));
+      writeReferencedResource(node, IS_HOSTED_ON, platform);
     }
 
     addResource(resource, node);
@@ -154,11 +548,16 @@ public class BaseResourceProfileGraphWriter<T extends BaseResourceProfile> imple
   }
 
   protected BaseResourceProfileGraphWriter addResource(AbstractResource resource, Resource node) {
-    graphBuilder.add(node, RDF.TYPE, resource.getTypeAsIRI());
+    /* The type of a resource that was written as a link has been written */
+    if (!linkedResources.contains(resource)) {
+      emit(node, RDF.TYPE, resource.getTypeAsIRI());
+    }
 
     Set<String> semanticTypes = resource.getSemanticTypes();
     for (String type : semanticTypes) {
-      graphBuilder.add(node, RDF.TYPE, rdf.createIRI(type));
+      if (!type.equals(resource.getTypeAsString())) {
+        emit(node, RDF.TYPE, rdf.createIRI(type));
+      }
     }
     return this.addGraph(resource, node);
   }
@@ -168,6 +567,10 @@ public class BaseResourceProfileGraphWriter<T extends BaseResourceProfile> imple
   }
 
   protected BaseResourceProfileGraphWriter addGraph(AbstractResource resource, Resource node) {
+    if (rdfWriter != null) {
+      streamGraph(resource, node);
+      return this;
+    }
     Optional<Model> graph = resource.getResolvedGraph(node);
     if (graph.isPresent()) {
       getModel().addAll(graph.get());
@@ -179,7 +582,34 @@ public class BaseResourceProfileGraphWriter<T extends BaseResourceProfile> imple
     return this;
   }
 
+  /* Streams the graph of a resource, except for the statements that the graph of the profile includes */
+  private void streamGraph(AbstractResource resource, Resource node) {
+    if (node.equals(rewrittenNode)) {
+      return;
+    }
+    Model graph;
+    if (resource == profile) {
+      graph = profileGraph;
+    } else if (resource == graphResource) {
+      graph = resourceGraph;
+    } else {
+      graph = resource.getResolvedGraph(node).orElse(null);
+    }
+    if (graph == null) {
+      return;
+    }
+    graph.getNamespaces().forEach(this::emitNamespace);
+    for (Statement statement : graph) {
+      if (graph == profileGraph || profileGraph == null || !profileGraph.contains(statement)) {
+        rdfWriter.handleStatement(statement);
+      }
+    }
+  }
+
   protected Resource resolveHostableLocation(AbstractResource resource) {
-    return resource.getIRI().isPresent() ? resource.getIRI().get() : rdf.createBNode();
+    if (resource.getIRI().isPresent()) {
+      return resource.getIRI().get();
+    }
+    return blankNodes.computeIfAbsent(resource, r -> rdf.createBNode());
   }
 }
@@ -0,0 +1,41 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The outcome of reading a batch of resource profiles. Every item of the batch is either read
+ * into a profile or recorded as a failure, so that a single malformed profile does not abort
+ * the batch. Items are keyed by their input (e.g. the path of a file, or the position of a
+ * representation in a stream) and kept in the order of the input.
+ *
+ * @param <K> the type of the keys that identify the items of the batch
+ */
+public final class BatchReadResult<K> {
+
+  private final Map<K, BaseResourceProfile> profiles;
+  private final Map<K, Exception> failures;
+
+  BatchReadResult(Map<K, BaseResourceProfile> profiles, Map<K, Exception> failures) {
+    this.profiles = Collections.unmodifiableMap(profiles);
+    this.failures = Collections.unmodifiableMap(failures);
+  }
+
+  public Map<K, BaseResourceProfile> getProfiles() {
+    return profiles;
+  }
+
+  public Map<K, Exception> getFailures() {
+    return failures;
+  }
+
+  public boolean hasFailures() {
+    return !failures.isEmpty();
+  }
+
+  public int size() {
+    return profiles.size() + failures.size();
+  }
+}
@@ -0,0 +1,232 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonStructure;
+import jakarta.json.JsonValue;
+import jakarta.json.spi.JsonProvider;
+import no.hasmac.jsonld.JsonLdError;
+import no.hasmac.jsonld.JsonLdErrorCode;
+import no.hasmac.jsonld.JsonLdOptions;
+import no.hasmac.jsonld.context.ActiveContext;
+import no.hasmac.jsonld.document.Document;
+import no.hasmac.jsonld.document.JsonDocument;
+import no.hasmac.jsonld.loader.DocumentLoader;
+import no.hasmac.jsonld.loader.DocumentLoaderOptions;
+import no.hasmac.jsonld.loader.SchemeRouter;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of the JSON-LD context documents that are referenced by resource profiles in JSON-LD
+ * (e.g. <code>"@context": "https://purl.org/hmas/"</code>). Remote contexts are retrieved at most
+ * once while they remain cached, instead of once per parsed profile. The context of the hMAS core
+ * vocabulary is preloaded under {@link CORE#NAMESPACE}, and further contexts can be preloaded
+ * such that profiles can be read offline.
+ * <p>
+ * The cache also holds compiled contexts, i.e. the term definitions of a context, which are used
+ * to compact the profiles that are written in JSON-LD.
+ */
+public class JsonLdContextCache implements DocumentLoader {
+
+  static final JsonProvider JSON = JsonProvider.provider();
+
+  /* The context document of the hMAS core vocabulary */
+  static final JsonObject CORE_CONTEXT = createCoreContext();
+
+  private static final JsonLdContextCache DEFAULT = new Builder().build();
+
+  private final Map<String, JsonStructure> preloaded;
+  private final Cache<String, JsonStructure> documents;
+  private final Cache<String, ActiveContext> compiledContexts;
+  private final Optional<DocumentLoader> loader;
+  private final AtomicLong loadCount = new AtomicLong();
+
+  protected JsonLdContextCache(Builder builder) {
+    this.preloaded = Map.copyOf(builder.preloaded);
+    this.documents = CacheBuilder.newBuilder()
+            .maximumSize(builder.maximumSize)
+            .build();
+    this.compiledContexts = CacheBuilder.newBuilder()
+            .maximumSize(builder.maximumSize)
+            .build();
+    this.loader = builder.offline ? Optional.empty() : Optional.of(builder.loader);
+  }
+
+  /**
+   * Returns the cache that is used by default to read and write resource profiles in JSON-LD.
+   * The default cache retrieves contexts that are not preloaded over HTTP(S).
+   */
+  public static JsonLdContextCache getDefault() {
+    return DEFAULT;
+  }
+
+  @Override
+  public Document loadDocument(URI url, DocumentLoaderOptions options) throws JsonLdError {
+    String key = getDocumentURL(url.toString());
+    JsonStructure content = preloaded.get(key);
+    if (content == null) {
+      content = documents.getIfPresent(key);
+    }
+    if (content == null) {
+      if (loader.isEmpty()) {
+        throw new JsonLdError(JsonLdErrorCode.LOADING_REMOTE_CONTEXT_FAILED,
+                "The JSON-LD context " + url + " is not cached, and the cache is offline");
+      }
+      loadCount.incrementAndGet();
+      Document document = loader.get().loadDocument(url, options);
+      Optional<JsonStructure> loaded = document.getJsonContent();
+      if (loaded.isEmpty()) {
+        return document;
+      }
+      content = loaded.get();
+      documents.put(key, content);
+    }
+
+    /* Documents are mutable, and are not shared between parses */
+    JsonDocument document = JsonDocument.of(content);
+    document.setDocumentUrl(url);
+    return document;
+  }
+
+  /**
+   * Returns the compiled form of a context, which is compiled once while it remains cached.
+   *
+   * @param url the URL of the context
+   * @return the term definitions of the context
+   * @throws JsonLdError if the context cannot be loaded or is invalid
+   */
+  ActiveContext getCompiledContext(String url) throws JsonLdError {
+    try {
+      return compiledContexts.get(url, () -> compile(url));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof JsonLdError) {
+        throw (JsonLdError) e.getCause();
+      }
+      throw new JsonLdError(JsonLdErrorCode.INVALID_LOCAL_CONTEXT, e.getCause());
+    }
+  }
+
+  private ActiveContext compile(String url) throws JsonLdError {
+    URI contextURL = URI.create(url);
+    JsonStructure document = loadDocument(contextURL, new DocumentLoaderOptions()).getJsonContent()
+            .orElseThrow(() -> new JsonLdError(JsonLdErrorCode.INVALID_REMOTE_CONTEXT));
+    JsonValue context = document.getValueType() == JsonValue.ValueType.OBJECT
+            && document.asJsonObject().containsKey("@context")
+            ? document.asJsonObject().get("@context") : document;
+
+    ActiveContext compiled = new ActiveContext(new JsonLdOptions(this)).newContext().create(context, contextURL);
+    /* The inverse context is otherwise created on first use, by concurrent writers */
+    compiled.createInverseContext();
+    return compiled;
+  }
+
+  public void invalidate(String url) {
+    documents.invalidate(getDocumentURL(url));
+    compiledContexts.invalidate(url);
+  }
+
+  public void invalidateAll() {
+    documents.invalidateAll();
+    compiledContexts.invalidateAll();
+  }
+
+  /**
+   * Returns the number of contexts that were retrieved by the document loader of the cache.
+   */
+  public long getLoadCount() {
+    return loadCount.get();
+  }
+
+  private static String getDocumentURL(String url) {
+    int fragment = url.indexOf('#');
+    return fragment < 0 ? url : url.substring(0, fragment);
+  }
+
+  /* Classes of the core vocabulary are mapped to terms, and properties to terms with IRI values */
+  static JsonObject createCoreContext() {
+    JsonObjectBuilder terms = JSON.createObjectBuilder().add(CORE.PREFIX, CORE.NAMESPACE);
+    for (CORE.TERM term : CORE.TERM.values()) {
+      String name = term.toIRI().getLocalName();
+      if (Character.isUpperCase(name.charAt(0))) {
+        terms.add(name, CORE.PREFIX + ":" + name);
+      } else {
+        terms.add(name, JSON.createObjectBuilder()
+                .add("@id", CORE.PREFIX + ":" + name)
+                .add("@type", "@id"));
+      }
+    }
+    return JSON.createObjectBuilder().add("@context", terms).build();
+  }
+
+  public static class Builder {
+    private final Map<String, JsonStructure> preloaded = new HashMap<>();
+    private long maximumSize = 256;
+    private boolean offline = false;
+    private DocumentLoader loader = SchemeRouter.defaultInstance();
+
+    public Builder() {
+      this.preloaded.put(CORE.NAMESPACE, CORE_CONTEXT);
+    }
+
+    /**
+     * Sets the maximum number of contexts that are cached, in addition to the preloaded contexts.
+     * By default, the cache holds up to 256 contexts.
+     */
+    public Builder setMaximumSize(long maximumSize) {
+      if (maximumSize < 1) {
+        throw new IllegalArgumentException("The maximum size of the cache must be positive");
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Sets whether the cache is offline, i.e. whether contexts that are not preloaded are never
+     * retrieved. Profiles that reference such contexts cannot be read offline.
+     */
+    public Builder setOffline(boolean offline) {
+      this.offline = offline;
+      return this;
+    }
+
+    /**
+     * Sets the loader that retrieves the contexts that are not cached. By default, contexts are
+     * retrieved over HTTP(S) or from files.
+     */
+    public Builder setDocumentLoader(DocumentLoader loader) {
+      this.loader = loader;
+      return this;
+    }
+
+    /**
+     * Preloads a context document, which is never evicted from the cache.
+     *
+     * @param url     the URL of the context
+     * @param context the JSON-LD context document
+     */
+    public Builder preload(String url, String context) {
+      try {
+        JsonStructure document = JsonDocument.of(new StringReader(context)).getJsonContent()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid JSON-LD context: " + url));
+        this.preloaded.put(getDocumentURL(url), document);
+      } catch (JsonLdError e) {
+        throw new IllegalArgumentException("Invalid JSON-LD context: " + url, e);
+      }
+      return this;
+    }
+
+    public JsonLdContextCache build() {
+      return new JsonLdContextCache(this);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import no.hasmac.jsonld.JsonLd;
+import no.hasmac.jsonld.JsonLdError;
+import no.hasmac.jsonld.JsonLdOptions;
+import no.hasmac.jsonld.api.ToRdfApi;
+import no.hasmac.jsonld.compaction.Compaction;
+import no.hasmac.jsonld.context.ActiveContext;
+import no.hasmac.jsonld.document.Document;
+import no.hasmac.jsonld.document.RdfDocument;
+import no.hasmac.rdf.*;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParseException;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/* Reads and writes JSON-LD with the contexts of a context cache, instead of the JSON-LD parser of Rio */
+final class JsonLdUtils {
+
+  private static final JsonGeneratorFactory GENERATORS = JsonLdContextCache.JSON.createGeneratorFactory(Map.of());
+
+  private JsonLdUtils() {
+  }
+
+  /**
+   * Reads the statements of a JSON-LD document. Contexts that are referenced by the document are
+   * loaded through the context cache.
+   *
+   * @param document the JSON-LD document
+   * @param baseURI  the URI against which relative IRIs are resolved, or <code>null</code>
+   * @param contexts the cache of context documents
+   * @return the statements of the document
+   */
+  static Model readModel(Document document, String baseURI, JsonLdContextCache contexts) {
+    ValueFactory rdf = SimpleValueFactory.getInstance();
+    Map<String, BNode> blankNodes = new HashMap<>();
+    Model model = new LinkedHashModel();
+
+    try {
+      ToRdfApi toRdf = JsonLd.toRdf(document).options(new JsonLdOptions(contexts));
+      if (baseURI != null) {
+        toRdf.base(URI.create(baseURI));
+      }
+      for (RdfNQuad quad : toRdf.get().toList()) {
+        Resource graph = quad.getGraphName()
+                .map(name -> (Resource) toValue(name, rdf, blankNodes))
+                .orElse(null);
+        model.add((Resource) toValue(quad.getSubject(), rdf, blankNodes),
+                (IRI) toValue(quad.getPredicate(), rdf, blankNodes),
+                toValue(quad.getObject(), rdf, blankNodes), graph);
+      }
+    } catch (JsonLdError e) {
+      throw new RDFParseException(e.getMessage(), e);
+    }
+    return model;
+  }
+
+  private static Value toValue(RdfValue value, ValueFactory rdf, Map<String, BNode> blankNodes) {
+    if (value.isIRI()) {
+      return rdf.createIRI(value.getValue());
+    }
+    if (value.isBlankNode()) {
+      return blankNodes.computeIfAbsent(value.getValue(), label -> rdf.createBNode());
+    }
+    RdfLiteral literal = value.asLiteral();
+    return literal.getLanguage()
+            .map(language -> rdf.createLiteral(literal.getValue(), language))
+            .orElseGet(() -> rdf.createLiteral(literal.getValue(), rdf.createIRI(literal.getDatatype())));
+  }
+
+  static void writeModel(Model model, String contextURL, JsonLdContextCache contexts, Writer out) {
+    JsonGenerator generator = GENERATORS.createGenerator(out);
+    generator.write(compact(model, contextURL, contexts));
+    generator.flush();
+  }
+
+  static void writeModel(Model model, String contextURL, JsonLdContextCache contexts, OutputStream out) {
+    JsonGenerator generator = GENERATORS.createGenerator(out, StandardCharsets.UTF_8);
+    generator.write(compact(model, contextURL, contexts));
+    generator.flush();
+  }
+
+  /**
+   * Compacts the statements of a model against a context. The context is compiled once by the
+   * context cache, such that its term definitions are not processed again for every model. A
+   * context URL is referenced by the document, whereas the context of the hMAS core vocabulary is
+   * embedded in the document, such that the document can be read without retrieving a context.
+   *
+   * @param model      the statements to compact
+   * @param contextURL the URL of the context, or <code>null</code> for the embedded core context
+   * @param contexts   the cache of context documents
+   * @return the compacted document
+   */
+  static JsonObject compact(Model model, String contextURL, JsonLdContextCache contexts) {
+    RdfDataset dataset = Rdf.createDataset();
+    for (Statement statement : model) {
+      RdfTriple triple = Rdf.createTriple(toRdfResource(statement.getSubject()),
+              toRdfResource(statement.getPredicate()), toRdfValue(statement.getObject()));
+      if (statement.getContext() == null) {
+        dataset.add(triple);
+      } else {
+        dataset.add(Rdf.createNQuad(triple, toRdfResource(statement.getContext())));
+      }
+    }
+
+    try {
+      JsonArray expanded = JsonLd.fromRdf(RdfDocument.of(dataset))
+              .options(new JsonLdOptions(contexts))
+              .get();
+      ActiveContext activeContext = contexts.getCompiledContext(contextURL == null ? CORE.NAMESPACE : contextURL);
+      JsonValue compacted = Compaction.with(activeContext)
+              .compactArrays(true)
+              .compact(expanded);
+
+      JsonValue context = contextURL == null
+              ? JsonLdContextCache.CORE_CONTEXT.get("@context")
+              : JsonLdContextCache.JSON.createValue(contextURL);
+      JsonObjectBuilder document = JsonLdContextCache.JSON.createObjectBuilder().add("@context", context);
+      if (compacted.getValueType() == JsonValue.ValueType.ARRAY) {
+        if (!compacted.asJsonArray().isEmpty()) {
+          document.add("@graph", compacted);
+        }
+      } else {
+        compacted.asJsonObject().forEach(document::add);
+      }
+      return document.build();
+    } catch (JsonLdError e) {
+      throw new RDFHandlerException(e.getMessage(), e);
+    }
+  }
+
+  private static RdfResource toRdfResource(Resource resource) {
+    return resource.isBNode() ? Rdf.createBlankNode("_:" + resource.stringValue())
+            : Rdf.createIRI(resource.stringValue());
+  }
+
+  private static RdfValue toRdfValue(Value value) {
+    if (!value.isLiteral()) {
+      return toRdfResource((Resource) value);
+    }
+    Literal literal = (Literal) value;
+    return literal.getLanguage()
+            .map(language -> Rdf.createLangString(literal.getLabel(), language))
+            .orElseGet(() -> Rdf.createTypedString(literal.getLabel(), literal.getDatatype().stringValue()));
+  }
+}
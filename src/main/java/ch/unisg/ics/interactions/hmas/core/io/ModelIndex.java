@@ -0,0 +1,102 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import org.eclipse.rdf4j.model.*;
+
+import java.util.*;
+
+/**
+ * A read-only subject/predicate index over an RDF model. The index is built in a single pass
+ * over the model, after which the statements about a subject, or the objects of a
+ * subject/predicate pair, are retrieved with constant-time lookups instead of filtering the
+ * model. The index does not track later changes to the model.
+ */
+public final class ModelIndex {
+
+  private final Map<Resource, Entry> entries;
+
+  private ModelIndex(Map<Resource, Entry> entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * Builds an index over the statements of a model.
+   *
+   * @param model the model to be indexed
+   * @return the index
+   */
+  public static ModelIndex of(Model model) {
+    Map<Resource, Entry> entries = new HashMap<>();
+    for (Statement statement : model) {
+      entries.computeIfAbsent(statement.getSubject(), subject -> new Entry()).add(statement);
+    }
+    return new ModelIndex(entries);
+  }
+
+  public boolean contains(Resource subject) {
+    return entries.containsKey(subject);
+  }
+
+  public Set<Resource> subjects() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  /**
+   * Returns all statements with the given subject, in the order in which they were indexed.
+   */
+  public List<Statement> statements(Resource subject) {
+    Entry entry = entries.get(subject);
+    return entry == null ? Collections.emptyList() : Collections.unmodifiableList(entry.statements);
+  }
+
+  /**
+   * Returns the objects of all statements with the given subject and predicate.
+   */
+  public List<Value> objects(Resource subject, IRI predicate) {
+    Entry entry = entries.get(subject);
+    if (entry == null) {
+      return Collections.emptyList();
+    }
+    List<Value> objects = entry.objects.get(predicate);
+    return objects == null ? Collections.emptyList() : Collections.unmodifiableList(objects);
+  }
+
+  public Set<Resource> objectResources(Resource subject, IRI predicate) {
+    Set<Resource> resources = new LinkedHashSet<>();
+    for (Value object : objects(subject, predicate)) {
+      if (object.isResource()) {
+        resources.add((Resource) object);
+      }
+    }
+    return resources;
+  }
+
+  public Set<IRI> objectIRIs(Resource subject, IRI predicate) {
+    Set<IRI> iris = new LinkedHashSet<>();
+    for (Value object : objects(subject, predicate)) {
+      if (object.isIRI()) {
+        iris.add((IRI) object);
+      }
+    }
+    return iris;
+  }
+
+  public Optional<Resource> objectResource(Resource subject, IRI predicate) {
+    for (Value object : objects(subject, predicate)) {
+      if (object.isResource()) {
+        return Optional.of((Resource) object);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static final class Entry {
+    private final List<Statement> statements = new ArrayList<>(4);
+    private final Map<IRI, List<Value>> objects = new HashMap<>(4);
+
+    private void add(Statement statement) {
+      statements.add(statement);
+      objects.computeIfAbsent(statement.getPredicate(), predicate -> new ArrayList<>(1))
+              .add(statement.getObject());
+    }
+  }
+}
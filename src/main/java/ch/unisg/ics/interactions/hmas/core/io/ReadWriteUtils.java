@@ -6,10 +6,11 @@ import org.eclipse.rdf4j.rio.*;
 import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
 import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,9 +18,41 @@ final class ReadWriteUtils {
 
   private final static Logger LOGGER = Logger.getLogger(ReadWriteUtils.class.getCanonicalName());
 
+  /* The formats of resource profiles, in order of preference: binary RDF is the fastest to parse */
+  static final List<RDFFormat> SUPPORTED_FORMATS = List.of(RDFFormat.BINARY, RDFFormat.TURTLE,
+          RDFFormat.NTRIPLES, RDFFormat.NQUADS, RDFFormat.JSONLD);
+
+  private static final String ACCEPT_HEADER =
+          String.join(", ", RDFFormat.getAcceptParams(SUPPORTED_FORMATS, false, RDFFormat.BINARY));
+
   private ReadWriteUtils() {
   }
 
+  /**
+   * Returns the value of the <code>Accept</code> header for requests of resource profiles.
+   */
+  static String getAcceptHeader() {
+    return ACCEPT_HEADER;
+  }
+
+  /**
+   * Returns the format of a representation with the given media type. Representations without
+   * a media type, or with a media type that does not denote a supported format (e.g.
+   * <code>text/plain</code>), are read as Turtle.
+   *
+   * @param contentType the value of the <code>Content-Type</code> header, or <code>null</code>
+   * @return the format of the representation
+   */
+  static RDFFormat getFormatForContentType(String contentType) {
+    if (contentType == null) {
+      return RDFFormat.TURTLE;
+    }
+    String mimeType = contentType.split(";", 2)[0].trim();
+    return Rio.getParserFormatForMIMEType(mimeType)
+            .filter(SUPPORTED_FORMATS::contains)
+            .orElse(RDFFormat.TURTLE);
+  }
+
   static Model readModelFromString(RDFFormat format, String description, String baseURI)
           throws RDFParseException, RDFHandlerException, IOException {
     StringReader stringReader = new StringReader(description);
@@ -33,8 +66,12 @@ final class ReadWriteUtils {
     return model;
   }
 
+  /* Text formats are written to a character stream, such that the representation is not copied from bytes */
   static String writeToString(RDFFormat format, Model model) {
-    OutputStream out = new ByteArrayOutputStream();
+    if (!format.hasCharset()) {
+      throw new IllegalArgumentException("Binary formats cannot be written to a string: " + format.getName());
+    }
+    Writer out = new StringWriter();
 
     try {
       Rio.write(model, out, format,
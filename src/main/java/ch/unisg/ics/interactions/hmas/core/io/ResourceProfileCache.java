@@ -0,0 +1,237 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.client5.http.fluent.Request;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.eclipse.rdf4j.model.Model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A client-side cache of resource profiles that are read from URLs. The cache stores decoded
+ * profiles keyed by URL, and revalidates them with conditional requests: if the server reports
+ * that a profile has not been modified (i.e. responds with <code>304 Not Modified</code>), the
+ * cached profile is returned without transferring or parsing the representation. Profiles that
+ * are declared fresh by the server (<code>Cache-Control: max-age</code>) are returned without
+ * contacting the server.
+ * <p>
+ * The size of the cache is bounded by the total number of triples of the cached profiles, such
+ * that a few large profiles do not take up the same space as many small ones.
+ */
+public class ResourceProfileCache {
+
+  private final Cache<String, Entry> entries;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong revalidationCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  protected ResourceProfileCache(Builder builder) {
+    this.entries = CacheBuilder.newBuilder()
+            .maximumWeight(builder.maximumWeight)
+            .weigher((String url, Entry entry) -> entry.weight)
+            /* A single segment, such that the weight bound applies to the cache as a whole */
+            .concurrencyLevel(1)
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Reads the resource profile that is available at a URL, using the cached profile if it is
+   * still fresh or if the server confirms that it has not been modified.
+   *
+   * @param url the URL of the resource profile
+   * @return the resource profile
+   * @throws IOException if the profile cannot be retrieved
+   */
+  public BaseResourceProfile readFromURL(String url) throws IOException {
+    Entry cached = entries.getIfPresent(url);
+    if (cached != null && cached.isFresh()) {
+      hitCount.incrementAndGet();
+      return cached.profile;
+    }
+
+    Request request = Request.get(url).setHeader(HttpHeaders.ACCEPT, ReadWriteUtils.getAcceptHeader());
+    if (cached != null) {
+      cached.etag.ifPresent(etag -> request.setHeader(HttpHeaders.IF_NONE_MATCH, etag));
+      cached.lastModified.ifPresent(date -> request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, date));
+    }
+
+    return request.execute().handleResponse(response -> {
+      if (response.getCode() == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+        revalidationCount.incrementAndGet();
+        entries.put(url, cached.revalidate(response));
+        return cached.profile;
+      }
+      if (response.getCode() >= HttpStatus.SC_REDIRECTION) {
+        throw new HttpResponseException(response.getCode(), response.getReasonPhrase());
+      }
+
+      BaseResourceProfile profile;
+      try (InputStream content = response.getEntity().getContent()) {
+        profile = BaseResourceProfileGraphReader.readFrom(content,
+                ReadWriteUtils.getFormatForContentType(response.getEntity().getContentType()), url);
+      }
+      missCount.incrementAndGet();
+
+      Entry entry = Entry.of(profile, response);
+      if (entry.isCacheable()) {
+        entries.put(url, entry);
+      } else {
+        entries.invalidate(url);
+      }
+      return profile;
+    });
+  }
+
+  public void invalidate(String url) {
+    entries.invalidate(url);
+  }
+
+  public void invalidateAll() {
+    entries.invalidateAll();
+  }
+
+  /**
+   * Returns the number of profiles that are currently cached.
+   */
+  public long size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the number of reads that were served from the cache without contacting the server.
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns the number of reads that were served from the cache after the server confirmed that
+   * the profile has not been modified.
+   */
+  public long getRevalidationCount() {
+    return revalidationCount.get();
+  }
+
+  /**
+   * Returns the number of reads that retrieved and parsed the full representation.
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns the number of profiles that were evicted to keep the cache within its weight bound.
+   */
+  public long getEvictionCount() {
+    return entries.stats().evictionCount();
+  }
+
+  private static final class Entry {
+    private final BaseResourceProfile profile;
+    private final int weight;
+    private final Optional<String> etag;
+    private final Optional<String> lastModified;
+    private final boolean noStore;
+    private final long maxAge;
+    private final long expiresAt;
+
+    private Entry(BaseResourceProfile profile, int weight, Optional<String> etag,
+                  Optional<String> lastModified, boolean noStore, long maxAge) {
+      this.profile = profile;
+      this.weight = weight;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.noStore = noStore;
+      this.maxAge = maxAge;
+      this.expiresAt = System.nanoTime() + maxAge;
+    }
+
+    static Entry of(BaseResourceProfile profile, ClassicHttpResponse response) {
+      int weight = profile.getGraph().map(Model::size).orElse(1);
+      String cacheControl = header(response, HttpHeaders.CACHE_CONTROL).orElse("");
+
+      return new Entry(profile, Math.max(1, weight), header(response, HttpHeaders.ETAG),
+              header(response, HttpHeaders.LAST_MODIFIED), hasDirective(cacheControl, "no-store"),
+              maxAge(cacheControl));
+    }
+
+    /* Headers of a 304 response update those of the cached response, and the profile is fresh again */
+    Entry revalidate(ClassicHttpResponse response) {
+      return new Entry(profile, weight,
+              header(response, HttpHeaders.ETAG).map(Optional::of).orElse(etag),
+              header(response, HttpHeaders.LAST_MODIFIED).map(Optional::of).orElse(lastModified),
+              noStore, header(response, HttpHeaders.CACHE_CONTROL).map(Entry::maxAge).orElse(maxAge));
+    }
+
+    boolean isFresh() {
+      return maxAge > 0 && System.nanoTime() - expiresAt < 0;
+    }
+
+    /* Entries without validators or freshness information would always be retrieved in full */
+    boolean isCacheable() {
+      return !noStore && (etag.isPresent() || lastModified.isPresent() || maxAge > 0);
+    }
+
+    private static long maxAge(String cacheControl) {
+      if (hasDirective(cacheControl, "no-cache")) {
+        return 0;
+      }
+      for (String directive : cacheControl.split(",")) {
+        String[] parts = directive.trim().split("=", 2);
+        if (parts.length == 2 && "max-age".equalsIgnoreCase(parts[0].trim())) {
+          try {
+            return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(parts[1].trim())));
+          } catch (NumberFormatException e) {
+            return 0;
+          }
+        }
+      }
+      return 0;
+    }
+
+    private static boolean hasDirective(String cacheControl, String name) {
+      for (String directive : cacheControl.split(",")) {
+        if (directive.trim().toLowerCase(Locale.ROOT).equals(name)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static Optional<String> header(ClassicHttpResponse response, String name) {
+      return Optional.ofNullable(response.getFirstHeader(name)).map(Header::getValue);
+    }
+  }
+
+  public static class Builder {
+    private long maximumWeight = 1_000_000;
+
+    /**
+     * Sets the maximum total number of triples of the cached profiles. By default, the cache
+     * holds up to one million triples.
+     */
+    public Builder setMaximumWeight(long maximumWeight) {
+      if (maximumWeight < 1) {
+        throw new IllegalArgumentException("The maximum weight of the cache must be positive");
+      }
+      this.maximumWeight = maximumWeight;
+      return this;
+    }
+
+    public ResourceProfileCache build() {
+      return new ResourceProfileCache(this);
+    }
+  }
+}
@@ -0,0 +1,287 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.*;
+
+/**
+ * Discovers the resource profiles of a hypermedia MAS environment by following the
+ * <code>hmas:hosts</code>, <code>hmas:contains</code> and <code>hmas:hasProfile</code> links of
+ * the profiles that it reads, starting from a seed profile (e.g. the profile of a platform or a
+ * workspace). Profiles are read breadth-first, and each profile document is read at most once.
+ * <p>
+ * Crawls are pull-based: profiles are read as the returned stream is consumed, and the crawler
+ * keeps at most a bounded number of profiles in flight or buffered for the consumer. The number
+ * of concurrent requests to a single host is bounded as well. Profiles that cannot be read are
+ * reported to a failure handler and do not end the crawl.
+ */
+public class ResourceProfileCrawler {
+
+  private final static Logger LOGGER = Logger.getLogger(ResourceProfileCrawler.class.getCanonicalName());
+
+  private static final Set<IRI> LINKS = Set.of(HOSTS, CONTAINS, HAS_PROFILE);
+
+  private final AsyncResourceProfileReader reader;
+  private final int maxDepth;
+  private final int maxInFlight;
+  private final int maxInFlightPerHost;
+  private final BiConsumer<String, Throwable> failureHandler;
+
+  protected ResourceProfileCrawler(Builder builder) {
+    this.reader = builder.reader;
+    this.maxDepth = builder.maxDepth;
+    this.maxInFlight = builder.maxInFlight;
+    this.maxInFlightPerHost = builder.maxInFlightPerHost;
+    this.failureHandler = builder.failureHandler;
+  }
+
+  /**
+   * Crawls the environment that is reachable from a seed profile. The returned stream is
+   * sequential and yields the profiles in the order in which they are read. Closing the stream
+   * stops the crawl.
+   *
+   * @param seedURL the URL of the profile where the crawl starts
+   * @return a stream of the profiles that are discovered
+   */
+  public Stream<BaseResourceProfile> crawl(String seedURL) {
+    Crawl crawl = new Crawl(seedURL);
+    return StreamSupport.stream(crawl, false).onClose(crawl::close);
+  }
+
+  static String getDocumentURL(String iri) {
+    int fragment = iri.indexOf('#');
+    return fragment < 0 ? iri : iri.substring(0, fragment);
+  }
+
+  private static Optional<String> getHost(String url) {
+    try {
+      URI uri = URI.create(url);
+      String scheme = uri.getScheme();
+      if (uri.getAuthority() == null
+              || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+        return Optional.empty();
+      }
+      return Optional.of(uri.getAuthority().toLowerCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static final class Link {
+    private final String url;
+    private final String host;
+    private final int depth;
+
+    private Link(String url, String host, int depth) {
+      this.url = url;
+      this.host = host;
+      this.depth = depth;
+    }
+  }
+
+  /* The state of a crawl: guarded by the crawl itself, and shared with the completion callbacks */
+  private final class Crawl extends Spliterators.AbstractSpliterator<BaseResourceProfile> {
+
+    private final Set<String> visited = new HashSet<>();
+    private final Map<String, Deque<Link>> frontier = new LinkedHashMap<>();
+    private final Map<String, Integer> inFlightPerHost = new HashMap<>();
+    private final Deque<BaseResourceProfile> buffer = new ArrayDeque<>();
+    private int queued = 0;
+    private int inFlight = 0;
+    private boolean closed = false;
+
+    Crawl(String seedURL) {
+      super(Long.MAX_VALUE, NONNULL | DISTINCT);
+      String url = getDocumentURL(seedURL);
+      Optional<String> host = getHost(url);
+      if (host.isEmpty()) {
+        throw new IllegalArgumentException("The seed of a crawl must be an HTTP(S) URL: " + seedURL);
+      }
+      visited.add(url);
+      enqueue(new Link(url, host.get(), 0));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super BaseResourceProfile> action) {
+      BaseResourceProfile profile = next();
+      if (profile == null) {
+        return false;
+      }
+      /* The consumer runs without the lock, so that completion callbacks are not held back */
+      action.accept(profile);
+      return true;
+    }
+
+    /* Returns the next profile, or null once the crawl is exhausted or closed */
+    private synchronized BaseResourceProfile next() {
+      while (true) {
+        dispatch();
+        if (!buffer.isEmpty()) {
+          return buffer.poll();
+        }
+        if (closed || (inFlight == 0 && queued == 0)) {
+          return null;
+        }
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          close();
+          return null;
+        }
+      }
+    }
+
+    synchronized void close() {
+      closed = true;
+      frontier.clear();
+      buffer.clear();
+      queued = 0;
+      notifyAll();
+    }
+
+    private void enqueue(Link link) {
+      frontier.computeIfAbsent(link.host, host -> new ArrayDeque<>()).add(link);
+      queued++;
+    }
+
+    /* Starts reading queued links while the window and the per-host limits allow it */
+    private void dispatch() {
+      List<Link> dispatched = new ArrayList<>();
+      Iterator<Map.Entry<String, Deque<Link>>> hosts = frontier.entrySet().iterator();
+      while (!closed && inFlight + buffer.size() < maxInFlight && hosts.hasNext()) {
+        Map.Entry<String, Deque<Link>> host = hosts.next();
+        Deque<Link> links = host.getValue();
+        int hostInFlight = inFlightPerHost.getOrDefault(host.getKey(), 0);
+
+        while (!links.isEmpty() && hostInFlight < maxInFlightPerHost
+                && inFlight + buffer.size() < maxInFlight) {
+          dispatched.add(links.poll());
+          inFlight++;
+          queued--;
+          hostInFlight++;
+        }
+        if (hostInFlight > 0) {
+          inFlightPerHost.put(host.getKey(), hostInFlight);
+        }
+        if (links.isEmpty()) {
+          hosts.remove();
+        }
+      }
+      /* Reads may complete synchronously, and update the frontier */
+      dispatched.forEach(this::read);
+    }
+
+    private void read(Link link) {
+      reader.readFromURL(link.url).whenComplete((profile, failure) -> {
+        try {
+          if (failure != null) {
+            failureHandler.accept(link.url, failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure);
+          }
+        } finally {
+          completed(link, profile);
+        }
+      });
+    }
+
+    private synchronized void completed(Link link, BaseResourceProfile profile) {
+      inFlight--;
+      inFlightPerHost.computeIfPresent(link.host, (host, count) -> count > 1 ? count - 1 : null);
+      if (!closed && profile != null) {
+        buffer.add(profile);
+        if (link.depth < maxDepth) {
+          profile.getGraph().ifPresent(graph -> follow(graph, link.depth + 1));
+        }
+      }
+      dispatch();
+      notifyAll();
+    }
+
+    private void follow(Model graph, int depth) {
+      for (Statement statement : graph) {
+        Value target = statement.getObject();
+        if (!LINKS.contains(statement.getPredicate()) || !target.isIRI()) {
+          continue;
+        }
+        String url = getDocumentURL(target.stringValue());
+        if (visited.add(url)) {
+          getHost(url).ifPresent(host -> enqueue(new Link(url, host, depth)));
+        }
+      }
+    }
+  }
+
+  public static class Builder {
+    private final AsyncResourceProfileReader reader;
+    private int maxDepth = Integer.MAX_VALUE;
+    private int maxInFlight = 64;
+    private int maxInFlightPerHost = 8;
+    private BiConsumer<String, Throwable> failureHandler = (url, failure) ->
+            LOGGER.warning("Failed to read resource profile " + url + ": " + failure.getMessage());
+
+    /**
+     * @param reader the reader that retrieves the profiles, which remains open after a crawl
+     */
+    public Builder(AsyncResourceProfileReader reader) {
+      this.reader = reader;
+    }
+
+    /**
+     * Sets the maximum number of links that are followed from the seed profile. A depth of
+     * <code>0</code> reads only the seed profile.
+     */
+    public Builder setMaxDepth(int maxDepth) {
+      if (maxDepth < 0) {
+        throw new IllegalArgumentException("The maximum depth of a crawl must not be negative");
+      }
+      this.maxDepth = maxDepth;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of profiles that are read concurrently or wait to be consumed.
+     */
+    public Builder setMaxInFlight(int maxInFlight) {
+      if (maxInFlight < 1) {
+        throw new IllegalArgumentException("The maximum number of profiles in flight must be positive");
+      }
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    public Builder setMaxInFlightPerHost(int maxInFlightPerHost) {
+      if (maxInFlightPerHost < 1) {
+        throw new IllegalArgumentException("The maximum number of profiles in flight must be positive");
+      }
+      this.maxInFlightPerHost = maxInFlightPerHost;
+      return this;
+    }
+
+    /**
+     * Sets the handler of the profiles that cannot be read, which is called with the URL of the
+     * profile and the cause of the failure. By default, failures are logged.
+     */
+    public Builder setFailureHandler(BiConsumer<String, Throwable> failureHandler) {
+      this.failureHandler = failureHandler;
+      return this;
+    }
+
+    public ResourceProfileCrawler build() {
+      return new ResourceProfileCrawler(this);
+    }
+  }
+}
@@ -0,0 +1,312 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+import ch.unisg.ics.interactions.hmas.core.utils.CanonicalForm;
+import com.google.common.hash.Hashing;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.*;
+
+/**
+ * The difference between two versions of a resource profile, i.e. the statements that were added
+ * to and removed from the profile, for synchronizing profiles with messages proportional to the
+ * size of the change rather than to the size of the profile.
+ * <p>
+ * Versions are compared in canonical form (see {@link CanonicalForm}), such that blank nodes are
+ * matched by their statements rather than by their labels, and each version is identified by the
+ * SHA-256 digest of its canonical form (see {@link #versionOf(BaseResourceProfile)}). A delta is
+ * exchanged in the format of <a href="https://afs.github.io/rdf-patch/">RDF Patch</a>:
+ * <pre>
+ * H id &lt;urn:sha256:...&gt; .
+ * H prev &lt;urn:sha256:...&gt; .
+ * TX .
+ * D &lt;urn:workspace&gt; &lt;https://purl.org/hmas/contains&gt; &lt;urn:artifact1&gt; .
+ * A &lt;urn:workspace&gt; &lt;https://purl.org/hmas/contains&gt; &lt;urn:artifact2&gt; .
+ * TC .
+ * </pre>
+ */
+public final class ResourceProfileDelta {
+
+  private static final String VERSION_PREFIX = "urn:sha256:";
+
+  private final String previousVersion;
+  private final String version;
+  private final Model removed;
+  private final Model added;
+
+  private ResourceProfileDelta(String previousVersion, String version, Model removed, Model added) {
+    this.previousVersion = previousVersion;
+    this.version = version;
+    this.removed = removed;
+    this.added = added;
+  }
+
+  /**
+   * Computes the difference between two versions of a resource profile.
+   *
+   * @param previous the previous version of the profile
+   * @param next     the next version of the profile
+   * @return the delta that turns the previous version into the next version
+   */
+  public static ResourceProfileDelta between(BaseResourceProfile previous, BaseResourceProfile next) {
+    CanonicalModel from = CanonicalModel.of(previous);
+    CanonicalModel to = CanonicalModel.of(next);
+
+    Model removed = new LinkedHashModel();
+    from.statements.forEach((line, statement) -> {
+      if (!to.statements.containsKey(line)) {
+        removed.add(statement);
+      }
+    });
+    Model added = new LinkedHashModel();
+    to.statements.forEach((line, statement) -> {
+      if (!from.statements.containsKey(line)) {
+        added.add(statement);
+      }
+    });
+    return new ResourceProfileDelta(from.version, to.version, removed, added);
+  }
+
+  /**
+   * Returns the version of a resource profile, i.e. the SHA-256 digest of its statements in
+   * canonical form.
+   */
+  public static String versionOf(BaseResourceProfile profile) {
+    return CanonicalModel.of(profile).version;
+  }
+
+  /**
+   * Applies the delta to the previous version of a resource profile, e.g. a profile that was
+   * decoded from an earlier representation, and decodes the next version from the resulting
+   * statements. The representation of the next version is not transferred nor parsed.
+   *
+   * @param profile the previous version of the profile
+   * @return the next version of the profile
+   * @throws IllegalArgumentException if the profile is not the version to which the delta applies
+   */
+  public BaseResourceProfile applyTo(BaseResourceProfile profile) {
+    CanonicalModel base = CanonicalModel.of(profile);
+    if (!base.version.equals(previousVersion)) {
+      throw new IllegalArgumentException("The delta applies to version " + previousVersion
+              + ", but the profile is at version " + base.version);
+    }
+
+    Model model = new LinkedHashModel(base.statements.values());
+    model.setNamespace(PREFIX, NAMESPACE);
+    model.removeAll(removed);
+    model.addAll(added);
+    return BaseResourceProfileGraphReader.readFrom(model);
+  }
+
+  /**
+   * Reads a delta in RDF Patch format. Prefix headers and transaction aborts are not supported.
+   *
+   * @param patch the representation of the delta
+   * @return the delta
+   * @throws RDFParseException if the representation is not a valid delta
+   */
+  public static ResourceProfileDelta readFromString(String patch) {
+    try {
+      return readFrom(new StringReader(patch));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads a delta in RDF Patch format from a character stream (see {@link #readFromString(String)}).
+   * The stream is not closed by this method.
+   */
+  public static ResourceProfileDelta readFrom(Reader patch) throws IOException {
+    Map<String, String> headers = new HashMap<>();
+    StringBuilder removed = new StringBuilder();
+    StringBuilder added = new StringBuilder();
+
+    BufferedReader reader = new BufferedReader(patch);
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#") || line.equals("TX .") || line.equals("TC .")) {
+        continue;
+      }
+      if (line.startsWith("H ")) {
+        String[] header = line.substring(2).trim().split("\\s+", 2);
+        headers.put(header[0], header.length > 1 ? stripHeaderValue(header[1]) : "");
+      } else if (line.startsWith("A ")) {
+        added.append(line, 2, line.length()).append('\n');
+      } else if (line.startsWith("D ")) {
+        removed.append(line, 2, line.length()).append('\n');
+      } else {
+        throw new RDFParseException("Unsupported line in RDF Patch: " + line, lineNumber, -1);
+      }
+    }
+
+    if (!headers.containsKey("id") || !headers.containsKey("prev")) {
+      throw new RDFParseException("The RDF Patch does not identify the versions of the profile");
+    }
+    return new ResourceProfileDelta(headers.get("prev"), headers.get("id"),
+            parseStatements(removed.toString()), parseStatements(added.toString()));
+  }
+
+  private static String stripHeaderValue(String value) {
+    String stripped = value.endsWith(".") ? value.substring(0, value.length() - 1).trim() : value;
+    if (stripped.startsWith("<") && stripped.endsWith(">")) {
+      stripped = stripped.substring(1, stripped.length() - 1);
+    }
+    return stripped.startsWith(VERSION_PREFIX) ? stripped.substring(VERSION_PREFIX.length()) : stripped;
+  }
+
+  /* Blank node labels are preserved, such that they match the canonical labels of the previous version */
+  private static Model parseStatements(String statements) throws IOException {
+    Model model = new LinkedHashModel();
+    RDFParser parser = Rio.createParser(RDFFormat.NQUADS);
+    parser.getParserConfig().set(BasicParserSettings.PRESERVE_BNODE_IDS, true);
+    parser.setRDFHandler(new StatementCollector(model));
+    parser.parse(new StringReader(statements));
+    return model;
+  }
+
+  /**
+   * Returns the representation of the delta in RDF Patch format.
+   */
+  public String write() {
+    StringWriter out = new StringWriter();
+    try {
+      write(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * Writes the delta in RDF Patch format to a character stream, removals first. The stream is
+   * not closed by this method.
+   */
+  public void write(Writer out) throws IOException {
+    out.write("H id <" + VERSION_PREFIX + version + "> .\n");
+    out.write("H prev <" + VERSION_PREFIX + previousVersion + "> .\n");
+    out.write("TX .\n");
+    for (Statement statement : removed) {
+      out.write("D " + CanonicalForm.toNQuads(statement) + "\n");
+    }
+    for (Statement statement : added) {
+      out.write("A " + CanonicalForm.toNQuads(statement) + "\n");
+    }
+    out.write("TC .\n");
+    out.flush();
+  }
+
+  public String getPreviousVersion() {
+    return previousVersion;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  public Model getRemovedStatements() {
+    return removed;
+  }
+
+  public Model getAddedStatements() {
+    return added;
+  }
+
+  /**
+   * Returns the resources that became related to a resource through the given relation, e.g. the
+   * artifacts that joined a workspace through <code>hmas:contains</code>, or the agents that
+   * joined a platform through <code>hmas:hosts</code>.
+   */
+  public Set<Resource> getAddedResources(IRI relation) {
+    return getMembers(added, relation);
+  }
+
+  /**
+   * Returns the resources that are no longer related to a resource through the given relation (see
+   * {@link #getAddedResources(IRI)}).
+   */
+  public Set<Resource> getRemovedResources(IRI relation) {
+    return getMembers(removed, relation);
+  }
+
+  public Set<Resource> getAddedContainedResources() {
+    return getAddedResources(CONTAINS);
+  }
+
+  public Set<Resource> getRemovedContainedResources() {
+    return getRemovedResources(CONTAINS);
+  }
+
+  public Set<Resource> getAddedHostedResources() {
+    return getAddedResources(HOSTS);
+  }
+
+  public Set<Resource> getRemovedHostedResources() {
+    return getRemovedResources(HOSTS);
+  }
+
+  private static Set<Resource> getMembers(Model model, IRI relation) {
+    Set<Resource> members = new LinkedHashSet<>();
+    for (Statement statement : model.getStatements(null, relation, null)) {
+      if (statement.getObject() instanceof Resource) {
+        members.add((Resource) statement.getObject());
+      }
+    }
+    return members;
+  }
+
+  /**
+   * Checks whether the two versions of the profile have the same statements.
+   */
+  public boolean isEmpty() {
+    return removed.isEmpty() && added.isEmpty();
+  }
+
+  /* A profile in canonical form: its statements keyed by their N-Quads line, and its version */
+  private static final class CanonicalModel {
+    private final Map<String, Statement> statements = new LinkedHashMap<>();
+    private final String version;
+
+    private CanonicalModel(List<Statement> canonical) {
+      StringBuilder lines = new StringBuilder();
+      for (Statement statement : canonical) {
+        String line = CanonicalForm.toNQuads(statement);
+        statements.put(line, statement);
+        lines.append(line).append('\n');
+      }
+      this.version = Hashing.sha256().hashString(lines, StandardCharsets.UTF_8).toString();
+    }
+
+    private static CanonicalModel of(BaseResourceProfile profile) {
+      return new CanonicalModel(CanonicalForm.canonicalize(getStatements(profile)));
+    }
+
+    /*
+     * Decoded profiles keep the statements from which they were decoded as their graph. These are
+     * used as they are, since writing the profile again would describe its anonymous resources twice.
+     */
+    private static Model getStatements(BaseResourceProfile profile) {
+      Optional<Model> graph = profile.getGraph();
+      if (graph.isPresent() && graph.get().contains(null, RDF.TYPE, RESOURCE_PROFILE)
+              && graph.get().contains(null, IS_PROFILE_OF, null)) {
+        return graph.get();
+      }
+      return new BaseResourceProfileGraphWriter<>(profile).toModel();
+    }
+  }
+}
@@ -0,0 +1,278 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.eclipse.rdf4j.rio.RDFFormat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A cache of the encoded representations of resource profiles, for servers that repeatedly serve
+ * the same profiles. Profiles are immutable once built, such that the representation of a profile
+ * in a given format is written once, and then served from the cache together with its strong
+ * <code>ETag</code> and, optionally, a gzip-compressed variant.
+ * <p>
+ * Representations are keyed by profile instance and format. All representations of a cache are
+ * written with the same writer configuration (see {@link Builder#setWriterFactory(Function)}), and
+ * the size of the cache is bounded by the total number of bytes of the cached representations.
+ */
+public class ResourceProfileRepresentationCache {
+
+  private final Cache<Key, Representation> representations;
+  private final Function<BaseResourceProfile, BaseResourceProfileGraphWriter<?>> writerFactory;
+  private final boolean gzip;
+
+  protected ResourceProfileRepresentationCache(Builder builder) {
+    this.representations = CacheBuilder.newBuilder()
+            .maximumWeight(builder.maximumWeight)
+            .weigher((Key key, Representation representation) -> representation.getWeight())
+            /* A single segment, such that the weight bound applies to the cache as a whole */
+            .concurrencyLevel(1)
+            .recordStats()
+            .build();
+    this.writerFactory = builder.writerFactory;
+    this.gzip = builder.gzip;
+  }
+
+  /**
+   * Returns the representation of a resource profile in the given format. The representation is
+   * written on the first request, and concurrent requests for the same representation wait for it
+   * to be written once.
+   *
+   * @param profile the resource profile
+   * @param format  the format of the representation
+   * @return the representation of the profile
+   */
+  public Representation getRepresentation(BaseResourceProfile profile, RDFFormat format) {
+    try {
+      return representations.get(new Key(profile, format), () -> encode(profile, format));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof IOException) {
+        throw new UncheckedIOException((IOException) e.getCause());
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private Representation encode(BaseResourceProfile profile, RDFFormat format) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writerFactory.apply(profile).write(out, format);
+    byte[] content = out.toByteArray();
+
+    byte[] gzipped = null;
+    if (gzip) {
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4 + 64);
+      try (GZIPOutputStream gzipOut = new GZIPOutputStream(compressed)) {
+        gzipOut.write(content);
+      }
+      gzipped = compressed.toByteArray();
+    }
+    return new Representation(format, content, gzipped);
+  }
+
+  public void invalidate(BaseResourceProfile profile) {
+    for (RDFFormat format : ReadWriteUtils.SUPPORTED_FORMATS) {
+      representations.invalidate(new Key(profile, format));
+    }
+  }
+
+  public void invalidateAll() {
+    representations.invalidateAll();
+  }
+
+  /**
+   * Returns the number of representations that are currently cached.
+   */
+  public long size() {
+    return representations.size();
+  }
+
+  public long getHitCount() {
+    return representations.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return representations.stats().missCount();
+  }
+
+  public long getEvictionCount() {
+    return representations.stats().evictionCount();
+  }
+
+  /* Profiles are compared by identity: equal profiles built separately are cached separately */
+  private static final class Key {
+    private final BaseResourceProfile profile;
+    private final RDFFormat format;
+
+    private Key(BaseResourceProfile profile, RDFFormat format) {
+      this.profile = profile;
+      this.format = format;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return profile == other.profile && format.equals(other.format);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(profile) + format.hashCode();
+    }
+  }
+
+  /**
+   * An encoded representation of a resource profile.
+   */
+  public static final class Representation {
+    private final RDFFormat format;
+    private final byte[] content;
+    private final byte[] gzipped;
+    private final String etag;
+
+    private Representation(RDFFormat format, byte[] content, byte[] gzipped) {
+      this.format = format;
+      this.content = content;
+      this.gzipped = gzipped;
+      this.etag = "\"" + Hashing.sha256().hashBytes(content) + "\"";
+    }
+
+    public RDFFormat getFormat() {
+      return format;
+    }
+
+    /**
+     * Returns the value of the <code>Content-Type</code> header of the representation.
+     */
+    public String getContentType() {
+      return format.hasCharset()
+              ? format.getDefaultMIMEType() + "; charset=" + StandardCharsets.UTF_8.name()
+              : format.getDefaultMIMEType();
+    }
+
+    /**
+     * Returns the strong entity tag of the representation, i.e. the quoted SHA-256 digest of its
+     * bytes, which can be used as the value of the <code>ETag</code> header.
+     */
+    public String getETag() {
+      return etag;
+    }
+
+    public int getLength() {
+      return content.length;
+    }
+
+    /**
+     * Returns a copy of the bytes of the representation. Use {@link #writeTo(OutputStream)} to
+     * serve the representation without copying it.
+     */
+    public byte[] getBytes() {
+      return content.clone();
+    }
+
+    public InputStream getContent() {
+      return new ByteArrayInputStream(content);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+      out.write(content);
+    }
+
+    /**
+     * Returns the length of the gzip-compressed variant of the representation, if the cache
+     * compresses representations.
+     */
+    public Optional<Integer> getGzipLength() {
+      return Optional.ofNullable(gzipped).map(bytes -> bytes.length);
+    }
+
+    /**
+     * Returns the entity tag of the gzip-compressed variant of the representation, which differs
+     * from the entity tag of the uncompressed representation, as required for strong validators.
+     */
+    public Optional<String> getGzipETag() {
+      return Optional.ofNullable(gzipped).map(bytes -> etag.substring(0, etag.length() - 1) + "-gzip\"");
+    }
+
+    /**
+     * Returns the gzip-compressed variant of the representation (i.e. for requests that accept the
+     * <code>gzip</code> content coding), if the cache compresses representations.
+     */
+    public Optional<InputStream> getGzipContent() {
+      return Optional.ofNullable(gzipped).map(ByteArrayInputStream::new);
+    }
+
+    /**
+     * Writes the gzip-compressed variant of the representation.
+     *
+     * @throws IllegalStateException if the cache does not compress representations
+     */
+    public void writeGzipTo(OutputStream out) throws IOException {
+      if (gzipped == null) {
+        throw new IllegalStateException("The representation has no gzip-compressed variant");
+      }
+      out.write(gzipped);
+    }
+
+    private int getWeight() {
+      return content.length + (gzipped == null ? 0 : gzipped.length);
+    }
+  }
+
+  public static class Builder {
+    private long maximumWeight = 64L * 1024 * 1024;
+    private boolean gzip = false;
+    private Function<BaseResourceProfile, BaseResourceProfileGraphWriter<?>> writerFactory =
+            profile -> new BaseResourceProfileGraphWriter<>(profile).setCanonical(true);
+
+    /**
+     * Sets the maximum total number of bytes of the cached representations, including their
+     * compressed variants. By default, the cache holds up to 64 MiB.
+     */
+    public Builder setMaximumWeight(long maximumWeight) {
+      if (maximumWeight < 1) {
+        throw new IllegalArgumentException("The maximum weight of the cache must be positive");
+      }
+      this.maximumWeight = maximumWeight;
+      return this;
+    }
+
+    /**
+     * Sets whether a gzip-compressed variant of each representation is cached as well, such that
+     * representations are compressed once instead of once per response. Disabled by default.
+     */
+    public Builder setGzip(boolean gzip) {
+      this.gzip = gzip;
+      return this;
+    }
+
+    /**
+     * Sets the factory of the writers that encode the representations, e.g. to write profiles
+     * with a given expansion depth. By default, profiles are written in canonical form (see
+     * {@link BaseResourceProfileGraphWriter#setCanonical(boolean)}), such that equal profiles have
+     * the same <code>ETag</code>, also if they are cached separately or by different servers.
+     */
+    public Builder setWriterFactory(Function<BaseResourceProfile, BaseResourceProfileGraphWriter<?>> writerFactory) {
+      this.writerFactory = writerFactory;
+      return this;
+    }
+
+    public ResourceProfileRepresentationCache build() {
+      return new ResourceProfileRepresentationCache(this);
+    }
+  }
+}
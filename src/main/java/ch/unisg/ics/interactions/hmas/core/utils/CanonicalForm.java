@@ -0,0 +1,182 @@
+package ch.unisg.ics.interactions.hmas.core.utils;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.helpers.NTriplesUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Computes the canonical form of a set of statements: blank nodes are labeled after the
+ * statements in which they occur, instead of after the labels they happen to have, and the
+ * statements are sorted by their N-Triples (or N-Quads) representation. Two sets of statements that
+ * differ only in the labels of their blank nodes or in their order have the same canonical form,
+ * such that they can be compared by their digest.
+ * <p>
+ * Blank nodes are labeled by iteratively hashing the statements in which they occur. Blank nodes
+ * that cannot be told apart this way are typically interchangeable (e.g. anonymous resources with
+ * identical descriptions), and are labeled in an arbitrary order that does not affect the
+ * canonical form. Only blank nodes that are told apart solely by their position in symmetric
+ * structures (e.g. in a ring of blank nodes) may be labeled differently across writes.
+ */
+public final class CanonicalForm {
+
+  private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+  private static final ValueFactory rdf = SimpleValueFactory.getInstance();
+
+  private CanonicalForm() {
+  }
+
+  /**
+   * Returns the statements in canonical form, i.e. with canonical blank node labels, sorted, and
+   * without duplicates.
+   *
+   * @param statements the statements
+   * @return the sorted statements with canonical blank node labels
+   */
+  public static List<Statement> canonicalize(Iterable<? extends Statement> statements) {
+    Map<BNode, BNode> labels = label(statements);
+
+    SortedMap<String, Statement> canonical = new TreeMap<>();
+    for (Statement statement : statements) {
+      Statement relabeled = labels.isEmpty() ? statement : rdf.createStatement(
+              (org.eclipse.rdf4j.model.Resource) relabel(statement.getSubject(), labels),
+              statement.getPredicate(), relabel(statement.getObject(), labels),
+              (org.eclipse.rdf4j.model.Resource) relabel(statement.getContext(), labels));
+      canonical.put(toNQuads(relabeled), relabeled);
+    }
+    return new ArrayList<>(canonical.values());
+  }
+
+  /**
+   * Returns the canonical N-Triples (or N-Quads) representation of the statements, i.e. one line
+   * per statement in canonical form.
+   */
+  public static String toNQuads(Iterable<? extends Statement> statements) {
+    StringBuilder builder = new StringBuilder();
+    for (Statement statement : canonicalize(statements)) {
+      builder.append(toNQuads(statement)).append('\n');
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Returns the SHA-256 digest of the canonical N-Triples (or N-Quads) representation of the
+   * statements.
+   */
+  public static HashCode hash(Iterable<? extends Statement> statements) {
+    return HASH_FUNCTION.hashString(toNQuads(statements), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the N-Triples (or N-Quads) line of a single statement, without line terminator, as
+   * it is sorted and hashed in canonical form.
+   */
+  public static String toNQuads(Statement statement) {
+    StringBuilder line = new StringBuilder()
+            .append(NTriplesUtil.toNTriplesString(statement.getSubject())).append(' ')
+            .append(NTriplesUtil.toNTriplesString(statement.getPredicate())).append(' ')
+            .append(NTriplesUtil.toNTriplesString(statement.getObject(), true));
+    if (statement.getContext() != null) {
+      line.append(' ').append(NTriplesUtil.toNTriplesString(statement.getContext()));
+    }
+    return line.append(" .").toString();
+  }
+
+  private static Value relabel(Value value, Map<BNode, BNode> labels) {
+    return value instanceof BNode ? labels.get(value) : value;
+  }
+
+  /* Maps each blank node to its canonical label, refining the hashes of blank nodes until they are distinct */
+  private static Map<BNode, BNode> label(Iterable<? extends Statement> statements) {
+    Map<BNode, List<Statement>> occurrences = new HashMap<>();
+    for (Statement statement : statements) {
+      for (Value value : Arrays.asList(statement.getSubject(), statement.getObject(), statement.getContext())) {
+        if (value instanceof BNode) {
+          occurrences.computeIfAbsent((BNode) value, node -> new ArrayList<>()).add(statement);
+        }
+      }
+    }
+    if (occurrences.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    Map<BNode, HashCode> hashes = new HashMap<>();
+    occurrences.keySet().forEach(node -> hashes.put(node, HASH_FUNCTION.hashInt(0)));
+    int classes = refine(occurrences, hashes, 1);
+
+    while (classes < hashes.size()) {
+      /*
+       * Individualize the blank nodes of the smallest hash that is shared by several blank nodes.
+       * These are typically interchangeable (e.g. anonymous resources with identical descriptions),
+       * such that the canonical form does not depend on which of them is labeled first.
+       */
+      Map<HashCode, List<BNode>> byHash = new HashMap<>();
+      hashes.forEach((node, hash) -> byHash.computeIfAbsent(hash, h -> new ArrayList<>()).add(node));
+      Map.Entry<HashCode, List<BNode>> shared = byHash.entrySet().stream()
+              .filter(entry -> entry.getValue().size() > 1)
+              .min(Comparator.comparing(entry -> entry.getKey().toString()))
+              .get();
+      List<BNode> nodes = shared.getValue();
+      for (int i = 0; i < nodes.size(); i++) {
+        hashes.put(nodes.get(i), HASH_FUNCTION.newHasher().putBytes(shared.getKey().asBytes()).putInt(i).hash());
+      }
+      classes = refine(occurrences, hashes, classes + nodes.size() - 1);
+    }
+
+    Map<BNode, BNode> labels = new HashMap<>();
+    hashes.forEach((node, hash) -> labels.put(node, rdf.createBNode("c" + hash.toString().substring(0, 32))));
+    return labels;
+  }
+
+  /* Rehashes blank nodes after their statements until the number of distinct hashes stops growing */
+  private static int refine(Map<BNode, List<Statement>> occurrences, Map<BNode, HashCode> hashes, int classes) {
+    while (true) {
+      Map<BNode, HashCode> refined = new HashMap<>();
+      for (Map.Entry<BNode, List<Statement>> entry : occurrences.entrySet()) {
+        BNode node = entry.getKey();
+        List<String> signatures = new ArrayList<>();
+        for (Statement statement : entry.getValue()) {
+          signatures.add(signature(statement, node, hashes));
+        }
+        Collections.sort(signatures);
+
+        Hasher hasher = HASH_FUNCTION.newHasher().putBytes(hashes.get(node).asBytes());
+        signatures.forEach(signature -> hasher.putString(signature, StandardCharsets.UTF_8).putChar('\n'));
+        refined.put(node, hasher.hash());
+      }
+
+      int refinedClasses = new HashSet<>(refined.values()).size();
+      hashes.putAll(refined);
+      if (refinedClasses <= classes) {
+        return refinedClasses;
+      }
+      classes = refinedClasses;
+    }
+  }
+
+  private static String signature(Statement statement, BNode node, Map<BNode, HashCode> hashes) {
+    return term(statement.getSubject(), node, hashes) + ' '
+            + NTriplesUtil.toNTriplesString(statement.getPredicate()) + ' '
+            + term(statement.getObject(), node, hashes) + ' '
+            + (statement.getContext() == null ? "" : term(statement.getContext(), node, hashes));
+  }
+
+  private static String term(Value value, BNode node, Map<BNode, HashCode> hashes) {
+    if (value.equals(node)) {
+      return "_:self";
+    }
+    if (value instanceof BNode) {
+      return "_:" + hashes.get(value);
+    }
+    return NTriplesUtil.toNTriplesString(value, true);
+  }
+}
@@ -2,6 +2,7 @@ package ch.unisg.ics.interactions.hmas.core.hostables;
 
 import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.util.ModelBuilder;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
@@ -9,8 +10,10 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
+import static org.eclipse.rdf4j.model.util.Values.bnode;
 import static org.eclipse.rdf4j.model.util.Values.iri;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,6 +88,47 @@ public class AgentTest {
     assertTrue(resolvedGraph.contains(iri("urn:agent"), CORE.IS_HOSTED_ON, iri("http://yggdrasil.interactions.ics.unisg.ch/#platform")));
   }
 
+  @Test
+  public void testAgentWithTriples() {
+    List<Statement> triples = List.of(
+            SimpleValueFactory.getInstance().createStatement(iri("urn:agent"), RDF.TYPE, iri("http://example.org/jason/Agent")),
+            SimpleValueFactory.getInstance().createStatement(iri("urn:agent"), CORE.IS_CONTAINED_IN, iri("urn:workspace")));
+    Model batch = new ModelBuilder()
+            .subject(bnode("b0"))
+            .add(CORE.IS_HOSTED_ON, iri("urn:platform"))
+            .add(RDF.TYPE, iri("http://example.org/jason/Agent"))
+            .build();
+
+    Agent agent = new Agent.Builder()
+            .setIRIAsString("urn:agent")
+            .addTriples(triples)
+            .addTriple(iri("urn:workspace"), RDF.TYPE, CORE.WORKSPACE)
+            .addBNodeTriples(batch)
+            .addTriple(CORE.IS_HOSTED_ON, iri("urn:other-platform"))
+            .addBNodeTriples(List.of())
+            .build();
+
+    assertEquals(3, agent.getGraph().get().size());
+    assertTrue(agent.getGraph().get().containsAll(triples));
+
+    Model resolvedGraph = agent.getResolvedGraph(iri("urn:agent")).get();
+    assertEquals(5, resolvedGraph.size());
+    assertTrue(resolvedGraph.contains(iri("urn:agent"), CORE.IS_HOSTED_ON, iri("urn:platform")));
+    assertTrue(resolvedGraph.contains(iri("urn:agent"), CORE.IS_HOSTED_ON, iri("urn:other-platform")));
+    assertFalse(resolvedGraph.contains(bnode("b0"), null, null));
+  }
+
+  @Test
+  public void testAgentWithEmptyTriples() {
+    Agent agent = new Agent.Builder()
+            .addTriples(List.of())
+            .addBNodeTriples(new ModelBuilder().build())
+            .build();
+
+    assertFalse(agent.getGraph().isPresent());
+    assertFalse(agent.getResolvedGraph(iri("urn:agent")).isPresent());
+  }
+
   @Test
   public void testAgentDefault() {
     Agent agent = new Agent.Builder()
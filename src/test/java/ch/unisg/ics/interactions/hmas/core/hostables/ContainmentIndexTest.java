@@ -0,0 +1,179 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContainmentIndexTest {
+
+  /* A chain of nested workspaces, each of which contains an artifact and the next workspace */
+  private static List<Workspace> nestedWorkspaces(int depth) {
+    List<Workspace> workspaces = new ArrayList<>();
+    Workspace inner = new Workspace.Builder()
+            .setIRIAsString("urn:workspace" + depth)
+            .addContainedResource(new Artifact.Builder().setIRIAsString("urn:artifact" + depth).build())
+            .build();
+    workspaces.add(0, inner);
+    for (int i = depth - 1; i >= 0; i--) {
+      inner = new Workspace.Builder()
+              .setIRIAsString("urn:workspace" + i)
+              .addContainedResource(new Artifact.Builder().setIRIAsString("urn:artifact" + i).build())
+              .addContainedResource(inner)
+              .build();
+      workspaces.add(0, inner);
+    }
+    return workspaces;
+  }
+
+  @Test
+  public void testTransitiveContainment() {
+    List<Workspace> workspaces = nestedWorkspaces(9);
+    ContainmentIndex index = ContainmentIndex.of(workspaces.get(0));
+    Artifact innermost = new Artifact.Builder().setIRIAsString("urn:artifact9").build();
+    Artifact unknown = new Artifact.Builder().setIRIAsString("urn:unknown").build();
+
+    assertEquals(20, index.size());
+    assertTrue(index.transitivelyContains(workspaces.get(0), innermost));
+    assertTrue(index.transitivelyContains(workspaces.get(3), workspaces.get(4)));
+    assertTrue(index.transitivelyContains(workspaces.get(3),
+            new Artifact.Builder().setIRIAsString("urn:artifact3").build()));
+    assertFalse(index.transitivelyContains(workspaces.get(3),
+            new Artifact.Builder().setIRIAsString("urn:artifact2").build()));
+    assertFalse(index.transitivelyContains(workspaces.get(3), workspaces.get(3)));
+    assertFalse(index.transitivelyContains(workspaces.get(9), unknown));
+
+    assertEquals(3, index.getTransitivelyContainedResources(workspaces.get(8)).size());
+    assertEquals(19, index.getTransitivelyContainedResources(workspaces.get(0)).size());
+    assertTrue(index.getTransitivelyContainedResources(workspaces.get(9)).contains(innermost));
+  }
+
+  @Test
+  public void testContainers() {
+    List<Workspace> workspaces = nestedWorkspaces(3);
+    ContainmentIndex index = ContainmentIndex.of(workspaces.get(0));
+    Artifact innermost = new Artifact.Builder().setIRIAsString("urn:artifact3").build();
+
+    assertEquals(workspaces.get(2),
+            index.getContainer(new Artifact.Builder().setIRIAsString("urn:artifact2").build()).get());
+    assertFalse(index.getContainer(workspaces.get(0)).isPresent());
+    assertEquals(List.of(workspaces.get(3), workspaces.get(2), workspaces.get(1), workspaces.get(0)),
+            index.getTransitiveContainers(innermost));
+    assertEquals(0, index.getDepth(workspaces.get(0)));
+    assertEquals(4, index.getDepth(innermost));
+    assertEquals(-1, index.getDepth(new Artifact.Builder().setIRIAsString("urn:unknown").build()));
+  }
+
+  @Test
+  public void testAddMembers() {
+    List<Workspace> workspaces = nestedWorkspaces(2);
+    ContainmentIndex index = ContainmentIndex.of(workspaces.get(0));
+    Artifact addedArtifact = new Artifact.Builder().setIRIAsString("urn:added/artifact").build();
+    Workspace added = new Workspace.Builder()
+            .setIRIAsString("urn:added")
+            .addContainedResource(addedArtifact)
+            .build();
+
+    assertTrue(index.add(workspaces.get(1), added));
+    assertFalse(index.add(workspaces.get(1), added));
+
+    assertTrue(index.transitivelyContains(workspaces.get(0), addedArtifact));
+    assertTrue(index.transitivelyContains(workspaces.get(1), added));
+    assertFalse(index.transitivelyContains(workspaces.get(2), added));
+    assertEquals(Set.of(workspaces.get(2),
+                    new Artifact.Builder().setIRIAsString("urn:artifact1").build(),
+                    new Artifact.Builder().setIRIAsString("urn:artifact2").build(),
+                    added, addedArtifact),
+            Set.copyOf(index.getTransitivelyContainedResources(workspaces.get(1))));
+    assertThrows(IllegalArgumentException.class, () ->
+            index.add(new Workspace.Builder().setIRIAsString("urn:unknown").build(),
+                    new Artifact.Builder().setIRIAsString("urn:artifact").build()));
+  }
+
+  @Test
+  public void testAddManyMembers() {
+    List<Workspace> workspaces = nestedWorkspaces(9);
+    ContainmentIndex index = ContainmentIndex.of(workspaces.get(0));
+
+    for (int i = 0; i < 1000; i++) {
+      index.add(workspaces.get(9), new Artifact.Builder().setIRIAsString("urn:workspace9/artifacts/" + i).build());
+      index.add(workspaces.get(4), new Artifact.Builder().setIRIAsString("urn:workspace4/artifacts/" + i).build());
+    }
+
+    assertEquals(2020, index.size());
+    assertEquals(0, index.getRelabelCount());
+    assertEquals(1001, index.getTransitivelyContainedResources(workspaces.get(9)).size());
+    assertEquals(2011, index.getTransitivelyContainedResources(workspaces.get(4)).size());
+    assertTrue(index.transitivelyContains(workspaces.get(0),
+            new Artifact.Builder().setIRIAsString("urn:workspace9/artifacts/999").build()));
+    assertFalse(index.transitivelyContains(workspaces.get(5),
+            new Artifact.Builder().setIRIAsString("urn:workspace4/artifacts/999").build()));
+  }
+
+  @Test
+  public void testAddMembersToAddedWorkspaces() {
+    List<Workspace> workspaces = nestedWorkspaces(9);
+    ContainmentIndex index = ContainmentIndex.of(workspaces.get(0));
+
+    /* Each added workspace takes a share of the gap of its container, which leaves room for its own members */
+    List<Workspace> added = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Workspace workspace = new Workspace.Builder().setIRIAsString("urn:workspace4/workspaces/" + i).build();
+      index.add(workspaces.get(4), workspace);
+      added.add(workspace);
+    }
+    for (int j = 0; j < 100; j++) {
+      for (int i = 0; i < 200; i++) {
+        index.add(added.get(i), new Artifact.Builder()
+                .setIRIAsString("urn:workspace4/workspaces/" + i + "/artifacts/" + j)
+                .build());
+      }
+    }
+
+    /* Workspaces that are added and filled one after the other */
+    for (int i = 0; i < 200; i++) {
+      Workspace workspace = new Workspace.Builder().setIRIAsString("urn:workspace7/workspaces/" + i).build();
+      index.add(workspaces.get(7), workspace);
+      for (int j = 0; j < 100; j++) {
+        index.add(workspace, new Artifact.Builder()
+                .setIRIAsString("urn:workspace7/workspaces/" + i + "/artifacts/" + j)
+                .build());
+      }
+    }
+
+    assertEquals(0, index.getRelabelCount());
+    assertEquals(40420, index.size());
+    assertEquals(20205, index.getTransitivelyContainedResources(workspaces.get(7)).size());
+    assertEquals(100, index.getTransitivelyContainedResources(added.get(199)).size());
+    assertEquals(40411, index.getTransitivelyContainedResources(workspaces.get(4)).size());
+    assertTrue(index.transitivelyContains(workspaces.get(4),
+            new Artifact.Builder().setIRIAsString("urn:workspace4/workspaces/0/artifacts/99").build()));
+    assertFalse(index.transitivelyContains(added.get(1),
+            new Artifact.Builder().setIRIAsString("urn:workspace4/workspaces/0/artifacts/99").build()));
+  }
+
+  @Test
+  public void testAddNestedMembers() {
+    Workspace root = new Workspace.Builder().setIRIAsString("urn:workspace").build();
+    ContainmentIndex index = ContainmentIndex.of(root);
+
+    /* Each added workspace is labeled within the gap of the previous one, until the gap is exhausted */
+    List<Workspace> workspaces = new ArrayList<>(List.of(root));
+    for (int i = 0; i < 40; i++) {
+      Workspace workspace = new Workspace.Builder().setIRIAsString("urn:workspace/" + i).build();
+      index.add(workspaces.get(workspaces.size() - 1), workspace);
+      workspaces.add(workspace);
+    }
+
+    assertTrue(index.getRelabelCount() > 0);
+    assertEquals(40, index.getDepth(workspaces.get(40)));
+    for (int i = 0; i < 40; i++) {
+      assertTrue(index.transitivelyContains(workspaces.get(i), workspaces.get(40)));
+      assertFalse(index.transitivelyContains(workspaces.get(i + 1), workspaces.get(i)));
+      assertEquals(40 - i, index.getTransitivelyContainedResources(workspaces.get(i)).size());
+    }
+  }
+}
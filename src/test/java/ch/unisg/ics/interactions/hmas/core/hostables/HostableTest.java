@@ -5,8 +5,10 @@ import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -71,6 +73,26 @@ public class HostableTest {
     });
   }
 
+  @Test
+  public void testHostableAddDeferredHMASPlatforms() {
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder().build();
+    AtomicInteger resolutions = new AtomicInteger();
+
+    Agent agent = new Agent.Builder()
+            .addHMASPlatform(new HypermediaMASPlatform.Builder().build())
+            .addDeferredHMASPlatforms(() -> {
+              resolutions.incrementAndGet();
+              return Collections.singleton(platform);
+            })
+            .build();
+
+    assertEquals(0, resolutions.get());
+    assertEquals(2, agent.getHMASPlatforms().size());
+    assertTrue(agent.getHMASPlatforms().contains(platform));
+    assertSame(agent.getHMASPlatforms(), agent.getHMASPlatforms());
+    assertEquals(1, resolutions.get());
+  }
+
   @Test
   public void testHostableSemanticTypes() {
     Agent.Builder builder = new Agent.Builder();
@@ -92,4 +114,34 @@ public class HostableTest {
     assertTrue(agent.getSemanticTypes().contains("http:example.org/onto/AgentType4"));
     assertTrue(agent.getSemanticTypes().contains(CORE.TERM.AGENT.toString()));
   }
+
+  @Test
+  public void testHostableEquality() {
+    Agent agent = new Agent.Builder().setIRIAsString("urn:agent").build();
+    Agent sameAgent = new Agent.Builder()
+            .setIRIAsString("urn:agent")
+            .addSemanticType("http:example.org/onto/AgentType1")
+            .build();
+
+    assertEquals(agent, sameAgent);
+    assertEquals(agent.hashCode(), sameAgent.hashCode());
+    assertNotEquals(agent, new Agent.Builder().setIRIAsString("urn:other-agent").build());
+    assertNotEquals(agent, new Artifact.Builder().setIRIAsString("urn:agent").build());
+
+    Agent anonymousAgent = new Agent.Builder().build();
+    assertEquals(anonymousAgent, anonymousAgent);
+    assertNotEquals(anonymousAgent, new Agent.Builder().build());
+  }
+
+  @Test
+  public void testHostableAddEqualHMASPlatforms() {
+    Agent agent = new Agent.Builder()
+            .addHMASPlatform(new HypermediaMASPlatform.Builder().setIRIAsString("urn:platform").build())
+            .addHMASPlatform(new HypermediaMASPlatform.Builder().setIRIAsString("urn:platform").build())
+            .addHMASPlatform(new HypermediaMASPlatform.Builder().build())
+            .addHMASPlatform(new HypermediaMASPlatform.Builder().build())
+            .build();
+
+    assertEquals(3, agent.getHMASPlatforms().size());
+  }
 }
@@ -5,9 +5,9 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class HypermediaMASPlatformTest {
   @Test
@@ -45,4 +45,39 @@ public class HypermediaMASPlatformTest {
     assertEquals(CORE.TERM.HMAS_PLATFORM, hMASPlatform.getType());
     assertEquals(0, hMASPlatform.getHostedResources().size());
   }
+
+  @Test
+  public void testDerivedHMASPlatform() {
+    Agent agent = new Agent.Builder().setIRIAsString("urn:agent").build();
+    Workspace workspace = new Workspace.Builder().setIRIAsString("urn:workspace").build();
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:platform")
+            .addHostedResource(agent)
+            .build();
+
+    HypermediaMASPlatform withWorkspace = platform.withHostedResource(workspace);
+
+    assertEquals(Set.of(agent), platform.getHostedResources());
+    assertEquals(Set.of(agent, workspace), withWorkspace.getHostedResources());
+    assertEquals(Set.of(workspace), withWorkspace.withoutHostedResource(agent).getHostedResources());
+    assertEquals("urn:platform", withWorkspace.getIRIAsString().get());
+    assertEquals(Set.of(agent), platform.toBuilder().build().getHostedResources());
+  }
+
+  @Test
+  public void testDerivedHMASPlatformReplacesHostedResource() {
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Artifact updated = new Artifact.Builder()
+            .setIRIAsString("urn:lamp")
+            .addSemanticType("https://example.org/onto#Lamp")
+            .build();
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder()
+            .addHostedResource(lamp)
+            .build();
+
+    AbstractHostable hosted = platform.withHostedResource(updated).getHostedResources().iterator().next();
+
+    assertSame(updated, hosted);
+    assertTrue(hosted.getSemanticTypes().contains("https://example.org/onto#Lamp"));
+  }
 }
@@ -0,0 +1,102 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentHashSetTest {
+
+  /* An element whose hash code is given, to force collisions in the trie */
+  private static final class Key {
+    private final int id;
+    private final int hash;
+
+    private Key(int id, int hash) {
+      this.id = id;
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && ((Key) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  @Test
+  public void testWithAndWithout() {
+    PersistentHashSet<Integer> empty = PersistentHashSet.empty();
+    PersistentHashSet<Integer> set = empty.withAll(List.of(1, 2, 3));
+    PersistentHashSet<Integer> derived = set.with(4).without(1);
+
+    assertTrue(empty.isEmpty());
+    assertEquals(Set.of(1, 2, 3), set);
+    assertEquals(Set.of(2, 3, 4), derived);
+    assertSame(set, set.with(2));
+    assertSame(set, set.without(5));
+    assertSame(set, PersistentHashSet.copyOf(set));
+    assertThrows(UnsupportedOperationException.class, () -> set.add(5));
+    assertThrows(UnsupportedOperationException.class, () -> set.remove(1));
+    assertThrows(NullPointerException.class, () -> set.with(null));
+  }
+
+  @Test
+  public void testCollisions() {
+    PersistentHashSet<Key> set = PersistentHashSet.empty();
+    for (int i = 0; i < 8; i++) {
+      /* Keys with equal hash codes, and keys whose hash codes only differ in the highest bits */
+      set = set.with(new Key(i, 42)).with(new Key(100 + i, 42 | (i << 30)));
+    }
+
+    assertEquals(16, set.size());
+    assertTrue(set.contains(new Key(3, 42)));
+    assertTrue(set.contains(new Key(103, 42 | (3 << 30))));
+    assertFalse(set.contains(new Key(3, 43)));
+
+    for (int i = 0; i < 8; i++) {
+      set = set.without(new Key(i, 42));
+    }
+    assertEquals(8, set.size());
+    assertEquals(8, new ArrayList<>(set).size());
+    assertTrue(set.contains(new Key(107, 42 | (7 << 30))));
+  }
+
+  @Test
+  public void testAgainstHashSet() {
+    Random random = new Random(7);
+    Set<Integer> expected = new HashSet<>();
+    PersistentHashSet<Integer> set = PersistentHashSet.empty();
+    List<PersistentHashSet<Integer>> versions = new ArrayList<>();
+    List<Set<Integer>> expectedVersions = new ArrayList<>();
+
+    for (int i = 0; i < 20000; i++) {
+      /* Few distinct hash codes in the low bits, such that paths are shared and nodes are split and merged */
+      int element = random.nextInt(4000) * (random.nextBoolean() ? 1 : 1 << 20);
+      if (random.nextInt(3) == 0) {
+        expected.remove(element);
+        set = set.without(element);
+      } else {
+        expected.add(element);
+        set = set.with(element);
+      }
+      if (i % 1000 == 0) {
+        versions.add(set);
+        expectedVersions.add(new HashSet<>(expected));
+      }
+    }
+
+    assertEquals(expected, set);
+    assertEquals(expected.size(), set.size());
+    assertEquals(expected.hashCode(), set.hashCode());
+    /* Derived sets do not modify the sets they are derived from */
+    for (int i = 0; i < versions.size(); i++) {
+      assertEquals(expectedVersions.get(i), versions.get(i));
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlatformStateTest {
+
+  private static PlatformState state() {
+    Workspace room = new Workspace.Builder()
+            .setIRIAsString("urn:room")
+            .addContainedResource(new Artifact.Builder().setIRIAsString("urn:lamp").build())
+            .build();
+    Workspace building = new Workspace.Builder()
+            .setIRIAsString("urn:building")
+            .addContainedResource(room)
+            .build();
+    return new PlatformState(new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:platform")
+            .addHostedResource(building)
+            .build());
+  }
+
+  private static Workspace getHostedWorkspace(HypermediaMASPlatform platform, String iri) {
+    return (Workspace) platform.getHostedResources().stream()
+            .filter(resource -> iri.equals(resource.getIRIAsString().orElse(null)))
+            .findFirst().get();
+  }
+
+  private static Workspace getContainedWorkspace(Workspace workspace, String iri) {
+    return (Workspace) workspace.getContainedResources().stream()
+            .filter(resource -> iri.equals(resource.getIRIAsString().orElse(null)))
+            .findFirst().get();
+  }
+
+  @Test
+  public void testUpdateNestedWorkspace() {
+    PlatformState state = state();
+    PlatformState.Snapshot first = state.getSnapshot();
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Artifact fan = new Artifact.Builder().setIRIAsString("urn:fan").build();
+    Agent agent = new Agent.Builder().setIRIAsString("urn:agent").build();
+
+    PlatformState.Snapshot second = state.update(transaction -> transaction
+            .addContainedResource("urn:room", fan)
+            .removeContainedResource("urn:room", lamp)
+            .addHostedResource(agent));
+
+    assertEquals(0, first.getVersion());
+    assertEquals(1, second.getVersion());
+    assertSame(second, state.getSnapshot());
+    assertEquals(Set.of(lamp), first.getWorkspace("urn:room").get().getContainedResources());
+    assertEquals(Set.of(fan), second.getWorkspace("urn:room").get().getContainedResources());
+    assertEquals("urn:building", second.getContainer("urn:room").get().getIRIAsString().get());
+
+    /* The changed workspace is reachable from the platform of the snapshot */
+    Workspace building = getHostedWorkspace(second.getPlatform(), "urn:building");
+    assertSame(second.getWorkspace("urn:building").get(), building);
+    assertSame(second.getWorkspace("urn:room").get(), getContainedWorkspace(building, "urn:room"));
+    assertTrue(second.getPlatform().getHostedResources().contains(agent));
+    assertEquals(1, first.getPlatform().getHostedResources().size());
+  }
+
+  @Test
+  public void testAddAndRemoveWorkspace() {
+    PlatformState state = state();
+    Workspace kitchen = new Workspace.Builder()
+            .setIRIAsString("urn:kitchen")
+            .addContainedResource(new Workspace.Builder().setIRIAsString("urn:pantry").build())
+            .build();
+    Artifact shelf = new Artifact.Builder().setIRIAsString("urn:shelf").build();
+
+    state.update(transaction -> transaction.addContainedResource("urn:building", kitchen));
+    PlatformState.Snapshot added = state.update(transaction ->
+            transaction.addContainedResource("urn:pantry", shelf));
+
+    assertEquals("urn:kitchen", added.getContainer("urn:pantry").get().getIRIAsString().get());
+    Workspace pantry = getContainedWorkspace(getContainedWorkspace(
+            getHostedWorkspace(added.getPlatform(), "urn:building"), "urn:kitchen"), "urn:pantry");
+    assertEquals(Set.of(shelf), pantry.getContainedResources());
+
+    PlatformState.Snapshot removed = state.update(transaction ->
+            transaction.removeContainedResource("urn:building", kitchen));
+    assertFalse(removed.getWorkspace("urn:kitchen").isPresent());
+    assertFalse(removed.getWorkspace("urn:pantry").isPresent());
+    assertEquals(2, removed.getWorkspaces().size());
+  }
+
+  @Test
+  public void testFailedTransaction() {
+    PlatformState state = state();
+    PlatformState.Snapshot first = state.getSnapshot();
+    Artifact fan = new Artifact.Builder().setIRIAsString("urn:fan").build();
+
+    assertThrows(IllegalArgumentException.class, () -> state.update(transaction -> transaction
+            .addContainedResource("urn:room", fan)
+            .addContainedResource("urn:unknown", fan)));
+    assertThrows(IllegalStateException.class, () -> state.update(transaction ->
+            state.update(nested -> nested.addHostedResource(fan))));
+
+    assertSame(first, state.getSnapshot());
+    assertSame(first, state.update(transaction -> transaction.getWorkspace("urn:room")));
+  }
+
+  @Test
+  public void testRemoveNonMember() {
+    PlatformState state = state();
+    PlatformState.Snapshot first = state.getSnapshot();
+    Artifact fan = new Artifact.Builder().setIRIAsString("urn:fan").build();
+
+    assertSame(first, state.update(transaction -> transaction.removeContainedResource("urn:room", fan)));
+    assertSame(first, state.update(transaction -> transaction.removeHostedResource(fan)));
+    assertThrows(IllegalArgumentException.class, () -> state.update(transaction ->
+            transaction.removeContainedResource("urn:unknown", fan)));
+    assertEquals(0, state.getVersion());
+  }
+
+  @Test
+  public void testConcurrentReadersSeeWholeTransactions() throws Exception {
+    PlatformState state = state();
+    state.update(transaction -> transaction.addHostedResource(new Workspace.Builder()
+            .setIRIAsString("urn:garage")
+            .build()));
+    AtomicBoolean updating = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+
+    try {
+      List<Future<?>> readers = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        readers.add(executor.submit(() -> {
+          while (updating.get()) {
+            /* Each transaction adds an artifact to both workspaces */
+            PlatformState.Snapshot snapshot = state.getSnapshot();
+            HypermediaMASPlatform platform = snapshot.getPlatform();
+            int room = getContainedWorkspace(getHostedWorkspace(platform, "urn:building"), "urn:room")
+                    .getContainedResources().size();
+            int garage = getHostedWorkspace(platform, "urn:garage").getContainedResources().size();
+            assertEquals(room - 1, garage);
+          }
+        }));
+      }
+      List<Future<?>> writers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        int writer = i;
+        writers.add(executor.submit(() -> {
+          for (int j = 0; j < 100; j++) {
+            Artifact artifact = new Artifact.Builder().setIRIAsString("urn:artifacts/" + writer + "/" + j).build();
+            state.update(transaction -> transaction
+                    .addContainedResource("urn:room", artifact)
+                    .addContainedResource("urn:garage", artifact));
+          }
+        }));
+      }
+      for (Future<?> writer : writers) {
+        writer.get(10, TimeUnit.SECONDS);
+      }
+      updating.set(false);
+      for (Future<?> reader : readers) {
+        reader.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(401, state.getVersion());
+    assertEquals(400, state.getSnapshot().getWorkspace("urn:garage").get().getContainedResources().size());
+  }
+}
@@ -0,0 +1,235 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static ch.unisg.ics.interactions.hmas.core.hostables.ResourceChangeEvent.Kind.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceChangePublisherTest {
+
+  /* Records the batches it receives, and requests batches on demand */
+  private static final class RecordingSubscriber implements Flow.Subscriber<List<ResourceChangeEvent>> {
+    private final BlockingQueue<List<ResourceChangeEvent>> batches = new LinkedBlockingQueue<>();
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(List<ResourceChangeEvent> batch) {
+      batches.add(batch);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed.countDown();
+    }
+
+    private void request(long n) {
+      subscription.request(n);
+    }
+
+    private List<ResourceChangeEvent> next() throws InterruptedException {
+      List<ResourceChangeEvent> batch = batches.poll(10, TimeUnit.SECONDS);
+      assertNotNull(batch);
+      return batch;
+    }
+  }
+
+  private static PlatformState state(Executor executor, int maxBatchSize) {
+    Workspace room = new Workspace.Builder()
+            .setIRIAsString("urn:room")
+            .addContainedResource(new Artifact.Builder().setIRIAsString("urn:lamp").build())
+            .build();
+    return new PlatformState(new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:platform")
+            .addHostedResource(room)
+            .build(), executor, maxBatchSize);
+  }
+
+  private static Set<String> describe(List<ResourceChangeEvent> batch) {
+    return batch.stream()
+            .map(change -> change.getKind() + " " + change.getResourceIRI().get() + " "
+                    + change.getContainerIRI().get() + " " + change.getVersion())
+            .collect(Collectors.toSet());
+  }
+
+  @Test
+  public void testPublishChanges() throws Exception {
+    PlatformState state = state(Runnable::run, 256);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    state.getChanges().subscribe(subscriber);
+    subscriber.request(Long.MAX_VALUE);
+
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Artifact fan = new Artifact.Builder().setIRIAsString("urn:fan").build();
+    Agent agent = new Agent.Builder().setIRIAsString("urn:agent").build();
+    state.update(transaction -> transaction
+            .addContainedResource("urn:room", fan)
+            .addHostedResource(agent));
+    state.update(transaction -> transaction.removeContainedResource("urn:room", lamp));
+    /* Removing a resource that is not a member is not a change */
+    state.update(transaction -> transaction.removeHostedResource(
+            new Artifact.Builder().setIRIAsString("urn:unknown").build()));
+
+    assertEquals(Set.of("ADDED urn:fan urn:room 1", "ADDED urn:agent urn:platform 1"), describe(subscriber.next()));
+    assertEquals(Set.of("REMOVED urn:lamp urn:room 2"), describe(subscriber.next()));
+    assertTrue(subscriber.batches.isEmpty());
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  public void testCoalesceChangesWithoutDemand() throws Exception {
+    PlatformState state = state(Runnable::run, 256);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    state.getChanges().subscribe(subscriber);
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Artifact fan = new Artifact.Builder().setIRIAsString("urn:fan").build();
+    Artifact door = new Artifact.Builder().setIRIAsString("urn:door").build();
+
+    state.update(transaction -> transaction.addContainedResource("urn:room", fan));
+    state.update(transaction -> transaction.removeContainedResource("urn:room", fan));
+    state.update(transaction -> transaction.removeContainedResource("urn:room", lamp));
+    state.update(transaction -> transaction.addContainedResource("urn:room", lamp));
+    state.update(transaction -> transaction
+            .addContainedResource("urn:room", door)
+            .addContainedResource("urn:room", door));
+    assertTrue(subscriber.batches.isEmpty());
+
+    subscriber.request(1);
+
+    List<ResourceChangeEvent> batch = subscriber.next();
+    assertEquals(Set.of("UPDATED urn:lamp urn:room 4", "ADDED urn:door urn:room 5"), describe(batch));
+    assertEquals(List.of(UPDATED, ADDED), batch.stream().map(ResourceChangeEvent::getKind).collect(Collectors.toList()));
+    assertEquals(5, state.getVersion());
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  public void testBatchSize() throws Exception {
+    PlatformState state = state(Runnable::run, 2);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    state.getChanges().subscribe(subscriber);
+
+    for (int i = 0; i < 5; i++) {
+      Artifact artifact = new Artifact.Builder().setIRIAsString("urn:artifacts/" + i).build();
+      state.update(transaction -> transaction.addContainedResource("urn:room", artifact));
+    }
+    subscriber.request(2);
+    assertEquals(2, subscriber.next().size());
+    assertEquals(2, subscriber.next().size());
+    assertTrue(subscriber.batches.isEmpty());
+
+    subscriber.request(1);
+    assertEquals(Set.of("ADDED urn:artifacts/4 urn:room 5"), describe(subscriber.next()));
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  public void testRequestNonPositiveNumberOfBatches() {
+    Queue<Runnable> tasks = new ArrayDeque<>();
+    PlatformState state = state(tasks::add, 256);
+    ResourceChangePublisher publisher = (ResourceChangePublisher) state.getChanges();
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher.subscribe(subscriber);
+    state.update(transaction -> transaction.addContainedResource("urn:room",
+            new Artifact.Builder().setIRIAsString("urn:fan").build()));
+
+    subscriber.request(0);
+    subscriber.request(1);
+
+    /* The error is signalled by the delivery task */
+    assertNull(subscriber.error);
+    while (!tasks.isEmpty()) {
+      tasks.poll().run();
+    }
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+    assertTrue(subscriber.batches.isEmpty());
+    assertEquals(0, publisher.getSubscriberCount());
+  }
+
+  @Test
+  public void testCancelAndClose() throws Exception {
+    PlatformState state = state(Runnable::run, 256);
+    ResourceChangePublisher publisher = (ResourceChangePublisher) state.getChanges();
+    RecordingSubscriber cancelled = new RecordingSubscriber();
+    RecordingSubscriber completed = new RecordingSubscriber();
+    publisher.subscribe(cancelled);
+    publisher.subscribe(completed);
+
+    cancelled.subscription.cancel();
+    state.update(transaction -> transaction.addContainedResource("urn:room",
+            new Artifact.Builder().setIRIAsString("urn:fan").build()));
+    state.close();
+    assertEquals(1, completed.completed.getCount());
+
+    completed.request(1);
+    assertEquals(1, completed.next().size());
+    assertTrue(completed.completed.await(10, TimeUnit.SECONDS));
+    assertTrue(cancelled.batches.isEmpty());
+    assertEquals(0, publisher.getSubscriberCount());
+    assertNull(completed.error);
+  }
+
+  @Test
+  public void testSlowSubscriberReceivesNetChanges() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    PlatformState state = state(executor, 16);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    state.getChanges().subscribe(subscriber);
+
+    try {
+      Set<String> members = new HashSet<>(Set.of("urn:lamp"));
+      Random random = new Random(3);
+      for (int i = 0; i < 2000; i++) {
+        String iri = "urn:artifacts/" + random.nextInt(50);
+        Artifact artifact = new Artifact.Builder().setIRIAsString(iri).build();
+        if (members.remove(iri)) {
+          state.update(transaction -> transaction.removeContainedResource("urn:room", artifact));
+        } else {
+          members.add(iri);
+          state.update(transaction -> transaction.addContainedResource("urn:room", artifact));
+        }
+        if (i % 100 == 0) {
+          subscriber.request(1);
+        }
+      }
+      state.close();
+      subscriber.request(Long.MAX_VALUE);
+      assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+      assertNull(subscriber.error);
+
+      /* Replaying the batches on the initial members yields the final members */
+      Set<String> replayed = new HashSet<>(Set.of("urn:lamp"));
+      int count = 0;
+      for (List<ResourceChangeEvent> batch : subscriber.batches) {
+        assertTrue(batch.size() <= 16);
+        for (ResourceChangeEvent change : batch) {
+          count++;
+          if (change.getKind() == REMOVED) {
+            assertTrue(replayed.remove(change.getResourceIRI().get()));
+          } else if (change.getKind() == ADDED) {
+            assertTrue(replayed.add(change.getResourceIRI().get()));
+          }
+        }
+      }
+      assertEquals(members, replayed);
+      assertTrue(count < 2000);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceInternerTest {
+
+  private static Agent hostedAgent(String agent) {
+    return new Agent.Builder()
+            .setIRIAsString(agent)
+            .addHMASPlatform(new HypermediaMASPlatform.Builder()
+                    .setIRIAsString("urn:platform")
+                    .build())
+            .build();
+  }
+
+  @Test
+  public void testIntern() {
+    ResourceInterner interner = new ResourceInterner();
+    Agent first = hostedAgent("urn:agent1");
+    Agent second = hostedAgent("urn:agent2");
+
+    HypermediaMASPlatform platform = interner.intern(first.getHMASPlatforms().iterator().next());
+    HypermediaMASPlatform samePlatform = interner.intern(second.getHMASPlatforms().iterator().next());
+
+    assertNotSame(first.getHMASPlatforms().iterator().next(), second.getHMASPlatforms().iterator().next());
+    assertSame(platform, samePlatform);
+    assertSame(first.getHMASPlatforms().iterator().next(), platform);
+  }
+
+  @Test
+  public void testInternAnonymousResources() {
+    ResourceInterner interner = new ResourceInterner();
+    Agent agent = new Agent.Builder().build();
+    Agent otherAgent = new Agent.Builder().build();
+
+    assertSame(agent, interner.intern(agent));
+    assertSame(otherAgent, interner.intern(otherAgent));
+  }
+
+  @Test
+  public void testInternAll() {
+    ResourceInterner interner = new ResourceInterner();
+    Agent agent = interner.intern(hostedAgent("urn:agent"));
+
+    Set<Agent> interned = interner.internAll(Set.of(hostedAgent("urn:agent"), hostedAgent("urn:other-agent")));
+
+    assertEquals(2, interned.size());
+    assertTrue(interned.stream().anyMatch(resource -> resource == agent));
+  }
+}
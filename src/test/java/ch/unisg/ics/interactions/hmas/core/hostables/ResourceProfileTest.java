@@ -1,13 +1,19 @@
 package ch.unisg.ics.interactions.hmas.core.hostables;
 
 import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import org.eclipse.rdf4j.model.util.Values;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 public class ResourceProfileTest {
 
@@ -44,6 +50,92 @@ public class ResourceProfileTest {
     });
   }
 
+  @Test
+  public void testContentHash() {
+    BaseResourceProfile profile = workspaceProfile("http://example.org/Robot");
+
+    assertEquals(profile.contentHash(), workspaceProfile("http://example.org/Robot").contentHash());
+    assertEquals(64, profile.contentHash().length());
+    assertNotEquals(profile.contentHash(), workspaceProfile("http://example.org/Drone").contentHash());
+    assertNotEquals(profile.contentHash(), ((Workspace) profile.getResource()).contentHash());
+  }
+
+  @Test
+  public void testContentHashWithCyclicHosting() {
+    BaseResourceProfile first = cyclicPlatformProfile();
+    BaseResourceProfile second = cyclicPlatformProfile();
+
+    assertEquals(first.contentHash(), second.contentHash());
+    assertEquals(first.contentHash(), first.contentHash());
+
+    HypermediaMASPlatform platform = (HypermediaMASPlatform) first.getResource();
+    AbstractHostable agent = platform.getHostedResources().iterator().next();
+    assertNotEquals(platform.contentHash(), agent.contentHash());
+  }
+
+  @Test
+  public void testContentHashWithCyclicHostingInAnyOrder() {
+    HypermediaMASPlatform first = (HypermediaMASPlatform) cyclicPlatformProfile().getResource();
+    HypermediaMASPlatform second = (HypermediaMASPlatform) cyclicPlatformProfile().getResource();
+    AbstractHostable firstAgent = first.getHostedResources().iterator().next();
+    AbstractHostable secondAgent = second.getHostedResources().stream()
+            .filter(firstAgent::equals)
+            .findFirst().get();
+
+    String firstPlatformHash = first.contentHash();
+    String firstAgentHash = firstAgent.contentHash();
+    String secondAgentHash = secondAgent.contentHash();
+    String secondPlatformHash = second.contentHash();
+
+    assertEquals(firstPlatformHash, secondPlatformHash);
+    assertEquals(firstAgentHash, secondAgentHash);
+  }
+
+  @Test
+  public void testContentHashOfLargeCycle() {
+    HypermediaMASPlatform platform = (HypermediaMASPlatform) cyclicPlatformProfile(5000).getResource();
+
+    /* Hashing the platform digests its cycle once, and the hashes of the agents are cached */
+    assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+      Set<String> hashes = new HashSet<>();
+      for (AbstractHostable agent : platform.getHostedResources()) {
+        hashes.add(agent.contentHash());
+      }
+      hashes.add(platform.contentHash());
+      assertEquals(5001, hashes.size());
+    });
+  }
+
+  private static BaseResourceProfile workspaceProfile(String semanticType) {
+    Workspace workspace = new Workspace.Builder()
+            .setIRIAsString("urn:workspace")
+            .addContainedResource(new Artifact.Builder()
+                    .addSemanticType(semanticType)
+                    .addTriple(Values.iri("http://example.org/hasPart"), Values.bnode())
+                    .build())
+            .addContainedResource(new Agent.Builder().build())
+            .build();
+    return new BaseResourceProfile.Builder(workspace).build();
+  }
+
+  private static BaseResourceProfile cyclicPlatformProfile() {
+    return cyclicPlatformProfile(3);
+  }
+
+  private static BaseResourceProfile cyclicPlatformProfile(int agents) {
+    AtomicReference<HypermediaMASPlatform> platform = new AtomicReference<>();
+    HypermediaMASPlatform.Builder builder = new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:platform");
+    for (int i = 0; i < agents; i++) {
+      builder.addHostedResource(new Agent.Builder()
+              .setIRIAsString("urn:agent" + i)
+              .addDeferredHMASPlatforms(() -> Set.of(platform.get()))
+              .build());
+    }
+    platform.set(builder.build());
+    return new BaseResourceProfile.Builder(platform.get()).build();
+  }
+
   @Test
   public void testResourceProfileDefault() {
 
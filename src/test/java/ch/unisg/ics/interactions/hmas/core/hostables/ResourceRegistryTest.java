@@ -0,0 +1,206 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceRegistryTest {
+
+  private static Workspace workspace(String iri, AbstractHostable... members) {
+    Workspace.Builder builder = new Workspace.Builder().setIRIAsString(iri);
+    for (AbstractHostable member : members) {
+      builder.addContainedResource(member);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testRegister() {
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Workspace room = workspace("urn:room", lamp);
+    Workspace building = workspace("urn:building", room);
+    Agent agent = new Agent.Builder().setIRIAsString("urn:agent").build();
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:platform")
+            .addHostedResource(building)
+            .addHostedResource(agent)
+            .build();
+
+    ResourceRegistry registry = new ResourceRegistry();
+    registry.register(platform);
+
+    assertEquals(5, registry.size());
+    assertSame(lamp, registry.get("urn:lamp").get());
+    assertSame(room, registry.get("urn:room", Workspace.class).get());
+    assertFalse(registry.get("urn:lamp", Workspace.class).isPresent());
+    assertFalse(registry.get("urn:unknown").isPresent());
+
+    assertEquals(room, registry.getContainer(lamp).get());
+    assertEquals(Set.of(building), registry.getContainers(room));
+    assertTrue(registry.getContainers(building).isEmpty());
+    assertEquals(Set.of(platform), registry.getHostingPlatforms(agent));
+    assertEquals(Set.of(building, agent), registry.getHostedResources(platform));
+  }
+
+  @Test
+  public void testRegisterHostedOnPlatform() {
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder().setIRIAsString("urn:platform").build();
+    Agent agent = new Agent.Builder()
+            .setIRIAsString("urn:agent")
+            .addHMASPlatform(platform)
+            .build();
+
+    ResourceRegistry registry = new ResourceRegistry();
+    registry.register(agent);
+
+    assertEquals(Set.of(platform), registry.getHostingPlatforms(agent));
+    assertEquals(Set.of(agent), registry.getHostedResources(platform));
+  }
+
+  @Test
+  public void testRegisterProfile() {
+    Agent agent = new Agent.Builder().setIRIAsString("urn:agent").build();
+    BaseResourceProfile profile = new BaseResourceProfile.Builder(agent)
+            .setIRIAsString("urn:agent/profile")
+            .build();
+
+    ResourceRegistry registry = new ResourceRegistry();
+    registry.register(profile);
+
+    assertSame(agent, registry.get("urn:agent").get());
+    assertEquals(Set.of(profile), registry.getProfiles(agent));
+  }
+
+  @Test
+  public void testRegisterAnonymousMembers() {
+    Artifact anonymous = new Artifact.Builder().build();
+    Workspace room = workspace("urn:room", anonymous);
+
+    ResourceRegistry registry = new ResourceRegistry();
+    registry.register(room);
+
+    assertEquals(1, registry.size());
+    assertSame(room, registry.getContainer(anonymous).get());
+  }
+
+  @Test
+  public void testRegisterNewVersionWithoutAnonymousMembers() {
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder().setIRIAsString("urn:platform").build();
+    Artifact lamp = new Artifact.Builder().addHMASPlatform(platform).build();
+    ResourceRegistry registry = new ResourceRegistry();
+    registry.register(platform);
+    registry.register(workspace("urn:room", lamp));
+    assertEquals(Set.of(lamp), registry.getHostedResources(platform));
+
+    registry.register(workspace("urn:room"));
+
+    assertTrue(registry.getHostedResources(platform).isEmpty());
+    assertTrue(registry.getHostingPlatforms(lamp).isEmpty());
+    assertTrue(registry.getContainers(lamp).isEmpty());
+  }
+
+  @Test
+  public void testRegisterNewVersion() {
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Artifact fan = new Artifact.Builder().setIRIAsString("urn:fan").build();
+    ResourceRegistry registry = new ResourceRegistry();
+    registry.register(workspace("urn:room", lamp));
+
+    Workspace room = workspace("urn:room", fan);
+    registry.register(room);
+
+    assertSame(room, registry.get("urn:room").get());
+    assertSame(room, registry.getContainer(fan).get());
+    assertFalse(registry.getContainer(lamp).isPresent());
+    assertTrue(registry.contains("urn:lamp"));
+  }
+
+  @Test
+  public void testRegisterNewVersionOfHostingPlatform() {
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder().setIRIAsString("urn:platform").build();
+    Agent agent = new Agent.Builder().setIRIAsString("urn:agent").addHMASPlatform(platform).build();
+    ResourceRegistry registry = new ResourceRegistry();
+    registry.register(new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:platform")
+            .addHostedResource(agent)
+            .build());
+
+    /* The agent still states that it is hosted on the platform */
+    registry.register(platform);
+
+    assertEquals(Set.of(platform), registry.getHostingPlatforms(agent));
+    assertSame(platform, registry.getHostingPlatforms(agent).iterator().next());
+  }
+
+  @Test
+  public void testRegisterProfileThatReferencesRegisteredPlatform() {
+    Agent agent = new Agent.Builder().setIRIAsString("urn:agent").build();
+    Artifact artifact = new Artifact.Builder().setIRIAsString("urn:artifact").build();
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:pl")
+            .addHostedResource(agent)
+            .addHostedResource(artifact)
+            .build();
+    ResourceRegistry registry = new ResourceRegistry();
+    registry.register(platform);
+
+    /* The profile only references the platform by IRI */
+    registry.register(new BaseResourceProfile.Builder(new Agent.Builder()
+            .setIRIAsString("urn:agent")
+            .addHMASPlatform(new HypermediaMASPlatform.Builder().setIRIAsString("urn:pl").build())
+            .build())
+            .setIRIAsString("urn:agent/profile")
+            .build());
+
+    assertSame(platform, registry.get("urn:pl").get());
+    assertSame(agent, registry.get("urn:agent").get());
+    assertEquals(2, registry.getHostedResources(platform).size());
+    assertEquals(1, registry.getHostingPlatforms(artifact).size());
+    assertSame(platform, registry.getHostingPlatforms(agent).iterator().next());
+    assertEquals(1, registry.getProfiles(agent).size());
+  }
+
+  @Test
+  public void testConcurrentLookups() throws Exception {
+    ResourceRegistry registry = new ResourceRegistry();
+    registry.register(workspace("urn:room"));
+    AtomicBoolean registering = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try {
+      List<Future<?>> readers = List.of(
+              executor.submit(() -> lookUp(registry, registering)),
+              executor.submit(() -> lookUp(registry, registering)),
+              executor.submit(() -> lookUp(registry, registering)));
+
+      Workspace.Builder room = new Workspace.Builder().setIRIAsString("urn:room");
+      for (int i = 0; i < 500; i++) {
+        room.addContainedResource(new Artifact.Builder().setIRIAsString("urn:room/artifacts/" + i).build());
+        registry.register(room.build());
+      }
+      registering.set(false);
+      for (Future<?> reader : readers) {
+        reader.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(501, registry.size());
+    Artifact first = new Artifact.Builder().setIRIAsString("urn:room/artifacts/0").build();
+    assertEquals("urn:room", registry.getContainer(first).get().getIRIAsString().get());
+  }
+
+  private static void lookUp(ResourceRegistry registry, AtomicBoolean registering) {
+    while (registering.get()) {
+      assertTrue(registry.get("urn:room", Workspace.class).isPresent());
+      registry.get("urn:room/artifacts/0")
+              .ifPresent(artifact -> assertTrue(registry.getContainer((Artifact) artifact).isPresent()));
+    }
+  }
+}
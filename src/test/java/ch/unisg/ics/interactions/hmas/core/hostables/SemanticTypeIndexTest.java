@@ -0,0 +1,110 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import org.eclipse.rdf4j.model.util.Values;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SemanticTypeIndexTest {
+
+  private static final String LAMP = "http://example.org/Lamp";
+  private static final String SENSOR = "http://example.org/Sensor";
+  private static final String BROKEN = "http://example.org/Broken";
+
+  private static Workspace room() {
+    return new Workspace.Builder()
+            .setIRIAsString("urn:room")
+            .addContainedResource(new Artifact.Builder()
+                    .setIRIAsString("urn:lamp1")
+                    .addSemanticType(LAMP)
+                    .build())
+            .addContainedResource(new Artifact.Builder()
+                    .setIRIAsString("urn:lamp2")
+                    .addSemanticType(LAMP)
+                    .addSemanticType(BROKEN)
+                    .build())
+            .addContainedResource(new Artifact.Builder()
+                    .setIRIAsString("urn:lamp3")
+                    .addSemanticType(LAMP)
+                    .addSemanticType(SENSOR)
+                    .build())
+            .addContainedResource(new Artifact.Builder()
+                    .setIRIAsString("urn:sensor")
+                    .addSemanticType(SENSOR)
+                    .build())
+            .addContainedResource(new Agent.Builder().setIRIAsString("urn:agent").build())
+            .build();
+  }
+
+  private static List<String> getIRIs(List<? extends AbstractResource> resources) {
+    return resources.stream()
+            .map(resource -> resource.getIRIAsString().get())
+            .sorted()
+            .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testQuery() {
+    SemanticTypeIndex index = SemanticTypeIndex.ofContainedResources(room());
+
+    assertEquals(5, index.size());
+    assertEquals(5, index.getTypeCount());
+    assertEquals(5, index.query().count());
+    assertEquals(List.of("urn:lamp1", "urn:lamp2", "urn:lamp3"),
+            getIRIs(index.query().withAllTypes(LAMP).find()));
+    assertEquals(List.of("urn:lamp3"), getIRIs(index.query().withAllTypes(LAMP, SENSOR).find()));
+    assertEquals(List.of("urn:lamp1", "urn:lamp3"),
+            getIRIs(index.query().withAllTypes(LAMP).withoutTypes(BROKEN).find()));
+    assertEquals(List.of("urn:lamp2", "urn:lamp3", "urn:sensor"),
+            getIRIs(index.query().withAnyType(Values.iri(SENSOR), Values.iri(BROKEN)).find()));
+    assertEquals(List.of("urn:lamp3"),
+            getIRIs(index.query().withAnyType(SENSOR, BROKEN).withAnyType(LAMP).withoutTypes(BROKEN).find()));
+    assertEquals(List.of("urn:lamp1", "urn:lamp2", "urn:lamp3", "urn:sensor"),
+            getIRIs(index.query().withAllTypes(CORE.ARTIFACT).find(Artifact.class)));
+    assertEquals(List.of("urn:agent"), getIRIs(index.query().withoutTypes(CORE.ARTIFACT).find()));
+    assertEquals(0, index.query().withAllTypes("http://example.org/Unknown").count());
+    assertEquals(0, index.query().withAnyType("http://example.org/Unknown").count());
+  }
+
+  @Test
+  public void testAddAndRemove() {
+    SemanticTypeIndex index = SemanticTypeIndex.ofContainedResources(room());
+
+    index.add(new Artifact.Builder()
+            .setIRIAsString("urn:lamp2")
+            .addSemanticType(LAMP)
+            .build());
+    index.add(new Artifact.Builder()
+            .setIRIAsString("urn:lamp4")
+            .addSemanticType(LAMP)
+            .addSemanticType(BROKEN)
+            .build());
+    assertTrue(index.remove(new Artifact.Builder().setIRIAsString("urn:lamp1").build()));
+    assertFalse(index.remove(new Artifact.Builder().setIRIAsString("urn:unknown").build()));
+
+    assertEquals(5, index.size());
+    assertEquals(List.of("urn:lamp2", "urn:lamp3", "urn:lamp4"), getIRIs(index.query().withAllTypes(LAMP).find()));
+    assertEquals(List.of("urn:lamp4"), getIRIs(index.query().withAllTypes(BROKEN).find()));
+  }
+
+  @Test
+  public void testReplaceResourcesRepeatedly() {
+    SemanticTypeIndex index = SemanticTypeIndex.ofContainedResources(room());
+
+    for (int i = 0; i < 1000; i++) {
+      index.add(new Artifact.Builder()
+              .setIRIAsString("urn:lamp1")
+              .addSemanticType(LAMP)
+              .addSemanticType(i % 2 == 0 ? BROKEN : SENSOR)
+              .build());
+    }
+
+    assertEquals(5, index.size());
+    assertEquals(List.of("urn:lamp1", "urn:lamp3", "urn:sensor"), getIRIs(index.query().withAllTypes(SENSOR).find()));
+    assertEquals(List.of("urn:lamp2"), getIRIs(index.query().withAllTypes(BROKEN).find()));
+  }
+}
@@ -0,0 +1,104 @@
+package ch.unisg.ics.interactions.hmas.core.hostables;
+
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SignifierIndexTest {
+
+  private static final String TOGGLE = "http://example.org/Toggle";
+  private static final String DIM = "http://example.org/Dim";
+
+  private static BaseSignifier signifier(String type) {
+    return new BaseSignifier.Builder().addSemanticType(type).build();
+  }
+
+  private static BaseResourceProfile profile(ProfiledResource resource, BaseSignifier... signifiers) {
+    return new BaseResourceProfile.Builder(resource)
+            .addExposedSignifiers(Set.of(signifiers))
+            .build();
+  }
+
+  @Test
+  public void testFindExposingResources() {
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Artifact fan = new Artifact.Builder().setIRIAsString("urn:fan").build();
+    Agent agent = new Agent.Builder().setIRIAsString("urn:agent").build();
+    BaseSignifier dimLamp = signifier(DIM);
+
+    SignifierIndex index = SignifierIndex.of(List.of(
+            profile(lamp, signifier(TOGGLE), dimLamp),
+            profile(fan, signifier(TOGGLE)),
+            profile(agent, signifier(TOGGLE)),
+            profile(new Artifact.Builder().setIRIAsString("urn:door").build())));
+
+    assertEquals(3, index.size());
+    assertEquals(Set.of(lamp, fan, agent), index.getExposingResources(TOGGLE));
+    assertEquals(Set.of(lamp, fan), index.getExposingResources(TOGGLE, Artifact.class));
+    assertEquals(Set.of(lamp, fan, agent), index.getExposingResources(CORE.SIGNIFIER));
+    assertEquals(Set.of(lamp), index.getExposingResources(DIM));
+    assertTrue(index.getExposingResources("http://example.org/Open").isEmpty());
+
+    assertEquals(2, index.getSignifiers(lamp).size());
+    assertEquals(Set.of(dimLamp), index.getSignifiers(lamp, DIM));
+  }
+
+  @Test
+  public void testUpdateProfile() {
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Artifact fan = new Artifact.Builder().setIRIAsString("urn:fan").build();
+    SignifierIndex index = SignifierIndex.of(List.of(
+            profile(lamp, signifier(TOGGLE), signifier(DIM)),
+            profile(fan, signifier(TOGGLE))));
+
+    Artifact dimmedLamp = new Artifact.Builder()
+            .setIRIAsString("urn:lamp")
+            .addSemanticType("http://example.org/Lamp")
+            .build();
+    index.update(profile(dimmedLamp, signifier(DIM)));
+
+    assertEquals(Set.of(fan), index.getExposingResources(TOGGLE));
+    assertEquals(Set.of(dimmedLamp), index.getExposingResources(DIM));
+    assertSame(dimmedLamp, index.getExposingResources(DIM).iterator().next());
+    assertEquals(1, index.getSignifiers(lamp).size());
+
+    /* A profile without signifiers removes the resource */
+    index.update(profile(fan));
+    assertTrue(index.getExposingResources(TOGGLE).isEmpty());
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  public void testRemoveResource() {
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    SignifierIndex index = SignifierIndex.of(List.of(profile(lamp, signifier(TOGGLE))));
+
+    assertTrue(index.remove(new Artifact.Builder().setIRIAsString("urn:lamp").build()));
+    assertFalse(index.remove(lamp));
+    assertEquals(0, index.size());
+    assertTrue(index.getExposingResources(TOGGLE).isEmpty());
+    assertTrue(index.getSignifiers(lamp).isEmpty());
+  }
+
+  @Test
+  public void testIndexManyProfiles() {
+    List<BaseResourceProfile> profiles = new ArrayList<>();
+    for (int i = 0; i < 40000; i++) {
+      profiles.add(profile(new Artifact.Builder().setIRIAsString("urn:artifacts/" + i).build(),
+              signifier("http://example.org/Action" + i)));
+    }
+
+    /* Each profile adds its resource to the indexed sets of resources rather than copying them */
+    SignifierIndex index = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> SignifierIndex.of(profiles));
+
+    assertEquals(40000, index.size());
+    assertEquals(40000, index.getExposingResources(CORE.SIGNIFIER).size());
+    assertEquals(1, index.getExposingResources("http://example.org/Action7").size());
+  }
+}
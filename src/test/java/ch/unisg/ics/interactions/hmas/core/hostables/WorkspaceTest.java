@@ -1,13 +1,15 @@
 package ch.unisg.ics.interactions.hmas.core.hostables;
 
 import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import org.eclipse.rdf4j.model.util.Values;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class WorkspaceTest {
   @Test
@@ -54,4 +56,54 @@ public class WorkspaceTest {
     assertEquals(0, workspace.getContainedResources().size());
     assertEquals(0, workspace.getHMASPlatforms().size());
   }
+
+  @Test
+  public void testDerivedWorkspace() {
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Artifact fan = new Artifact.Builder().setIRIAsString("urn:fan").build();
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder().build();
+    Workspace workspace = new Workspace.Builder()
+            .setIRIAsString("urn:workspace")
+            .addSemanticType("http://example.org/Room")
+            .addTriple(RDFS.LABEL, Values.literal("Room"))
+            .addContainedResource(lamp)
+            .addHMASPlatform(platform)
+            .build();
+
+    Workspace withFan = workspace.withContainedResource(fan);
+    Workspace withoutLamp = withFan.withoutContainedResource(lamp);
+
+    assertEquals(Set.of(lamp), workspace.getContainedResources());
+    assertEquals(Set.of(lamp, fan), withFan.getContainedResources());
+    assertEquals(Set.of(fan), withoutLamp.getContainedResources());
+    assertEquals(workspace, withoutLamp);
+    assertEquals(workspace.getSemanticTypes(), withoutLamp.getSemanticTypes());
+    assertEquals(Set.of(platform), withoutLamp.getHMASPlatforms());
+
+    /* Triples added to a derived workspace are not added to the workspace it is derived from */
+    Workspace commented = workspace.toBuilder()
+            .addTriple(RDFS.COMMENT, Values.literal("A room"))
+            .build();
+    assertEquals(1, workspace.getResolvedGraph(Values.iri("urn:workspace")).get().size());
+    assertEquals(2, commented.getResolvedGraph(Values.iri("urn:workspace")).get().size());
+  }
+
+  @Test
+  public void testDerivedWorkspaceReplacesContainedResource() {
+    Artifact lamp = new Artifact.Builder().setIRIAsString("urn:lamp").build();
+    Artifact updated = new Artifact.Builder()
+            .setIRIAsString("urn:lamp")
+            .addSemanticType("https://example.org/onto#Lamp")
+            .build();
+    Workspace workspace = new Workspace.Builder()
+            .setIRIAsString("urn:workspace")
+            .addContainedResource(lamp)
+            .build();
+
+    AbstractHostable contained = workspace.withContainedResource(updated).getContainedResources().iterator().next();
+
+    assertSame(updated, contained);
+    assertTrue(contained.getSemanticTypes().contains("https://example.org/onto#Lamp"));
+    assertSame(lamp, workspace.getContainedResources().iterator().next());
+  }
 }
@@ -0,0 +1,185 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.Agent;
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.AGENT;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncResourceProfileReaderTest {
+
+  private static final String PREFIXES =
+          "@prefix hmas: <" + CORE.NAMESPACE + "> \n";
+
+  private final AtomicInteger concurrentRequests = new AtomicInteger();
+  private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+  private volatile String negotiatedContentType;
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private String baseURL;
+
+  @BeforeEach
+  public void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    serverExecutor = Executors.newCachedThreadPool();
+    server.setExecutor(serverExecutor);
+    server.createContext("/agents/", exchange -> {
+      int concurrent = concurrentRequests.incrementAndGet();
+      maxConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+      try {
+        Thread.sleep(20);
+        String name = exchange.getRequestURI().getPath().substring("/agents/".length());
+        respond(exchange, 200, PREFIXES + ".\n" +
+                "<> a hmas:ResourceProfile ;\n" +
+                " hmas:isProfileOf <#" + name + "> .\n" +
+                "<#" + name + "> a hmas:Agent .");
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        concurrentRequests.decrementAndGet();
+      }
+    });
+    server.createContext("/slow", exchange -> {
+      try {
+        Thread.sleep(2000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      respond(exchange, 200, "");
+    });
+    server.createContext("/negotiated", exchange -> {
+      String accept = exchange.getRequestHeaders().getFirst("Accept");
+      boolean binary = accept != null && accept.contains(RDFFormat.BINARY.getDefaultMIMEType());
+      BaseResourceProfile profile = new BaseResourceProfile.Builder(new Agent.Builder()
+              .setIRIAsString(baseURL + "/negotiated#agent")
+              .build())
+              .setIRIAsString(baseURL + "/negotiated")
+              .build();
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new BaseResourceProfileGraphWriter<>(profile).write(out, binary ? RDFFormat.BINARY : RDFFormat.TURTLE);
+      negotiatedContentType = binary ? RDFFormat.BINARY.getDefaultMIMEType() : "text/turtle";
+      exchange.getResponseHeaders().set("Content-Type", negotiatedContentType);
+      exchange.sendResponseHeaders(200, out.size());
+      try (OutputStream body = exchange.getResponseBody()) {
+        out.writeTo(body);
+      }
+    });
+    server.createContext("/invalid", exchange -> respond(exchange, 200, PREFIXES + ".\n[] a hmas:Agent ."));
+    server.start();
+    baseURL = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  public void stopServer() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/turtle");
+    exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  @Test
+  public void testReadFromURL() throws Exception {
+    try (AsyncResourceProfileReader reader = new AsyncResourceProfileReader.Builder().build()) {
+      BaseResourceProfile profile = reader.readFromURL(baseURL + "/agents/alice").get();
+
+      assertEquals(baseURL + "/agents/alice", profile.getIRIAsString().get());
+      assertEquals(AGENT, profile.getResource().getTypeAsIRI());
+      assertEquals(baseURL + "/agents/alice#alice", profile.getResource().getIRIAsString().get());
+    }
+  }
+
+  @Test
+  public void testReadFromURLWithContentNegotiation() throws Exception {
+    try (AsyncResourceProfileReader reader = new AsyncResourceProfileReader.Builder().build()) {
+      BaseResourceProfile profile = reader.readFromURL(baseURL + "/negotiated").get();
+
+      assertEquals(AGENT, profile.getResource().getTypeAsIRI());
+      assertEquals(baseURL + "/negotiated#agent", profile.getResource().getIRIAsString().get());
+      assertEquals(RDFFormat.BINARY.getDefaultMIMEType(), negotiatedContentType);
+    }
+  }
+
+  @Test
+  public void testReadFromURLConcurrently() throws Exception {
+    try (AsyncResourceProfileReader reader = new AsyncResourceProfileReader.Builder()
+            .setMaxConcurrentRequests(4)
+            .setMaxConcurrentRequestsPerHost(4)
+            .build()) {
+
+      List<CompletableFuture<BaseResourceProfile>> profiles = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        profiles.add(reader.readFromURL(baseURL + "/agents/agent-" + i));
+      }
+      CompletableFuture.allOf(profiles.toArray(new CompletableFuture[0])).get();
+
+      for (int i = 0; i < 40; i++) {
+        assertEquals(baseURL + "/agents/agent-" + i + "#agent-" + i,
+                profiles.get(i).get().getResource().getIRIAsString().get());
+      }
+      assertTrue(maxConcurrentRequests.get() <= 4);
+    }
+  }
+
+  @Test
+  public void testReadFromURLNotFound() {
+    try (AsyncResourceProfileReader reader = new AsyncResourceProfileReader.Builder().build()) {
+      ExecutionException ex = assertThrows(ExecutionException.class,
+              () -> reader.readFromURL(baseURL + "/missing").get());
+
+      assertTrue(ex.getCause() instanceof HttpResponseException);
+      assertEquals(404, ((HttpResponseException) ex.getCause()).getStatusCode());
+    }
+  }
+
+  @Test
+  public void testReadFromURLInvalidProfile() {
+    try (AsyncResourceProfileReader reader = new AsyncResourceProfileReader.Builder().build()) {
+      ExecutionException ex = assertThrows(ExecutionException.class,
+              () -> reader.readFromURL(baseURL + "/invalid").get());
+
+      assertTrue(ex.getCause() instanceof InvalidResourceProfileException);
+    }
+  }
+
+  @Test
+  public void testReadFromURLTimeout() {
+    try (AsyncResourceProfileReader reader = new AsyncResourceProfileReader.Builder()
+            .setResponseTimeout(Duration.ofMillis(200))
+            .build()) {
+      ExecutionException ex = assertThrows(ExecutionException.class,
+              () -> reader.readFromURL(baseURL + "/slow").get());
+
+      assertTrue(ex.getCause() instanceof IOException);
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.*;
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import no.hasmac.jsonld.JsonLdError;
+import no.hasmac.jsonld.JsonLdErrorCode;
+import no.hasmac.jsonld.document.JsonDocument;
+import no.hasmac.jsonld.loader.DocumentLoader;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.rdf4j.model.util.Values.iri;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonLdContextCacheTest {
+
+  private static final String EXAMPLE_CONTEXT = "http://example.org/context";
+
+  private static final String AGENT_PROFILE = "{\n" +
+          "  \"@context\": \"" + CORE.NAMESPACE + "\",\n" +
+          "  \"@graph\": [\n" +
+          "    { \"@id\": \"urn:profile\", \"@type\": \"ResourceProfile\", \"isProfileOf\": \"urn:agent\" },\n" +
+          "    { \"@id\": \"urn:agent\", \"@type\": \"Agent\" }\n" +
+          "  ]\n" +
+          "}";
+
+  private static InputStream toStream(String representation) {
+    return new ByteArrayInputStream(representation.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String exampleProfile(String context) {
+    return "{\n" +
+            "  \"@context\": [\"" + CORE.NAMESPACE + "\", \"" + context + "\"],\n" +
+            "  \"@graph\": [\n" +
+            "    { \"@id\": \"urn:profile\", \"@type\": \"ResourceProfile\", \"isProfileOf\": \"urn:agent\" },\n" +
+            "    { \"@id\": \"urn:agent\", \"@type\": [\"Agent\", \"ex:Robot\"] }\n" +
+            "  ]\n" +
+            "}";
+  }
+
+  private static DocumentLoader countingLoader(AtomicInteger loads) {
+    return (url, options) -> {
+      loads.incrementAndGet();
+      return JsonDocument.of(new StringReader("{ \"@context\": { \"ex\": \"http://example.org/\" } }"));
+    };
+  }
+
+  @Test
+  public void testReadWithPreloadedCoreContext() throws IOException {
+    JsonLdContextCache contexts = new JsonLdContextCache.Builder()
+            .setOffline(true)
+            .build();
+
+    BaseResourceProfile profile = BaseResourceProfileGraphReader.readFrom(toStream(AGENT_PROFILE), contexts);
+
+    assertEquals("urn:profile", profile.getIRIAsString().get());
+    assertEquals(CORE.AGENT, profile.getResource().getTypeAsIRI());
+    assertEquals("urn:agent", profile.getResource().getIRIAsString().get());
+    assertEquals(0, contexts.getLoadCount());
+  }
+
+  @Test
+  public void testReadWithPreloadedContext() throws IOException {
+    JsonLdContextCache contexts = new JsonLdContextCache.Builder()
+            .setOffline(true)
+            .preload(EXAMPLE_CONTEXT, "{ \"@context\": { \"ex\": \"http://example.org/\" } }")
+            .build();
+
+    BaseResourceProfile profile =
+            BaseResourceProfileGraphReader.readFrom(toStream(exampleProfile(EXAMPLE_CONTEXT)), contexts);
+
+    assertTrue(profile.getResource().getSemanticTypes().contains("http://example.org/Robot"));
+  }
+
+  @Test
+  public void testReadOfflineWithUnknownContext() {
+    JsonLdContextCache contexts = new JsonLdContextCache.Builder()
+            .setOffline(true)
+            .build();
+
+    RDFParseException ex = assertThrows(RDFParseException.class, () ->
+            BaseResourceProfileGraphReader.readFrom(toStream(exampleProfile(EXAMPLE_CONTEXT)), contexts));
+    assertEquals(JsonLdErrorCode.LOADING_REMOTE_CONTEXT_FAILED, ((JsonLdError) ex.getCause()).getCode());
+  }
+
+  @Test
+  public void testLoadContextOnce() throws IOException {
+    AtomicInteger loads = new AtomicInteger();
+    JsonLdContextCache contexts = new JsonLdContextCache.Builder()
+            .setDocumentLoader(countingLoader(loads))
+            .build();
+
+    for (int i = 0; i < 3; i++) {
+      BaseResourceProfile profile =
+              BaseResourceProfileGraphReader.readFrom(toStream(exampleProfile(EXAMPLE_CONTEXT)), contexts);
+      assertTrue(profile.getResource().getSemanticTypes().contains("http://example.org/Robot"));
+    }
+
+    assertEquals(1, loads.get());
+    assertEquals(1, contexts.getLoadCount());
+  }
+
+  @Test
+  public void testEvictContexts() throws IOException {
+    AtomicInteger loads = new AtomicInteger();
+    JsonLdContextCache contexts = new JsonLdContextCache.Builder()
+            .setMaximumSize(1)
+            .setDocumentLoader(countingLoader(loads))
+            .build();
+
+    BaseResourceProfileGraphReader.readFrom(toStream(exampleProfile(EXAMPLE_CONTEXT + "/a")), contexts);
+    BaseResourceProfileGraphReader.readFrom(toStream(exampleProfile(EXAMPLE_CONTEXT + "/b")), contexts);
+    BaseResourceProfileGraphReader.readFrom(toStream(exampleProfile(EXAMPLE_CONTEXT + "/a")), contexts);
+
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void testWriteCompactedWithCoreContext() throws IOException {
+    BaseResourceProfile expectedProfile =
+            new BaseResourceProfile.Builder(new Workspace.Builder()
+                    .setIRIAsString("urn:workspace")
+                    .addContainedResource(new Artifact.Builder()
+                            .setIRIAsString("urn:artifact")
+                            .build())
+                    .build())
+                    .setIRIAsString("urn:profile")
+                    .build();
+
+    String representation = new BaseResourceProfileGraphWriter<>(expectedProfile)
+            .addResourceProfile()
+            .write(RDFFormat.JSONLD);
+
+    /* The core context is embedded, and the representation can be read without the cache */
+    assertTrue(representation.startsWith("{\"@context\":{\"hmas\":\"" + CORE.NAMESPACE + "\""));
+    assertTrue(representation.contains("\"contains\":\"urn:artifact\""));
+    assertTrue(representation.contains("\"@type\":\"Workspace\""));
+    Model model = Rio.parse(new StringReader(representation), RDFFormat.JSONLD);
+    assertTrue(model.contains(iri("urn:workspace"), CORE.CONTAINS, iri("urn:artifact")));
+
+    JsonLdContextCache contexts = new JsonLdContextCache.Builder()
+            .setOffline(true)
+            .build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BaseResourceProfileGraphWriter<>(expectedProfile)
+            .setJsonLdContext(CORE.NAMESPACE, contexts)
+            .write(out, RDFFormat.JSONLD);
+
+    BaseResourceProfile profile =
+            BaseResourceProfileGraphReader.readFrom(new ByteArrayInputStream(out.toByteArray()), contexts);
+    Workspace workspace = (Workspace) profile.getResource();
+    assertEquals("urn:artifact",
+            workspace.getContainedResources().iterator().next().getIRIAsString().get());
+    assertEquals(0, contexts.getLoadCount());
+  }
+}
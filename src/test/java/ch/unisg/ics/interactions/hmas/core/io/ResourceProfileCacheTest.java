@@ -0,0 +1,216 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceProfileCacheTest {
+
+  private static final String PREFIXES =
+          "@prefix hmas: <" + CORE.NAMESPACE + "> \n";
+
+  private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+  private final AtomicInteger fullResponses = new AtomicInteger();
+  private final AtomicInteger notModifiedResponses = new AtomicInteger();
+  private volatile String version = "1";
+  private HttpServer server;
+  private String baseURL;
+
+  @BeforeEach
+  public void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/etag/", exchange -> respondWithETag(exchange, agentProfile(1)));
+    server.createContext("/last-modified/", exchange -> {
+      exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+      if (LAST_MODIFIED.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+        notModified(exchange);
+      } else {
+        respond(exchange, agentProfile(1));
+      }
+    });
+    server.createContext("/max-age/", exchange -> {
+      exchange.getResponseHeaders().set("Cache-Control", "max-age=3600");
+      respond(exchange, agentProfile(1));
+    });
+    server.createContext("/no-store/", exchange -> {
+      exchange.getResponseHeaders().set("ETag", "\"1\"");
+      exchange.getResponseHeaders().set("Cache-Control", "no-store");
+      respond(exchange, agentProfile(1));
+    });
+    server.createContext("/large/", exchange -> respondWithETag(exchange, agentProfile(20)));
+    server.start();
+    baseURL = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  public void stopServer() {
+    server.stop(0);
+  }
+
+  private static String agentProfile(int semanticTypes) {
+    StringBuilder profile = new StringBuilder(PREFIXES + ".\n" +
+            "<> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <#agent> .\n" +
+            "<#agent> a hmas:Agent");
+    for (int i = 0; i < semanticTypes; i++) {
+      profile.append(", <http://example.org/Type").append(i).append(">");
+    }
+    return profile.append(" .").toString();
+  }
+
+  private void respondWithETag(HttpExchange exchange, String body) throws IOException {
+    String etag = "\"" + version + "\"";
+    exchange.getResponseHeaders().set("ETag", etag);
+    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      notModified(exchange);
+    } else {
+      respond(exchange, body);
+    }
+  }
+
+  private void respond(HttpExchange exchange, String body) throws IOException {
+    fullResponses.incrementAndGet();
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/turtle");
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private void notModified(HttpExchange exchange) throws IOException {
+    notModifiedResponses.incrementAndGet();
+    exchange.sendResponseHeaders(304, -1);
+    exchange.close();
+  }
+
+  @Test
+  public void testRevalidateWithETag() throws IOException {
+    ResourceProfileCache cache = new ResourceProfileCache.Builder().build();
+    String url = baseURL + "/etag/agent";
+
+    BaseResourceProfile first = cache.readFromURL(url);
+    BaseResourceProfile second = cache.readFromURL(url);
+
+    assertSame(first, second);
+    assertEquals(url + "#agent", second.getResource().getIRIAsString().get());
+    assertEquals(1, fullResponses.get());
+    assertEquals(1, notModifiedResponses.get());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getRevalidationCount());
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void testRevalidateModifiedProfile() throws IOException {
+    ResourceProfileCache cache = new ResourceProfileCache.Builder().build();
+    String url = baseURL + "/etag/agent";
+
+    BaseResourceProfile first = cache.readFromURL(url);
+    version = "2";
+    BaseResourceProfile second = cache.readFromURL(url);
+    BaseResourceProfile third = cache.readFromURL(url);
+
+    assertNotSame(first, second);
+    assertSame(second, third);
+    assertEquals(2, fullResponses.get());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(1, cache.getRevalidationCount());
+  }
+
+  @Test
+  public void testRevalidateWithLastModified() throws IOException {
+    ResourceProfileCache cache = new ResourceProfileCache.Builder().build();
+    String url = baseURL + "/last-modified/agent";
+
+    BaseResourceProfile first = cache.readFromURL(url);
+    BaseResourceProfile second = cache.readFromURL(url);
+
+    assertSame(first, second);
+    assertEquals(1, fullResponses.get());
+    assertEquals(1, cache.getRevalidationCount());
+  }
+
+  @Test
+  public void testReadFreshProfile() throws IOException {
+    ResourceProfileCache cache = new ResourceProfileCache.Builder().build();
+    String url = baseURL + "/max-age/agent";
+
+    BaseResourceProfile first = cache.readFromURL(url);
+    BaseResourceProfile second = cache.readFromURL(url);
+
+    assertSame(first, second);
+    assertEquals(1, fullResponses.get());
+    assertEquals(0, notModifiedResponses.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testNoStore() throws IOException {
+    ResourceProfileCache cache = new ResourceProfileCache.Builder().build();
+    String url = baseURL + "/no-store/agent";
+
+    cache.readFromURL(url);
+    cache.readFromURL(url);
+
+    assertEquals(2, fullResponses.get());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testEvictByTripleCount() throws IOException {
+    /* A small profile has 4 triples, a large profile has 23 triples */
+    ResourceProfileCache cache = new ResourceProfileCache.Builder()
+            .setMaximumWeight(26)
+            .build();
+
+    cache.readFromURL(baseURL + "/etag/a");
+    cache.readFromURL(baseURL + "/etag/b");
+    assertEquals(2, cache.size());
+
+    cache.readFromURL(baseURL + "/large/c");
+    assertTrue(cache.getEvictionCount() > 0);
+    assertEquals(1, cache.size());
+
+    cache.readFromURL(baseURL + "/large/c");
+    assertEquals(1, cache.getRevalidationCount());
+  }
+
+  @Test
+  public void testInvalidate() throws IOException {
+    ResourceProfileCache cache = new ResourceProfileCache.Builder().build();
+    String url = baseURL + "/etag/agent";
+
+    cache.readFromURL(url);
+    cache.invalidate(url);
+    cache.readFromURL(url);
+
+    assertEquals(2, fullResponses.get());
+    assertEquals(0, cache.getRevalidationCount());
+  }
+
+  @Test
+  public void testReadFromURLNotFound() {
+    ResourceProfileCache cache = new ResourceProfileCache.Builder().build();
+
+    HttpResponseException ex = assertThrows(HttpResponseException.class,
+            () -> cache.readFromURL(baseURL + "/missing"));
+    assertEquals(404, ex.getStatusCode());
+  }
+}
@@ -0,0 +1,188 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceProfileCrawlerTest {
+
+  private static final String PREFIXES =
+          "@prefix hmas: <" + CORE.NAMESPACE + "> \n";
+
+  private static final int WORKSPACES = 4;
+  private static final int ARTIFACTS = 5;
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger concurrentRequests = new AtomicInteger();
+  private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+  private final Map<String, String> profiles = new ConcurrentHashMap<>();
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private String baseURL;
+  private AsyncResourceProfileReader reader;
+
+  @BeforeEach
+  public void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    serverExecutor = Executors.newCachedThreadPool();
+    server.setExecutor(serverExecutor);
+    server.createContext("/", this::respond);
+    server.start();
+    baseURL = "http://localhost:" + server.getAddress().getPort();
+    reader = new AsyncResourceProfileReader.Builder().build();
+
+    StringBuilder platform = new StringBuilder(PREFIXES + ".\n" +
+            "<> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <#platform> .\n" +
+            "<#platform> a hmas:HypermediaMASPlatform .\n");
+    for (int i = 0; i < WORKSPACES; i++) {
+      String workspace = baseURL + "/workspaces/" + i;
+      platform.append("<#platform> hmas:hosts <").append(workspace).append("#workspace> .\n")
+              .append("<").append(workspace).append("#workspace> a hmas:Workspace .\n");
+
+      StringBuilder profile = new StringBuilder(PREFIXES + ".\n" +
+              "<> a hmas:ResourceProfile ;\n" +
+              " hmas:isProfileOf <#workspace> .\n" +
+              "<#workspace> a hmas:Workspace ;\n" +
+              " hmas:isHostedOn <" + baseURL + "/#platform> .\n" +
+              "<" + baseURL + "/#platform> a hmas:HypermediaMASPlatform .\n");
+      for (int j = 0; j < ARTIFACTS; j++) {
+        String artifact = workspace + "/artifacts/" + j;
+        profile.append("<#workspace> hmas:contains <").append(artifact).append("#artifact> .\n")
+                .append("<").append(artifact).append("#artifact> a hmas:Artifact .\n");
+        profiles.put(artifact, PREFIXES + ".\n" +
+                "<> a hmas:ResourceProfile ;\n" +
+                " hmas:isProfileOf <#artifact> .\n" +
+                "<#artifact> a hmas:Artifact ;\n" +
+                " hmas:hasProfile <> .\n");
+      }
+      profiles.put(workspace, profile.toString());
+    }
+    platform.append("<#platform> hmas:hosts <").append(baseURL).append("/agents/missing#agent> .\n")
+            .append("<").append(baseURL).append("/agents/missing#agent> a hmas:Agent .\n");
+    profiles.put(baseURL + "/", platform.toString());
+  }
+
+  @AfterEach
+  public void stopServer() {
+    reader.close();
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  private void respond(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    int concurrent = concurrentRequests.incrementAndGet();
+    maxConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+    try {
+      Thread.sleep(10);
+      String profile = profiles.get(baseURL + exchange.getRequestURI().getPath());
+      byte[] bytes = (profile == null ? "not found" : profile).getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "text/turtle");
+      exchange.sendResponseHeaders(profile == null ? 404 : 200, bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      concurrentRequests.decrementAndGet();
+    }
+  }
+
+  @Test
+  public void testCrawl() {
+    Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    ResourceProfileCrawler crawler = new ResourceProfileCrawler.Builder(reader)
+            .setFailureHandler(failures::put)
+            .build();
+
+    List<BaseResourceProfile> discovered;
+    try (Stream<BaseResourceProfile> crawl = crawler.crawl(baseURL + "/#platform")) {
+      discovered = crawl.collect(Collectors.toList());
+    }
+
+    Set<String> urls = discovered.stream()
+            .map(profile -> profile.getIRIAsString().get())
+            .collect(Collectors.toSet());
+    assertEquals(1 + WORKSPACES + WORKSPACES * ARTIFACTS, discovered.size(), failures.toString());
+    assertEquals(discovered.size(), urls.size());
+    assertTrue(urls.contains(baseURL + "/workspaces/3/artifacts/4"));
+
+    assertEquals(HMAS_PLATFORM, discovered.get(0).getResource().getTypeAsIRI());
+    assertEquals(WORKSPACES, discovered.stream()
+            .filter(profile -> WORKSPACE.equals(profile.getResource().getTypeAsIRI()))
+            .count());
+
+    assertEquals(1, failures.size());
+    assertTrue(failures.get(baseURL + "/agents/missing") instanceof HttpResponseException);
+    assertEquals(discovered.size() + 1, requests.get());
+  }
+
+  @Test
+  public void testCrawlWithMaxDepth() {
+    ResourceProfileCrawler crawler = new ResourceProfileCrawler.Builder(reader)
+            .setMaxDepth(1)
+            .setFailureHandler((url, failure) -> {})
+            .build();
+
+    List<BaseResourceProfile> discovered = crawler.crawl(baseURL + "/").collect(Collectors.toList());
+
+    assertEquals(1 + WORKSPACES, discovered.size());
+    assertEquals(1 + WORKSPACES + 1, requests.get());
+  }
+
+  @Test
+  public void testCrawlWithMaxInFlightPerHost() {
+    ResourceProfileCrawler crawler = new ResourceProfileCrawler.Builder(reader)
+            .setMaxInFlightPerHost(2)
+            .setFailureHandler((url, failure) -> {})
+            .build();
+
+    assertEquals(1 + WORKSPACES + WORKSPACES * ARTIFACTS, crawler.crawl(baseURL + "/").count());
+    assertTrue(maxConcurrentRequests.get() <= 2);
+  }
+
+  @Test
+  public void testCrawlWithBackpressure() throws InterruptedException {
+    ResourceProfileCrawler crawler = new ResourceProfileCrawler.Builder(reader)
+            .setMaxInFlight(3)
+            .build();
+
+    try (Stream<BaseResourceProfile> crawl = crawler.crawl(baseURL + "/")) {
+      Iterator<BaseResourceProfile> profiles = crawl.iterator();
+      profiles.next();
+      profiles.next();
+
+      Thread.sleep(200);
+      assertTrue(requests.get() <= 2 + 3);
+    }
+  }
+
+  @Test
+  public void testCrawlFromInvalidSeed() {
+    ResourceProfileCrawler crawler = new ResourceProfileCrawler.Builder(reader).build();
+
+    assertThrows(IllegalArgumentException.class, () -> crawler.crawl("urn:platform"));
+  }
+}
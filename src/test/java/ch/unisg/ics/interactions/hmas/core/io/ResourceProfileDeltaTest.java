@@ -0,0 +1,136 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.*;
+import org.eclipse.rdf4j.model.util.Values;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.CONTAINS;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceProfileDeltaTest {
+
+  private static BaseResourceProfile workspaceProfile(int... artifacts) {
+    Workspace.Builder builder = new Workspace.Builder().setIRIAsString("urn:workspace");
+    for (int artifact : artifacts) {
+      builder.addContainedResource(new Artifact.Builder()
+              .setIRIAsString("urn:workspace/artifacts/" + artifact)
+              .build());
+    }
+    return new BaseResourceProfile.Builder(builder.build())
+            .setIRIAsString("urn:workspace/profile")
+            .build();
+  }
+
+  private static Set<String> getContainedIRIs(BaseResourceProfile profile) {
+    return ((Workspace) profile.getResource()).getContainedResources().stream()
+            .map(resource -> resource.getIRIAsString().get())
+            .collect(Collectors.toSet());
+  }
+
+  private static BaseResourceProfile decode(BaseResourceProfile profile) {
+    return BaseResourceProfileGraphReader.readFromString(new BaseResourceProfileGraphWriter<>(profile)
+            .addResourceProfile()
+            .write(RDFFormat.TURTLE));
+  }
+
+  @Test
+  public void testDeltaOfAddedArtifact() {
+    ResourceProfileDelta delta = ResourceProfileDelta.between(workspaceProfile(1, 2), workspaceProfile(1, 2, 3));
+
+    assertFalse(delta.isEmpty());
+    assertTrue(delta.getRemovedStatements().isEmpty());
+    assertEquals(Set.of(Values.iri("urn:workspace/artifacts/3")), delta.getAddedContainedResources());
+    assertTrue(delta.getRemovedContainedResources().isEmpty());
+    assertTrue(delta.getAddedStatements().contains(Values.iri("urn:workspace"), CONTAINS,
+            Values.iri("urn:workspace/artifacts/3")));
+  }
+
+  @Test
+  public void testDeltaOfEqualProfiles() {
+    ResourceProfileDelta delta = ResourceProfileDelta.between(workspaceProfile(1, 2), workspaceProfile(1, 2));
+
+    assertTrue(delta.isEmpty());
+    assertEquals(delta.getPreviousVersion(), delta.getVersion());
+  }
+
+  @Test
+  public void testApplyDeltaToDecodedProfile() {
+    BaseResourceProfile previous = decode(workspaceProfile(1, 2));
+    ResourceProfileDelta delta = ResourceProfileDelta.between(workspaceProfile(1, 2), workspaceProfile(2, 3));
+
+    BaseResourceProfile next = delta.applyTo(previous);
+
+    assertEquals(Set.of(Values.iri("urn:workspace/artifacts/1")), delta.getRemovedContainedResources());
+    assertEquals("urn:workspace/profile", next.getIRIAsString().get());
+    assertEquals(Set.of("urn:workspace/artifacts/2", "urn:workspace/artifacts/3"), getContainedIRIs(next));
+    assertEquals(delta.getVersion(), ResourceProfileDelta.versionOf(next));
+  }
+
+  @Test
+  public void testApplyConsecutiveDeltas() {
+    BaseResourceProfile synchronizedProfile = decode(workspaceProfile(1));
+
+    for (int i = 2; i <= 4; i++) {
+      int[] previous = IntStream.range(1, i).toArray();
+      int[] next = IntStream.rangeClosed(1, i).toArray();
+      String patch = ResourceProfileDelta.between(workspaceProfile(previous), workspaceProfile(next)).write();
+      synchronizedProfile = ResourceProfileDelta.readFromString(patch).applyTo(synchronizedProfile);
+    }
+
+    assertEquals(ResourceProfileDelta.versionOf(workspaceProfile(1, 2, 3, 4)),
+            ResourceProfileDelta.versionOf(synchronizedProfile));
+    assertEquals(4, getContainedIRIs(synchronizedProfile).size());
+  }
+
+  @Test
+  public void testWriteAndReadDelta() {
+    ResourceProfileDelta delta = ResourceProfileDelta.between(workspaceProfile(1, 2), workspaceProfile(2, 3));
+
+    String patch = delta.write();
+    ResourceProfileDelta read = ResourceProfileDelta.readFromString(patch);
+
+    assertTrue(patch.startsWith("H id <urn:sha256:" + delta.getVersion() + "> .\n"));
+    assertTrue(patch.contains("\nD <urn:workspace> <" + CONTAINS + "> <urn:workspace/artifacts/1> .\n"));
+    assertTrue(patch.contains("\nA <urn:workspace> <" + CONTAINS + "> <urn:workspace/artifacts/3> .\n"));
+    assertEquals(delta.getPreviousVersion(), read.getPreviousVersion());
+    assertEquals(delta.getVersion(), read.getVersion());
+    assertEquals(delta.getAddedStatements(), read.getAddedStatements());
+    assertEquals(delta.getRemovedStatements(), read.getRemovedStatements());
+  }
+
+  @Test
+  public void testApplyDeltaWithAnonymousResources() {
+    BaseResourceProfile previous = new BaseResourceProfile.Builder(new Workspace.Builder()
+            .setIRIAsString("urn:workspace")
+            .addContainedResource(new Agent.Builder().build())
+            .build())
+            .setIRIAsString("urn:workspace/profile")
+            .build();
+    BaseResourceProfile next = new BaseResourceProfile.Builder(new Workspace.Builder()
+            .setIRIAsString("urn:workspace")
+            .addContainedResource(new Agent.Builder().build())
+            .addContainedResource(new Artifact.Builder().build())
+            .build())
+            .setIRIAsString("urn:workspace/profile")
+            .build();
+
+    ResourceProfileDelta delta = ResourceProfileDelta.readFromString(
+            ResourceProfileDelta.between(previous, next).write());
+    BaseResourceProfile applied = delta.applyTo(decode(previous));
+
+    assertEquals(2, ((Workspace) applied.getResource()).getContainedResources().size());
+    assertEquals(delta.getVersion(), ResourceProfileDelta.versionOf(applied));
+  }
+
+  @Test
+  public void testApplyDeltaToOtherVersion() {
+    ResourceProfileDelta delta = ResourceProfileDelta.between(workspaceProfile(1, 2), workspaceProfile(1, 2, 3));
+
+    assertThrows(IllegalArgumentException.class, () -> delta.applyTo(workspaceProfile(1)));
+  }
+}
@@ -0,0 +1,76 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.BaseResourceProfile;
+import ch.unisg.ics.interactions.hmas.core.hostables.Workspace;
+import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the decoding time of workspace profiles against the number of contained members.
+ * Run with <code>gradle benchmark</code>.
+ */
+@Tag("benchmark")
+public class ResourceProfileGraphReaderBenchmark {
+
+  private final static Logger LOGGER = Logger.getLogger(ResourceProfileGraphReaderBenchmark.class.getCanonicalName());
+
+  private static final int[] MEMBER_COUNTS = {1000, 5000, 10000, 20000, 40000};
+  private static final int RUNS = 5;
+
+  @Test
+  public void benchmarkReadWorkspaceMembers() {
+    read(workspaceProfile(MEMBER_COUNTS[MEMBER_COUNTS.length - 1]), MEMBER_COUNTS[MEMBER_COUNTS.length - 1]);
+
+    StringBuilder report = new StringBuilder(String.format("%n%10s %10s %12s %14s%n",
+            "members", "triples", "decode (ms)", "per member (us)"));
+    double[] perMember = new double[MEMBER_COUNTS.length];
+
+    for (int i = 0; i < MEMBER_COUNTS.length; i++) {
+      int members = MEMBER_COUNTS[i];
+      String representation = workspaceProfile(members);
+
+      long[] times = new long[RUNS];
+      for (int run = 0; run < RUNS; run++) {
+        long start = System.nanoTime();
+        read(representation, members);
+        times[run] = System.nanoTime() - start;
+      }
+      Arrays.sort(times);
+      long median = times[RUNS / 2];
+      perMember[i] = median / 1000.0 / members;
+
+      report.append(String.format("%10d %10d %12.1f %14.2f%n", members, 4 * members + 3,
+              median / 1_000_000.0, perMember[i]));
+    }
+    LOGGER.info(report.toString());
+
+    // Near-linear decoding: the cost per member must not grow with the size of the workspace
+    assertTrue(perMember[MEMBER_COUNTS.length - 1] < 4 * perMember[1], report.toString());
+  }
+
+  private static void read(String representation, int members) {
+    BaseResourceProfile profile = BaseResourceProfileGraphReader.readFromString(representation);
+    assertEquals(members, ((Workspace) profile.getResource()).getContainedResources().size());
+  }
+
+  private static String workspaceProfile(int members) {
+    StringBuilder representation = new StringBuilder("@prefix hmas: <" + CORE.NAMESPACE + "> .\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:workspace> .\n" +
+            "<urn:workspace> a hmas:Workspace .\n");
+
+    for (int i = 0; i < members; i++) {
+      representation.append("<urn:workspace> hmas:contains <urn:artifact-").append(i).append("> .\n")
+              .append("<urn:artifact-").append(i).append("> a hmas:Artifact, <http://example.org/Lamp> ;\n")
+              .append(" <http://example.org/label> \"Lamp ").append(i).append("\" .\n");
+    }
+    return representation.toString();
+  }
+}
@@ -3,18 +3,39 @@ package ch.unisg.ics.interactions.hmas.core.io;
 import ch.unisg.ics.interactions.hmas.core.hostables.*;
 import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.AGENT;
 import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.WORKSPACE;
@@ -146,7 +167,7 @@ public class ResourceProfileGraphReaderTest {
     });
 
     String expectedMessage = "Unknown type of profiled resource. " +
-            "Supported resource types: Agent, Artifact, Workspace, Platform.";
+            "Supported resource types: Agent, Artifact, Workspace, Platform, Signifier.";
     assertTrue(ex.getMessage().contains(expectedMessage));
   }
 
@@ -182,6 +203,201 @@ public class ResourceProfileGraphReaderTest {
     assertEquals(SimpleValueFactory.getInstance().createIRI("urn:agent"), agent.getIRI().get());
   }
 
+  @Test
+  public void testReadResourceProfileFromPath() throws IOException, URISyntaxException {
+
+    URL fileResource = ResourceProfileGraphReaderTest.class.getClassLoader()
+            .getResource("resource-profile.ttl");
+
+    Path profilePath = Paths.get(fileResource.toURI());
+    BaseResourceProfile profile = BaseResourceProfileGraphReader.readFrom(profilePath);
+
+    assertEquals("urn:profile", profile.getIRIAsString().get());
+    ProfiledResource agent = profile.getResource();
+    assertEquals(AGENT, agent.getTypeAsIRI());
+    assertEquals("urn:agent", agent.getIRIAsString().get());
+  }
+
+  @Test
+  public void testReadResourceProfileFromInputStream() throws IOException {
+    String expectedProfile = PREFIXES +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:agent> .\n" +
+            "<urn:agent> a hmas:Agent, <http://example.org/Ag\u00e9nt> .";
+
+    InputStream in = new ByteArrayInputStream(expectedProfile.getBytes(StandardCharsets.UTF_8));
+    BaseResourceProfile profile = BaseResourceProfileGraphReader.readFrom(in);
+
+    ProfiledResource agent = profile.getResource();
+    assertEquals(AGENT, agent.getTypeAsIRI());
+    assertTrue(agent.getSemanticTypes().contains("http://example.org/Ag\u00e9nt"));
+  }
+
+  @Test
+  public void testReadResourceProfileInFormats() throws IOException {
+    BaseResourceProfile expectedProfile =
+            new BaseResourceProfile.Builder(new HypermediaMASPlatform.Builder()
+                    .setIRIAsString("urn:platform")
+                    .addHostedResource(new Workspace.Builder()
+                            .setIRIAsString("urn:workspace")
+                            .addContainedResource(new Artifact.Builder()
+                                    .addSemanticType("http://example.org/Ag\u00e9nt")
+                                    .build())
+                            .build())
+                    .build())
+                    .setIRIAsString("urn:profile")
+                    .build();
+
+    for (RDFFormat format : List.of(RDFFormat.TURTLE, RDFFormat.NTRIPLES, RDFFormat.NQUADS,
+            RDFFormat.JSONLD, RDFFormat.BINARY)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new BaseResourceProfileGraphWriter<>(expectedProfile).write(out, format);
+
+      BaseResourceProfile profile =
+              BaseResourceProfileGraphReader.readFrom(new ByteArrayInputStream(out.toByteArray()), format);
+
+      assertEquals("urn:profile", profile.getIRIAsString().get(), format.getName());
+      HypermediaMASPlatform platform = (HypermediaMASPlatform) profile.getResource();
+      assertEquals("urn:platform", platform.getIRIAsString().get(), format.getName());
+
+      Workspace workspace = (Workspace) platform.getHostedResources().iterator().next();
+      assertEquals("urn:workspace", workspace.getIRIAsString().get(), format.getName());
+
+      AbstractHostable artifact = workspace.getContainedResources().iterator().next();
+      assertEquals(CORE.ARTIFACT, artifact.getTypeAsIRI(), format.getName());
+      assertTrue(artifact.getSemanticTypes().contains("http://example.org/Ag\u00e9nt"), format.getName());
+    }
+  }
+
+  @Test
+  public void testReadResourceProfileFromStringInFormat() {
+    String expectedProfile = "<urn:profile> <" + RDF.TYPE + "> <" + CORE.RESOURCE_PROFILE + "> .\n" +
+            "<urn:profile> <" + CORE.IS_PROFILE_OF + "> <urn:agent> .\n" +
+            "<urn:agent> <" + RDF.TYPE + "> <" + CORE.AGENT + "> .\n";
+
+    BaseResourceProfile profile = BaseResourceProfileGraphReader.readFromString(expectedProfile, RDFFormat.NTRIPLES);
+    assertEquals("urn:agent", profile.getResource().getIRIAsString().get());
+
+    assertThrows(IllegalArgumentException.class,
+            () -> BaseResourceProfileGraphReader.readFromString(expectedProfile, RDFFormat.BINARY));
+  }
+
+  @Test
+  public void testReadResourceProfileFromChannel() throws IOException {
+    String expectedProfile = PREFIXES +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf [ a hmas:Artifact ] .";
+
+    ReadableByteChannel channel = Channels.newChannel(
+            new ByteArrayInputStream(expectedProfile.getBytes(StandardCharsets.UTF_8)));
+    BaseResourceProfile profile = BaseResourceProfileGraphReader.readFrom(channel);
+
+    assertEquals(CORE.ARTIFACT, profile.getResource().getTypeAsIRI());
+    assertTrue(channel.isOpen());
+  }
+
+  @Test
+  public void testReadAllFromPaths() throws IOException {
+    Path directory = Files.createTempDirectory("profiles");
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      Path path = directory.resolve("agent-" + i + ".ttl");
+      Files.write(path, (PREFIXES + ".\n" +
+              "<urn:profile-" + i + "> a hmas:ResourceProfile ;\n" +
+              " hmas:isProfileOf <urn:agent-" + i + "> .\n" +
+              "<urn:agent-" + i + "> a hmas:Agent .").getBytes(StandardCharsets.UTF_8));
+      paths.add(path);
+    }
+    Path malformed = directory.resolve("malformed.ttl");
+    Files.write(malformed, "<urn:profile> a".getBytes(StandardCharsets.UTF_8));
+    paths.add(malformed);
+    Path missing = directory.resolve("missing.ttl");
+    paths.add(missing);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    BatchReadResult<Path> result;
+    try {
+      result = BaseResourceProfileGraphReader.readAll(paths, executor);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(22, result.size());
+    assertEquals(20, result.getProfiles().size());
+    assertEquals("urn:agent-7", result.getProfiles().get(paths.get(7)).getResource().getIRIAsString().get());
+    assertTrue(result.hasFailures());
+    assertEquals(2, result.getFailures().size());
+    assertTrue(result.getFailures().get(malformed) instanceof RDFParseException);
+    assertTrue(result.getFailures().get(missing) instanceof IOException);
+  }
+
+  @Test
+  public void testReadAllFromStrings() {
+    Stream<String> representations = IntStream.range(0, 100)
+            .mapToObj(i -> i == 42
+                    ? PREFIXES + ".\n[] a hmas:ResourceProfile ."
+                    : PREFIXES + ".\n" +
+                    "<urn:profile> a hmas:ResourceProfile ;\n" +
+                    " hmas:isProfileOf <urn:artifact-" + i + "> .\n" +
+                    "<urn:artifact-" + i + "> a hmas:Artifact .");
+
+    BatchReadResult<Integer> result = BaseResourceProfileGraphReader.readAll(representations);
+
+    assertEquals(99, result.getProfiles().size());
+    assertEquals("urn:artifact-99", result.getProfiles().get(99).getResource().getIRIAsString().get());
+    assertEquals(1, result.getFailures().size());
+    assertTrue(result.getFailures().get(42) instanceof InvalidResourceProfileException);
+  }
+
+  @Test
+  public void testReadAllDispatchesWhileStreaming() {
+    AtomicInteger dispatched = new AtomicInteger();
+    Stream<String> representations = IntStream.range(0, 10)
+            .mapToObj(i -> {
+              /* The previous representations were dispatched before this one is drawn */
+              assertEquals(i, dispatched.get());
+              return PREFIXES + ".\n" +
+                      "<urn:profile> a hmas:ResourceProfile ;\n" +
+                      " hmas:isProfileOf <urn:artifact-" + i + "> .\n" +
+                      "<urn:artifact-" + i + "> a hmas:Artifact .";
+            });
+
+    BatchReadResult<Integer> result = BaseResourceProfileGraphReader.readAll(representations, task -> {
+      dispatched.incrementAndGet();
+      task.run();
+    });
+
+    assertEquals(10, result.getProfiles().size());
+    assertTrue(result.getFailures().isEmpty());
+  }
+
+  @Test
+  public void testReadAllBoundsReadsInFlight() throws InterruptedException {
+    ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+    AtomicInteger queued = new AtomicInteger();
+    Stream<String> representations = IntStream.range(0, 200)
+            .mapToObj(i -> {
+              queued.accumulateAndGet(executor.getQueue().size(), Math::max);
+              return PREFIXES + ".\n" +
+                      "<urn:profile> a hmas:ResourceProfile ;\n" +
+                      " hmas:isProfileOf <urn:artifact-" + i + "> .\n" +
+                      "<urn:artifact-" + i + "> a hmas:Artifact .";
+            });
+
+    try {
+      BatchReadResult<Integer> result = BaseResourceProfileGraphReader.readAll(representations, executor);
+
+      assertEquals(200, result.getProfiles().size());
+      /* At most as many reads are in flight as the executor runs at once */
+      assertTrue(queued.get() <= 2);
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
   @Test
   public void testReadResourceProfileOfAgentIRI() {
     String expectedProfile = PREFIXES +
@@ -288,6 +504,161 @@ public class ResourceProfileGraphReaderTest {
     assertEquals(AGENT, hostedResource.getTypeAsIRI());
   }
 
+  @Test
+  public void testDeferredReferenceToFailedResource() {
+    AbstractGraphReader reader = new AbstractGraphReader() {};
+    Resource node = iri("urn:platform");
+    List<Supplier<Set<HypermediaMASPlatform>>> deferred = new ArrayList<>();
+
+    assertThrows(InvalidResourceProfileException.class, () ->
+            reader.readOnce(node, HypermediaMASPlatform.class, n -> {
+              deferred.add(reader.readDeferred(n, HypermediaMASPlatform.class));
+              throw new InvalidResourceProfileException("Invalid platform");
+            }));
+
+    assertThrows(InvalidResourceProfileException.class, () -> deferred.get(0).get());
+  }
+
+  @Test
+  public void testReadResourceProfileWithCyclicHosting() {
+    String expectedProfile = PREFIXES +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:platform> .\n" +
+            "<urn:platform> a hmas:HypermediaMASPlatform ;\n" +
+            " hmas:hosts <urn:agent-1>, <urn:agent-2> .\n" +
+            "<urn:agent-1> a hmas:Agent ;\n" +
+            " hmas:isHostedOn <urn:platform> .\n" +
+            "<urn:agent-2> a hmas:Agent ;\n" +
+            " hmas:isHostedOn <urn:platform> .";
+
+    BaseResourceProfile profile =
+            BaseResourceProfileGraphReader.readFromString(expectedProfile);
+
+    HypermediaMASPlatform platform = (HypermediaMASPlatform) profile.getResource();
+    assertEquals(2, platform.getHostedResources().size());
+    for (AbstractHostable agent : platform.getHostedResources()) {
+      assertEquals(AGENT, agent.getTypeAsIRI());
+      assertEquals(1, agent.getHMASPlatforms().size());
+      assertSame(platform, agent.getHMASPlatforms().iterator().next());
+    }
+  }
+
+  @Test
+  public void testReadResourceProfileWithSharedPlatform() {
+    String expectedProfile = PREFIXES +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:workspace> ;\n" +
+            " hmas:isHostedOn <urn:platform> .\n" +
+            "<urn:workspace> a hmas:Workspace ;\n" +
+            " hmas:isHostedOn <urn:platform> ;\n" +
+            " hmas:contains <urn:agent>, <urn:artifact> .\n" +
+            "<urn:agent> a hmas:Agent ;\n" +
+            " hmas:isHostedOn <urn:platform> .\n" +
+            "<urn:artifact> a hmas:Artifact ;\n" +
+            " hmas:isHostedOn <urn:platform> .\n" +
+            "<urn:platform> a hmas:HypermediaMASPlatform .";
+
+    BaseResourceProfile profile =
+            BaseResourceProfileGraphReader.readFromString(expectedProfile);
+
+    HypermediaMASPlatform platform = profile.getHMASPlatforms().iterator().next();
+    Workspace workspace = (Workspace) profile.getResource();
+    assertSame(platform, workspace.getHMASPlatforms().iterator().next());
+    for (AbstractHostable contained : workspace.getContainedResources()) {
+      assertSame(platform, contained.getHMASPlatforms().iterator().next());
+    }
+  }
+
+  @Test
+  public void testReadResourceProfileLazily() {
+    String expectedProfile = PREFIXES +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile, <https://example.org/onto#TDDocument> ;\n" +
+            " hmas:isProfileOf <urn:agent> .\n" +
+            "<urn:agent> a <http://example.org/unknown#Agent> .";
+
+    BaseResourceProfile profile =
+            BaseResourceProfileGraphReader.readLazilyFromString(expectedProfile);
+
+    assertEquals("urn:profile", profile.getIRIAsString().get());
+    assertTrue(profile.getSemanticTypes().contains("https://example.org/onto#TDDocument"));
+
+    Exception ex = assertThrows(InvalidResourceProfileException.class, profile::getResource);
+    assertTrue(ex.getMessage().contains("Unknown type of profiled resource."));
+  }
+
+  @Test
+  public void testReleaseReaderOfLazyProfile() {
+    String expectedProfile = PREFIXES +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:workspace> .\n" +
+            "<urn:workspace> a hmas:Workspace ;\n" +
+            " hmas:contains <urn:agent> .\n" +
+            "<urn:agent> a hmas:Agent .";
+
+    BaseResourceProfileGraphReader reader =
+            new BaseResourceProfileGraphReader(RDFFormat.TURTLE, expectedProfile);
+    BaseResourceProfile profile = BaseResourceProfileGraphReader.readProfileLazily(reader);
+    assertSame(reader.getModel(), profile.getGraph().get());
+    assertEquals(3, reader.getUnresolvedReferences());
+
+    Workspace workspace = (Workspace) profile.getResource();
+    assertTrue(profile.getHMASPlatforms().isEmpty());
+    assertTrue(profile.getExposedSignifiers().isEmpty());
+    assertEquals(1, reader.getUnresolvedReferences());
+
+    assertEquals(AGENT, workspace.getContainedResources().iterator().next().getTypeAsIRI());
+    assertEquals(0, reader.getUnresolvedReferences());
+  }
+
+  @Test
+  public void testReadResourceProfileOfWorkspaceLazily() throws Exception {
+    String expectedProfile = PREFIXES +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:workspace> ;\n" +
+            " hmas:isHostedOn <urn:platform> .\n" +
+            "<urn:workspace> a hmas:Workspace ;\n" +
+            " hmas:isHostedOn <urn:platform> ;\n" +
+            " hmas:contains <urn:agent>, <urn:sub-workspace> .\n" +
+            "<urn:agent> a hmas:Agent .\n" +
+            "<urn:sub-workspace> a hmas:Workspace ;\n" +
+            " hmas:contains <urn:unknown> .\n" +
+            "<urn:unknown> a <http://example.org/unknown#Artifact> .\n" +
+            "<urn:platform> a hmas:HypermediaMASPlatform ;\n" +
+            " hmas:hosts <urn:workspace> .";
+
+    BaseResourceProfile profile =
+            BaseResourceProfileGraphReader.readLazilyFromString(expectedProfile);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<ProfiledResource>> owners = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        owners.add(executor.submit(profile::getResource));
+      }
+      for (Future<ProfiledResource> owner : owners) {
+        assertSame(profile.getResource(), owner.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    Workspace workspace = (Workspace) profile.getResource();
+    HypermediaMASPlatform platform = profile.getHMASPlatforms().iterator().next();
+    assertSame(platform, workspace.getHMASPlatforms().iterator().next());
+    assertSame(workspace, platform.getHostedResources().iterator().next());
+    assertEquals(2, workspace.getContainedResources().size());
+
+    Workspace subWorkspace = (Workspace) workspace.getContainedResources().stream()
+            .filter(contained -> WORKSPACE.equals(contained.getTypeAsIRI()))
+            .findFirst().get();
+    assertThrows(InvalidResourceProfileException.class, subWorkspace::getContainedResources);
+  }
+
   @Test
   public void testReadResourceProfileOfWorkspace() {
     String expectedProfile = PREFIXES +
@@ -331,4 +702,29 @@ public class ResourceProfileGraphReaderTest {
     Workspace containedWorkspace = (Workspace) containedWorkspaces.get(0);
     assertEquals(0, containedWorkspace.getContainedResources().size());
   }
+
+  @Test
+  public void testReadResourceProfileWithExposedSignifiers() {
+    String expectedProfile = PREFIXES +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:lamp> ;\n" +
+            " hmas:exposesSignifier <urn:lamp/toggle>, [ a hmas:Signifier, <http://example.org/Dim> ] .\n" +
+            "<urn:lamp> a hmas:Artifact .\n" +
+            "<urn:lamp/toggle> a hmas:Signifier, <http://example.org/Toggle> .";
+
+    BaseResourceProfile profile = BaseResourceProfileGraphReader.readFromString(expectedProfile);
+    BaseResourceProfile lazyProfile = BaseResourceProfileGraphReader.readLazilyFromString(expectedProfile);
+
+    for (BaseResourceProfile read : List.of(profile, lazyProfile)) {
+      Set<BaseSignifier> signifiers = read.getExposedSignifiers();
+      assertEquals(2, signifiers.size());
+      assertTrue(signifiers.stream().allMatch(signifier -> CORE.SIGNIFIER.equals(signifier.getTypeAsIRI())));
+      BaseSignifier toggle = signifiers.stream()
+              .filter(signifier -> signifier.getIRI().isPresent())
+              .findFirst().get();
+      assertEquals("urn:lamp/toggle", toggle.getIRIAsString().get());
+      assertTrue(toggle.getSemanticTypes().contains("http://example.org/Toggle"));
+    }
+  }
 }
@@ -3,6 +3,7 @@ package ch.unisg.ics.interactions.hmas.core.io;
 import ch.unisg.ics.interactions.hmas.core.hostables.*;
 import ch.unisg.ics.interactions.hmas.core.vocabularies.CORE;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.util.ModelBuilder;
 import org.eclipse.rdf4j.model.util.Models;
@@ -11,11 +12,20 @@ import org.eclipse.rdf4j.rio.*;
 import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static org.eclipse.rdf4j.model.util.Values.iri;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ResourceProfileGraphWriterTest {
@@ -27,9 +37,14 @@ public class ResourceProfileGraphWriterTest {
 
   private static Model readModelFromString(String profile, String baseURI)
           throws RDFParseException, RDFHandlerException, IOException {
+    return readModelFromString(RDFFormat.TURTLE, profile, baseURI);
+  }
+
+  private static Model readModelFromString(RDFFormat format, String profile, String baseURI)
+          throws RDFParseException, RDFHandlerException, IOException {
     StringReader stringReader = new StringReader(profile);
 
-    RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
+    RDFParser rdfParser = Rio.createParser(format);
     Model model = new LinkedHashModel();
     rdfParser.setRDFHandler(new StatementCollector(model));
 
@@ -205,6 +220,429 @@ public class ResourceProfileGraphWriterTest {
     assertIsomorphicGraphs(expectedProfile, profile);
   }
 
+  @Test
+  public void testWriteResourceProfileToOutputStream() throws IOException {
+    String expectedProfile = PREFIX +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:platform> ;\n" +
+            " hmas:isHostedOn <urn:super-platform> .\n" +
+            "<urn:platform> a hmas:HypermediaMASPlatform ;\n" +
+            " hmas:hosts [ a hmas:Agent ], <urn:workspace> .\n" +
+            "<urn:workspace> a hmas:Workspace ;\n" +
+            " hmas:contains [ a hmas:Artifact, <https://www.w3.org/2019/wot/td#Thing> ] .\n" +
+            "<urn:super-platform> a hmas:HypermediaMASPlatform .";
+
+    BaseResourceProfile profile =
+            new BaseResourceProfile.Builder(
+                    new HypermediaMASPlatform.Builder().setIRIAsString("urn:platform")
+                            .addHostedResource(new Agent.Builder().build())
+                            .addHostedResource(new Workspace.Builder().setIRIAsString("urn:workspace")
+                                    .addContainedResource(new Artifact.Builder()
+                                            .addSemanticType("https://www.w3.org/2019/wot/td#Thing")
+                                            .build())
+                                    .build())
+                            .build())
+                    .addHMASPlatform(new HypermediaMASPlatform.Builder().setIRIAsString("urn:super-platform").build())
+                    .setIRIAsString("urn:profile")
+                    .build();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BaseResourceProfileGraphWriter<>(profile).write(out, RDFFormat.NTRIPLES);
+    String actualProfile = out.toString(StandardCharsets.UTF_8);
+
+    LOGGER.info("Actual:\n" + actualProfile);
+
+    assertTrue(Models.isomorphic(readModelFromString(expectedProfile, BASE_URI),
+            readModelFromString(RDFFormat.NTRIPLES, actualProfile, BASE_URI)));
+  }
+
+  @Test
+  public void testWriteResourceProfileToWriter() throws IOException {
+    String expectedProfile = PREFIX +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf [ a hmas:Artifact, <https://www.w3.org/2019/wot/td#Thing> ;\n" +
+            "                     hmas:isContainedIn <http://example.org/myWorkspace> ] .\n" +
+            "\n" +
+            "<http://example.org/myWorkspace> a <http://example.org/cartago/Workspace> .";
+
+    Model additionalModel = new ModelBuilder()
+            .add(iri("http://example.org/myWorkspace"), RDF.TYPE, iri("http://example.org/cartago/Workspace"))
+            .setNamespace("cartago", "http://example.org/cartago/")
+            .build();
+
+    BaseResourceProfile profile =
+            new BaseResourceProfile.Builder(new Artifact.Builder()
+                    .addGraph(additionalModel)
+                    .addTriple(RDF.TYPE, iri("https://www.w3.org/2019/wot/td#Thing"))
+                    .addTriple(CORE.IS_CONTAINED_IN, iri("http://example.org/myWorkspace"))
+                    .build())
+                    .setIRIAsString("urn:profile")
+                    .build();
+
+    StringWriter streamed = new StringWriter();
+    new BaseResourceProfileGraphWriter<>(profile).setPrettyPrint(false).write(streamed, RDFFormat.TURTLE);
+    StringWriter prettyPrinted = new StringWriter();
+    new BaseResourceProfileGraphWriter<>(profile).write(prettyPrinted, RDFFormat.TURTLE);
+
+    LOGGER.info("Streamed:\n" + streamed);
+    LOGGER.info("Pretty printed:\n" + prettyPrinted);
+
+    Model expectedModel = readModelFromString(expectedProfile, BASE_URI);
+    assertTrue(Models.isomorphic(expectedModel, readModelFromString(streamed.toString(), BASE_URI)));
+    assertTrue(Models.isomorphic(expectedModel, readModelFromString(prettyPrinted.toString(), BASE_URI)));
+    assertTrue(streamed.toString().contains("@prefix cartago: <http://example.org/cartago/>"));
+    assertTrue(streamed.toString().contains("_:"));
+    assertFalse(prettyPrinted.toString().contains("_:"));
+  }
+
+  @Test
+  public void testWriteResourceProfileWithCyclicHosting() throws IOException {
+    int agents = 10000;
+    AtomicReference<HypermediaMASPlatform> platformReference = new AtomicReference<>();
+
+    HypermediaMASPlatform.Builder platformBuilder = new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:platform");
+    for (int i = 0; i < agents; i++) {
+      platformBuilder.addHostedResource(new Agent.Builder()
+              .addDeferredHMASPlatforms(() -> Set.of(platformReference.get()))
+              .build());
+    }
+    platformReference.set(platformBuilder.build());
+
+    BaseResourceProfile profile =
+            new BaseResourceProfile.Builder(platformReference.get())
+                    .setIRIAsString("urn:profile")
+                    .build();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BaseResourceProfileGraphWriter<>(profile).write(out, RDFFormat.NTRIPLES);
+    Model model = readModelFromString(RDFFormat.NTRIPLES, out.toString(StandardCharsets.UTF_8), BASE_URI);
+
+    /* Each statement is written once: the profile, the platform, and the hosting relations of each agent */
+    assertEquals(3 + 3 * agents, out.toString(StandardCharsets.UTF_8).lines().count());
+    assertEquals(3 + 3 * agents, model.size());
+    assertEquals(agents, model.filter(null, CORE.IS_HOSTED_ON, iri("urn:platform")).subjects().size());
+    assertEquals(agents, model.filter(iri("urn:platform"), CORE.HOSTS, null).objects().size());
+  }
+
+  @Test
+  public void testStreamResourceProfileThatWasRead() throws IOException {
+    String expectedProfile = PREFIX +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:platform> .\n" +
+            "<urn:platform> a hmas:HypermediaMASPlatform, <https://example.org/onto#Platform> ;\n" +
+            " hmas:hosts <urn:agent>, <urn:workspace> .\n" +
+            "<urn:agent> a hmas:Agent ;\n" +
+            " hmas:isHostedOn <urn:platform> .\n" +
+            "<urn:workspace> a hmas:Workspace ;\n" +
+            " hmas:contains <urn:artifact> .\n" +
+            "<urn:artifact> a hmas:Artifact .";
+
+    BaseResourceProfile profile = BaseResourceProfileGraphReader.readFromString(expectedProfile);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BaseResourceProfileGraphWriter<>(profile).write(out, RDFFormat.NTRIPLES);
+    String actualProfile = out.toString(StandardCharsets.UTF_8);
+
+    /* The statements of the graphs of the profile and of its resources are written once */
+    Model expectedModel = readModelFromString(expectedProfile, BASE_URI);
+    assertEquals(11, expectedModel.size());
+    assertEquals(expectedModel.size(), actualProfile.lines().count());
+    assertTrue(Models.isomorphic(expectedModel, readModelFromString(RDFFormat.NTRIPLES, actualProfile, BASE_URI)));
+  }
+
+  @Test
+  public void testWriteTwiceWithTheSameWriter() throws IOException {
+    Model expectedModel = readModelFromString(RDFFormat.NTRIPLES, new BaseResourceProfileGraphWriter<>(
+            anonymousResourcesProfile()).addResourceProfile().write(RDFFormat.NTRIPLES), BASE_URI);
+
+    /* A streamed write does not keep the resources it has written */
+    BaseResourceProfileGraphWriter<BaseResourceProfile> writer =
+            new BaseResourceProfileGraphWriter<>(anonymousResourcesProfile());
+    ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+    writer.write(streamed, RDFFormat.NTRIPLES);
+    String written = writer.addResourceProfile().write(RDFFormat.NTRIPLES);
+
+    assertTrue(Models.isomorphic(expectedModel,
+            readModelFromString(RDFFormat.NTRIPLES, streamed.toString(StandardCharsets.UTF_8), BASE_URI)));
+    assertTrue(Models.isomorphic(expectedModel, readModelFromString(RDFFormat.NTRIPLES, written, BASE_URI)));
+
+    /* A streamed write after a buffered write writes the same profile */
+    writer = new BaseResourceProfileGraphWriter<>(anonymousResourcesProfile());
+    written = writer.addResourceProfile().write(RDFFormat.NTRIPLES);
+    streamed = new ByteArrayOutputStream();
+    writer.write(streamed, RDFFormat.NTRIPLES);
+
+    assertTrue(Models.isomorphic(expectedModel, readModelFromString(RDFFormat.NTRIPLES, written, BASE_URI)));
+    assertEquals(written.lines().count(), streamed.toString(StandardCharsets.UTF_8).lines().count());
+    assertTrue(Models.isomorphic(expectedModel,
+            readModelFromString(RDFFormat.NTRIPLES, streamed.toString(StandardCharsets.UTF_8), BASE_URI)));
+  }
+
+  @Test
+  public void testWriteResourceProfileWithLinksToPlatforms() throws IOException {
+    String expectedProfile = PREFIX +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:agent> .\n" +
+            "<urn:agent> a hmas:Agent ;\n" +
+            " hmas:isHostedOn <urn:platform>, [ a hmas:HypermediaMASPlatform ] .\n" +
+            "<urn:platform> a hmas:HypermediaMASPlatform .";
+
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:platform")
+            .addHostedResource(new Agent.Builder().setIRIAsString("urn:other-agent").build())
+            .addHostedResource(new Artifact.Builder().setIRIAsString("urn:artifact").build())
+            .addSemanticType("https://example.org/onto#Platform")
+            .build();
+
+    BaseResourceProfile profile =
+            new BaseResourceProfile.Builder(new Agent.Builder()
+                    .setIRIAsString("urn:agent")
+                    .addHMASPlatform(platform)
+                    .addHMASPlatform(new HypermediaMASPlatform.Builder().build())
+                    .build())
+                    .setIRIAsString("urn:profile")
+                    .build();
+
+    String actualProfile = new BaseResourceProfileGraphWriter<>(profile)
+            .setExpansionDepth(CORE.IS_HOSTED_ON, 0)
+            .write();
+
+    assertTrue(Models.isomorphic(readModelFromString(expectedProfile, BASE_URI),
+            readModelFromString(actualProfile, BASE_URI)));
+
+    BaseResourceProfile readProfile = BaseResourceProfileGraphReader.readFromString(actualProfile);
+    assertEquals(2, ((Agent) readProfile.getResource()).getHMASPlatforms().size());
+  }
+
+  @Test
+  public void testWriteResourceProfileWithExpansionDepth() throws IOException {
+    String expectedProfile = PREFIX +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:workspace> .\n" +
+            "<urn:workspace> a hmas:Workspace ;\n" +
+            " hmas:contains <urn:sub-workspace> .\n" +
+            "<urn:sub-workspace> a hmas:Workspace, <https://example.org/onto#Room> ;\n" +
+            " hmas:contains <urn:artifact>, [ a hmas:Agent ] .\n" +
+            "<urn:artifact> a hmas:Artifact .";
+
+    BaseResourceProfile profile =
+            new BaseResourceProfile.Builder(new Workspace.Builder()
+                    .setIRIAsString("urn:workspace")
+                    .addContainedResource(new Workspace.Builder()
+                            .setIRIAsString("urn:sub-workspace")
+                            .addSemanticType("https://example.org/onto#Room")
+                            .addContainedResource(new Artifact.Builder()
+                                    .setIRIAsString("urn:artifact")
+                                    .addSemanticType("https://www.w3.org/2019/wot/td#Thing")
+                                    .build())
+                            .addContainedResource(new Agent.Builder().build())
+                            .build())
+                    .build())
+                    .setIRIAsString("urn:profile")
+                    .build();
+
+    String actualProfile = new BaseResourceProfileGraphWriter<>(profile)
+            .setExpansionDepth(1)
+            .write();
+
+    assertTrue(Models.isomorphic(readModelFromString(expectedProfile, BASE_URI),
+            readModelFromString(actualProfile, BASE_URI)));
+  }
+
+  @Test
+  public void testWriteResourceReachedAgainWithinExpansionDepth() throws IOException {
+    String expectedProfile = PREFIX +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:workspace> ;\n" +
+            " hmas:isHostedOn <urn:platform> .\n" +
+            "<urn:workspace> a hmas:Workspace ;\n" +
+            " hmas:contains <urn:artifact> .\n" +
+            "<urn:artifact> a hmas:Artifact ;\n" +
+            " hmas:isHostedOn <urn:platform> .\n" +
+            "<urn:platform> a hmas:HypermediaMASPlatform ;\n" +
+            " hmas:hosts <urn:lamp> .\n" +
+            "<urn:lamp> a hmas:Artifact, <https://example.org/onto#Lamp> .";
+
+    HypermediaMASPlatform platform = new HypermediaMASPlatform.Builder()
+            .setIRIAsString("urn:platform")
+            .addHostedResource(new Artifact.Builder()
+                    .setIRIAsString("urn:lamp")
+                    .addSemanticType("https://example.org/onto#Lamp")
+                    .build())
+            .build();
+    /* The platform is first reached at depth 2 through the workspace, and then at depth 1 */
+    BaseResourceProfile profile =
+            new BaseResourceProfile.Builder(new Workspace.Builder()
+                    .setIRIAsString("urn:workspace")
+                    .addContainedResource(new Artifact.Builder()
+                            .setIRIAsString("urn:artifact")
+                            .addHMASPlatform(platform)
+                            .build())
+                    .build())
+                    .addHMASPlatform(platform)
+                    .setIRIAsString("urn:profile")
+                    .build();
+
+    String actualProfile = new BaseResourceProfileGraphWriter<>(profile)
+            .setExpansionDepth(2)
+            .write();
+
+    assertTrue(Models.isomorphic(readModelFromString(expectedProfile, BASE_URI),
+            readModelFromString(actualProfile, BASE_URI)));
+
+    /* The statements of the platform and of its link to the lamp are streamed once */
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BaseResourceProfileGraphWriter<>(profile).setExpansionDepth(2).write(out, RDFFormat.NTRIPLES);
+    String streamedProfile = out.toString(StandardCharsets.UTF_8);
+    assertEquals(11, streamedProfile.lines().count());
+    assertTrue(Models.isomorphic(readModelFromString(expectedProfile, BASE_URI),
+            readModelFromString(RDFFormat.NTRIPLES, streamedProfile, BASE_URI)));
+  }
+
+  @Test
+  public void testStreamStatementsOfResourceGraphOnce() throws IOException {
+    Artifact lamp = new Artifact.Builder()
+            .setIRIAsString("urn:lamp")
+            .addSemanticType("https://example.org/onto#Lamp")
+            .addTriple(RDF.TYPE, iri("https://example.org/onto#Lamp"))
+            .addTriple(iri("https://example.org/onto#brightness"), iri("https://example.org/onto#High"))
+            .build();
+    BaseResourceProfile profile = new BaseResourceProfile.Builder(lamp)
+            .setIRIAsString("urn:profile")
+            .build();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BaseResourceProfileGraphWriter<>(profile).write(out, RDFFormat.NTRIPLES);
+    String streamedProfile = out.toString(StandardCharsets.UTF_8);
+
+    Model expectedModel = readModelFromString(RDFFormat.NTRIPLES, new BaseResourceProfileGraphWriter<>(profile)
+            .addResourceProfile().write(RDFFormat.NTRIPLES), BASE_URI);
+    assertEquals(5, expectedModel.size());
+    assertEquals(expectedModel.size(), streamedProfile.lines().count());
+    assertTrue(Models.isomorphic(expectedModel, readModelFromString(RDFFormat.NTRIPLES, streamedProfile, BASE_URI)));
+  }
+
+  @Test
+  public void testWriteResourceProfileWithInvalidExpansionDepth() {
+    BaseResourceProfile profile =
+            new BaseResourceProfile.Builder(new Agent.Builder().build())
+                    .setIRIAsString("urn:profile")
+                    .build();
+
+    BaseResourceProfileGraphWriter<BaseResourceProfile> writer = new BaseResourceProfileGraphWriter<>(profile);
+    assertThrows(IllegalArgumentException.class, () -> writer.setExpansionDepth(-1));
+    assertThrows(IllegalArgumentException.class, () -> writer.setExpansionDepth(CORE.IS_PROFILE_OF, 1));
+  }
+
+  @Test
+  public void testWriteResourceProfileInCanonicalForm() throws IOException {
+    String first = new BaseResourceProfileGraphWriter<>(anonymousResourcesProfile())
+            .setCanonical(true)
+            .addResourceProfile()
+            .write(RDFFormat.NTRIPLES);
+    String second = new BaseResourceProfileGraphWriter<>(anonymousResourcesProfile())
+            .setCanonical(true)
+            .addResourceProfile()
+            .write(RDFFormat.NTRIPLES);
+
+    assertEquals(first, second);
+    assertEquals(first.lines().sorted().collect(Collectors.toList()), first.lines().collect(Collectors.toList()));
+    assertEquals(readModelFromString(RDFFormat.NTRIPLES, first, BASE_URI).size(), first.lines().count());
+
+    ByteArrayOutputStream firstTurtle = new ByteArrayOutputStream();
+    new BaseResourceProfileGraphWriter<>(anonymousResourcesProfile()).setCanonical(true)
+            .write(firstTurtle, RDFFormat.TURTLE);
+    ByteArrayOutputStream secondTurtle = new ByteArrayOutputStream();
+    new BaseResourceProfileGraphWriter<>(anonymousResourcesProfile()).setCanonical(true)
+            .write(secondTurtle, RDFFormat.TURTLE);
+
+    assertEquals(firstTurtle.toString(StandardCharsets.UTF_8), secondTurtle.toString(StandardCharsets.UTF_8));
+    assertTrue(Models.isomorphic(readModelFromString(RDFFormat.NTRIPLES, first, BASE_URI),
+            readModelFromString(firstTurtle.toString(StandardCharsets.UTF_8), BASE_URI)));
+  }
+
+  @Test
+  public void testWriteTransitiveContainment() throws IOException {
+    Workspace inner = new Workspace.Builder()
+            .setIRIAsString("urn:inner")
+            .addContainedResource(new Artifact.Builder().setIRIAsString("urn:artifact").build())
+            .addContainedResource(new Agent.Builder().build())
+            .build();
+    Workspace outer = new Workspace.Builder()
+            .setIRIAsString("urn:outer")
+            .addContainedResource(inner)
+            .build();
+    BaseResourceProfile profile = new BaseResourceProfile.Builder(outer)
+            .setIRIAsString("urn:profile")
+            .build();
+
+    Model model = readModelFromString(RDFFormat.TURTLE, new BaseResourceProfileGraphWriter<>(profile)
+            .setContainmentIndex(ContainmentIndex.of(outer))
+            .addResourceProfile()
+            .write(RDFFormat.TURTLE), BASE_URI);
+
+    assertEquals(3, model.filter(iri("urn:outer"), CORE.TRANSITIVELY_CONTAINS, null).size());
+    assertEquals(2, model.filter(iri("urn:inner"), CORE.TRANSITIVELY_CONTAINS, null).size());
+    assertTrue(model.contains(iri("urn:outer"), CORE.TRANSITIVELY_CONTAINS, iri("urn:artifact")));
+    Resource agent = Models.subject(model.filter(null, RDF.TYPE, CORE.AGENT)).get();
+    assertTrue(model.contains(iri("urn:inner"), CORE.CONTAINS, agent));
+    assertTrue(model.contains(iri("urn:outer"), CORE.TRANSITIVELY_CONTAINS, agent));
+
+    Model linked = readModelFromString(RDFFormat.TURTLE, new BaseResourceProfileGraphWriter<>(profile)
+            .setContainmentIndex(ContainmentIndex.of(outer))
+            .setExpansionDepth(0)
+            .addResourceProfile()
+            .write(RDFFormat.TURTLE), BASE_URI);
+    /* The anonymous agent is not written beyond the expansion depth, and is thus not referenced */
+    assertEquals(2, linked.filter(iri("urn:outer"), CORE.TRANSITIVELY_CONTAINS, null).size());
+    assertTrue(linked.contains(iri("urn:outer"), CORE.TRANSITIVELY_CONTAINS, iri("urn:artifact")));
+  }
+
+  @Test
+  public void testWriteResourceProfileWithExposedSignifiers() throws IOException {
+    String expectedProfile = PREFIX +
+            ".\n" +
+            "<urn:profile> a hmas:ResourceProfile ;\n" +
+            " hmas:isProfileOf <urn:lamp> ;\n" +
+            " hmas:exposesSignifier <urn:lamp/toggle>, [ a hmas:Signifier, <http://example.org/Dim> ] .\n" +
+            "<urn:lamp> a hmas:Artifact .\n" +
+            "<urn:lamp/toggle> a hmas:Signifier, <http://example.org/Toggle> .";
+
+    BaseResourceProfile profile =
+            new BaseResourceProfile.Builder(new Artifact.Builder()
+                    .setIRIAsString("urn:lamp").build())
+                    .setIRIAsString("urn:profile")
+                    .addExposedSignifier(new BaseSignifier.Builder()
+                            .setIRIAsString("urn:lamp/toggle")
+                            .addSemanticType("http://example.org/Toggle")
+                            .build())
+                    .addExposedSignifier(new BaseSignifier.Builder()
+                            .addSemanticType("http://example.org/Dim")
+                            .build())
+                    .build();
+
+    assertIsomorphicGraphs(expectedProfile, profile);
+  }
+
+  private static BaseResourceProfile anonymousResourcesProfile() {
+    Workspace.Builder workspace = new Workspace.Builder()
+            .setIRIAsString("urn:workspace");
+    for (int i = 0; i < 3; i++) {
+      workspace.addContainedResource(new Artifact.Builder()
+              .addSemanticType("http://example.org/Type" + i)
+              .build());
+      workspace.addContainedResource(new Agent.Builder().build());
+    }
+    return new BaseResourceProfile.Builder(workspace.build()).build();
+  }
+
   private void assertIsomorphicGraphs(String expectedProfile, BaseResourceProfile profile) throws RDFParseException,
           RDFHandlerException, IOException {
 
@@ -0,0 +1,165 @@
+package ch.unisg.ics.interactions.hmas.core.io;
+
+import ch.unisg.ics.interactions.hmas.core.hostables.*;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static ch.unisg.ics.interactions.hmas.core.vocabularies.CORE.WORKSPACE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceProfileRepresentationCacheTest {
+
+  private static BaseResourceProfile workspaceProfile(String workspace, int artifacts) {
+    Workspace.Builder builder = new Workspace.Builder().setIRIAsString(workspace);
+    for (int i = 0; i < artifacts; i++) {
+      builder.addContainedResource(new Artifact.Builder()
+              .setIRIAsString(workspace + "/artifacts/" + i)
+              .build());
+    }
+    return new BaseResourceProfile.Builder(builder.build())
+            .setIRIAsString(workspace + "/profile")
+            .build();
+  }
+
+  @Test
+  public void testGetRepresentation() throws IOException {
+    ResourceProfileRepresentationCache cache = new ResourceProfileRepresentationCache.Builder().build();
+    BaseResourceProfile profile = workspaceProfile("urn:workspace", 3);
+
+    ResourceProfileRepresentationCache.Representation first = cache.getRepresentation(profile, RDFFormat.TURTLE);
+    ResourceProfileRepresentationCache.Representation second = cache.getRepresentation(profile, RDFFormat.TURTLE);
+
+    assertSame(first, second);
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+    assertEquals("text/turtle; charset=UTF-8", first.getContentType());
+    assertTrue(first.getETag().matches("\"[0-9a-f]{64}\""));
+
+    BaseResourceProfile read = BaseResourceProfileGraphReader.readFrom(first.getContent(), RDFFormat.TURTLE);
+    assertEquals(WORKSPACE, read.getResource().getTypeAsIRI());
+    assertEquals(3, ((Workspace) read.getResource()).getContainedResources().size());
+  }
+
+  @Test
+  public void testETagOfEqualProfiles() {
+    ResourceProfileRepresentationCache cache = new ResourceProfileRepresentationCache.Builder().build();
+    BaseResourceProfile first = new BaseResourceProfile.Builder(new Workspace.Builder()
+            .setIRIAsString("urn:workspace")
+            .addContainedResource(new Artifact.Builder().addSemanticType("urn:Lamp").build())
+            .addContainedResource(new Agent.Builder().build())
+            .build())
+            .setIRIAsString("urn:workspace/profile")
+            .build();
+    BaseResourceProfile second = new BaseResourceProfile.Builder(new Workspace.Builder()
+            .setIRIAsString("urn:workspace")
+            .addContainedResource(new Agent.Builder().build())
+            .addContainedResource(new Artifact.Builder().addSemanticType("urn:Lamp").build())
+            .build())
+            .setIRIAsString("urn:workspace/profile")
+            .build();
+
+    /* Blank nodes and statements are written in canonical form */
+    assertEquals(cache.getRepresentation(first, RDFFormat.TURTLE).getETag(),
+            cache.getRepresentation(second, RDFFormat.TURTLE).getETag());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testGetRepresentationInFormats() throws IOException {
+    ResourceProfileRepresentationCache cache = new ResourceProfileRepresentationCache.Builder().build();
+    BaseResourceProfile profile = workspaceProfile("urn:workspace", 3);
+
+    ResourceProfileRepresentationCache.Representation turtle = cache.getRepresentation(profile, RDFFormat.TURTLE);
+    ResourceProfileRepresentationCache.Representation binary = cache.getRepresentation(profile, RDFFormat.BINARY);
+
+    assertEquals(2, cache.size());
+    assertNotEquals(turtle.getETag(), binary.getETag());
+    assertEquals(RDFFormat.BINARY.getDefaultMIMEType(), binary.getContentType());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    binary.writeTo(out);
+    assertArrayEquals(binary.getBytes(), out.toByteArray());
+    assertEquals("urn:workspace/profile",
+            BaseResourceProfileGraphReader.readFrom(binary.getContent(), RDFFormat.BINARY).getIRIAsString().get());
+  }
+
+  @Test
+  public void testGzipVariant() throws IOException {
+    ResourceProfileRepresentationCache cache = new ResourceProfileRepresentationCache.Builder()
+            .setGzip(true)
+            .build();
+    BaseResourceProfile profile = workspaceProfile("urn:workspace", 50);
+
+    ResourceProfileRepresentationCache.Representation representation =
+            cache.getRepresentation(profile, RDFFormat.TURTLE);
+
+    assertTrue(representation.getGzipLength().get() < representation.getLength());
+    assertNotEquals(representation.getETag(), representation.getGzipETag().get());
+    try (InputStream in = new GZIPInputStream(representation.getGzipContent().get())) {
+      assertEquals(new String(representation.getBytes(), StandardCharsets.UTF_8),
+              new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testWithoutGzipVariant() {
+    ResourceProfileRepresentationCache cache = new ResourceProfileRepresentationCache.Builder().build();
+
+    ResourceProfileRepresentationCache.Representation representation =
+            cache.getRepresentation(workspaceProfile("urn:workspace", 1), RDFFormat.TURTLE);
+
+    assertTrue(representation.getGzipContent().isEmpty());
+    assertThrows(IllegalStateException.class, () -> representation.writeGzipTo(new ByteArrayOutputStream()));
+  }
+
+  @Test
+  public void testWithWriterFactory() {
+    ResourceProfileRepresentationCache cache = new ResourceProfileRepresentationCache.Builder()
+            .setWriterFactory(profile -> new BaseResourceProfileGraphWriter<>(profile).setExpansionDepth(0))
+            .build();
+    BaseResourceProfile profile = workspaceProfile("urn:workspace", 3);
+
+    String representation = new String(cache.getRepresentation(profile, RDFFormat.NTRIPLES).getBytes(),
+            StandardCharsets.UTF_8);
+    assertEquals(new BaseResourceProfileGraphWriter<>(profile).setExpansionDepth(0).addResourceProfile()
+            .write(RDFFormat.NTRIPLES).lines().count(), representation.lines().count());
+  }
+
+  @Test
+  public void testEvictBySize() {
+    BaseResourceProfile small = workspaceProfile("urn:small", 1);
+    BaseResourceProfile large = workspaceProfile("urn:large", 100);
+    int smallLength = new ResourceProfileRepresentationCache.Builder().build()
+            .getRepresentation(small, RDFFormat.TURTLE).getLength();
+
+    ResourceProfileRepresentationCache cache = new ResourceProfileRepresentationCache.Builder()
+            .setMaximumWeight(3L * smallLength)
+            .build();
+    cache.getRepresentation(small, RDFFormat.TURTLE);
+    cache.getRepresentation(small, RDFFormat.NTRIPLES);
+    cache.getRepresentation(large, RDFFormat.TURTLE);
+
+    assertTrue(cache.getEvictionCount() > 0);
+  }
+
+  @Test
+  public void testInvalidate() {
+    ResourceProfileRepresentationCache cache = new ResourceProfileRepresentationCache.Builder().build();
+    BaseResourceProfile profile = workspaceProfile("urn:workspace", 1);
+
+    ResourceProfileRepresentationCache.Representation first = cache.getRepresentation(profile, RDFFormat.TURTLE);
+    cache.getRepresentation(profile, RDFFormat.JSONLD);
+    cache.invalidate(profile);
+
+    assertEquals(0, cache.size());
+    ResourceProfileRepresentationCache.Representation second = cache.getRepresentation(profile, RDFFormat.TURTLE);
+    assertNotSame(first, second);
+    assertEquals(2 + 1, cache.getMissCount());
+  }
+}